@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import java.time.Instant;
+
+/**
+ * Statistics of the commands of a given name run by a client on a collection, over an interval starting at
+ * {@link #getSince()}. Commands that do not target a collection, such as {@code ping}, are reported on the
+ * {@code $cmd} collection.
+ *
+ * @see MongoDbStatistics#snapshotCommands(String)
+ */
+public interface CommandStatistics {
+    /**
+     * Returns the name of the client, as configured under {@code mongoDb.clients}.
+     *
+     * @return the client name.
+     */
+    String getClientName();
+
+    /**
+     * Returns the alias of the database, or its name if it is not configured.
+     *
+     * @return the database alias.
+     */
+    String getDatabase();
+
+    /**
+     * Returns the name of the collection targeted by the commands, {@code $cmd} for the commands that do not target
+     * a collection and {@code ?} for the commands whose collection was lost by the time they completed.
+     *
+     * @return the collection name.
+     */
+    String getCollection();
+
+    /**
+     * Returns the name of the command, such as {@code find}, {@code getMore}, {@code insert} or {@code aggregate}.
+     *
+     * @return the command name.
+     */
+    String getCommandName();
+
+    /**
+     * Returns the instant the interval of the statistics started at.
+     *
+     * @return the start of the interval.
+     */
+    Instant getSince();
+
+    /**
+     * Returns the histogram of the latencies of the commands, failed ones included, in nanoseconds. Percentiles are
+     * known within 1/8 of their value.
+     *
+     * @return the latency histogram.
+     */
+    Histogram getLatencies();
+
+    /**
+     * Returns the histogram of the number of documents in the replies of the successful commands: the documents of
+     * the returned batch for cursor commands, the matched or written documents for write commands.
+     *
+     * @return the reply size histogram.
+     */
+    Histogram getReplySizes();
+
+    /**
+     * Returns the number of failed commands.
+     *
+     * @return the failure count.
+     */
+    long getFailureCount();
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import java.util.Map;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+
+/**
+ * Statistics of the connection pools of a configured client, aggregated over the pools of all its servers.
+ */
+public interface ConnectionPoolStatistics {
+    /**
+     * Returns the name of the client, as configured under {@code mongoDb.clients}.
+     *
+     * @return the client name.
+     */
+    String getClientName();
+
+    /**
+     * Returns the maximum size of the pool of each server.
+     *
+     * @return the maximum pool size, zero if no pool has been created yet.
+     */
+    int getMaxSize();
+
+    /**
+     * Returns the number of connections currently open, whether checked out or idle.
+     *
+     * @return the open connection count.
+     */
+    long getOpenCount();
+
+    /**
+     * Returns the number of connections currently checked out by operations.
+     *
+     * @return the checked-out connection count.
+     */
+    long getCheckedOutCount();
+
+    /**
+     * Returns the number of operations currently waiting for a connection.
+     *
+     * @return the wait queue depth.
+     */
+    long getWaitQueueDepth();
+
+    /**
+     * Returns the histogram of the time operations waited to check out a connection, failed check outs included, in
+     * nanoseconds.
+     *
+     * @return the checkout latency histogram.
+     */
+    Histogram getCheckoutTimes();
+
+    /**
+     * Returns the number of connections created since the client was created. Sampled over time, it gives the
+     * connection creation rate.
+     *
+     * @return the created connection count.
+     */
+    long getCreatedCount();
+
+    /**
+     * Returns the number of connections closed since the client was created. Sampled over time, it gives the
+     * connection close rate.
+     *
+     * @return the closed connection count.
+     */
+    long getClosedCount();
+
+    /**
+     * Returns the number of failed check outs since the client was created.
+     *
+     * @return the failed checkout count.
+     */
+    long getCheckoutFailureCount();
+
+    /**
+     * Returns the number of failed check outs since the client was created, by reason.
+     *
+     * @return the failed checkout counts, by reason.
+     */
+    Map<ConnectionCheckOutFailedEvent.Reason, Long> getCheckoutFailureCounts();
+}
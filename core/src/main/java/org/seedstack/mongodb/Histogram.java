@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with power-of-two buckets: a value falls into the bucket of its highest
+ * bit, so percentiles are known within a factor of two whatever the range of the values. Each power of two can be
+ * further split into {@code 2^precisionBits} linear sub-buckets, like HDR histograms, bounding the relative error of
+ * percentiles by {@code 2^-precisionBits}. Values below {@code 2^(precisionBits + 1)} are recorded exactly.
+ */
+public class Histogram {
+    private final int precisionBits;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram with one bucket per power of two.
+     */
+    public Histogram() {
+        this(0);
+    }
+
+    /**
+     * Creates a histogram with {@code 2^precisionBits} sub-buckets per power of two.
+     *
+     * @param precisionBits the number of bits of precision, between 0 and 8.
+     */
+    public Histogram(int precisionBits) {
+        if (precisionBits < 0 || precisionBits > 8) {
+            throw new IllegalArgumentException("Precision bits must be between 0 and 8");
+        }
+        this.precisionBits = precisionBits;
+        this.buckets = new LongAdder[(64 - precisionBits) << precisionBits];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value, negative values being recorded as zero.
+     *
+     * @param value the value.
+     */
+    public void record(long value) {
+        long recorded = Math.max(value, 0);
+        buckets[bucketIndex(recorded)].increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, zero if no value was recorded.
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Returns the greatest recorded value.
+     *
+     * @return the maximum, zero if no value was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile: the upper bound of the bucket holding it, capped by the maximum.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound of the percentile, zero if no value was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+        long cumulated = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank && cumulated > 0) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    private int bucketIndex(long value) {
+        // values below 2^(precisionBits + 1) are not shifted, each of them having its own bucket
+        int shift = Math.max(63 - Long.numberOfLeadingZeros(value) - precisionBits, 0);
+        return (shift << precisionBits) + (int) (value >>> shift);
+    }
+
+    private long bucketUpperBound(int index) {
+        int shift = Math.max((index >> precisionBits) - 1, 0);
+        long subBucket = index - ((long) shift << precisionBits);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + getMean() + ", p50=" + getPercentile(50) + ", p99="
+                + getPercentile(99) + ", max=" + getMax();
+    }
+}
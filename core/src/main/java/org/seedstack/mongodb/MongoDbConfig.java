@@ -34,6 +34,8 @@ public class MongoDbConfig {
         private String uri;
         private List<String> hosts = new ArrayList<>();
         private String credentials;
+        private boolean reactive;
+        private long slowOperationThresholdMS = -1;
         private Map<String, DatabaseConfig> databases = new HashMap<>();
 
         public boolean isConfiguredByUri() {
@@ -72,6 +74,24 @@ public class MongoDbConfig {
             return credentials;
         }
 
+        public boolean isReactive() {
+            return reactive;
+        }
+
+        public ClientConfig setReactive(boolean reactive) {
+            this.reactive = reactive;
+            return this;
+        }
+
+        public long getSlowOperationThresholdMS() {
+            return slowOperationThresholdMS;
+        }
+
+        public ClientConfig setSlowOperationThresholdMS(long slowOperationThresholdMS) {
+            this.slowOperationThresholdMS = slowOperationThresholdMS;
+            return this;
+        }
+
         public Map<String, DatabaseConfig> getDatabases() {
             return Collections.unmodifiableMap(databases);
         }
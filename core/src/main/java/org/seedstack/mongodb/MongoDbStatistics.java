@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statistics of the configured MongoDb clients, synchronous or reactive, keyed by client name. They are also reported
+ * in the {@code org.seedstack.mongodb} diagnostic domain.
+ */
+public interface MongoDbStatistics {
+    /**
+     * Returns the connection pool statistics of a client.
+     *
+     * @param clientName the name of the client.
+     * @return the connection pool statistics, empty if the client is not configured.
+     */
+    Optional<ConnectionPoolStatistics> getConnectionPool(String clientName);
+
+    /**
+     * Returns the connection pool statistics of all the clients.
+     *
+     * @return the connection pool statistics, by client name.
+     */
+    Map<String, ConnectionPoolStatistics> getConnectionPools();
+
+    /**
+     * Returns the statistics of the commands run by a client since the last snapshot, one per database, collection
+     * and command name. They keep being updated by the commands that follow.
+     *
+     * @param clientName the name of the client.
+     * @return the command statistics, empty if the client is not configured.
+     */
+    Collection<CommandStatistics> getCommands(String clientName);
+
+    /**
+     * Takes a snapshot of the statistics of the commands run by a client since the last snapshot, and starts a new
+     * interval. Taking snapshots periodically gives the percentiles of each period.
+     *
+     * @param clientName the name of the client.
+     * @return the command statistics of the interval ending now, empty if the client is not configured.
+     */
+    Collection<CommandStatistics> snapshotCommands(String clientName);
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Description of the operation running on the current thread, attached to the slow commands it issues so that they
+ * can be traced back to their caller. The description is only computed when a slow command is reported.
+ *
+ * <pre>{@code
+ * try (OperationContext.Scope ignored = OperationContext.enter(() -> "OrderRepository.get(" + spec + ")")) {
+ *     // commands issued here are attributed to the operation
+ * }
+ * }</pre>
+ */
+public final class OperationContext {
+    private static final ThreadLocal<Supplier<String>> CURRENT = new ThreadLocal<>();
+
+    private OperationContext() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Enters an operation on the current thread, until the returned scope is closed.
+     *
+     * @param description the supplier of the description of the operation.
+     * @return the scope of the operation, restoring the enclosing operation when closed.
+     */
+    public static Scope enter(Supplier<String> description) {
+        Supplier<String> enclosing = CURRENT.get();
+        CURRENT.set(description);
+        return new Scope(enclosing);
+    }
+
+    /**
+     * Returns the supplier of the description of the operation running on the current thread.
+     *
+     * @return the description supplier, empty if no operation was entered.
+     */
+    public static Optional<Supplier<String>> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Wraps a task so that it runs within the operation running on the current thread, if any, when executed on
+     * another thread.
+     *
+     * @param task the task.
+     * @return the wrapped task, or the task itself if no operation was entered.
+     */
+    public static Runnable wrap(Runnable task) {
+        Supplier<String> description = CURRENT.get();
+        if (description == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = enter(description)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Wraps an iterator so that it is iterated within the operation running on the current thread, if any, such as a
+     * cursor whose next batches are fetched after the operation returned it.
+     *
+     * @param iterator the iterator.
+     * @param <T>      the type of the elements.
+     * @return the wrapped iterator, or the iterator itself if no operation was entered.
+     */
+    public static <T> Iterator<T> wrap(Iterator<T> iterator) {
+        Supplier<String> description = CURRENT.get();
+        if (description == null) {
+            return iterator;
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try (Scope ignored = enter(description)) {
+                    return iterator.hasNext();
+                }
+            }
+
+            @Override
+            public T next() {
+                try (Scope ignored = enter(description)) {
+                    return iterator.next();
+                }
+            }
+        };
+    }
+
+    /**
+     * Scope of an operation entered on a thread, which must be closed on the same thread.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Supplier<String> enclosing;
+
+        private Scope(Supplier<String> enclosing) {
+            this.enclosing = enclosing;
+        }
+
+        @Override
+        public void close() {
+            if (enclosing == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(enclosing);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.BsonDocument;
+import org.seedstack.coffig.BuilderSupplier;
+import org.seedstack.coffig.Coffig;
+import org.seedstack.mongodb.MongoDbConfig;
+import org.seedstack.seed.SeedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Module;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ServerAddress;
+
+abstract class AbstractMongoDbManager<C, D> implements MongoDbManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMongoDbManager.class);
+    private final Class<C> clientClass;
+    private final Class<D> dbClass;
+    private final MongoDbMonitor mongoDbMonitor;
+    private final Map<String, C> mongoClients = new HashMap<>();
+    private final Map<String, D> mongoDatabases = new HashMap<>();
+
+    AbstractMongoDbManager(Class<C> clientClass, Class<D> dbClass, MongoDbMonitor mongoDbMonitor) {
+        this.clientClass = clientClass;
+        this.dbClass = dbClass;
+        this.mongoDbMonitor = mongoDbMonitor;
+    }
+
+    protected abstract C doCreateClient(MongoClientSettings mongoClientSettings);
+
+    protected abstract D doCreateDatabase(C client, String dbName);
+
+    protected abstract void doClose(C client);
+
+    protected abstract BsonDocument doRunCommand(C client, String dbName, BsonDocument command);
+
+    private C createClient(String clientName, MongoDbConfig.ClientConfig clientConfig, Coffig coffig) {
+        AllOptions allOptions = coffig.get(AllOptions.class, String.format("mongoDb.clients.%s", clientName));
+        ConnectionPoolMonitor connectionPoolMonitor = mongoDbMonitor.registerConnectionPool(clientName);
+        MongoClientSettings.Builder mongoClientSettingsBuilder = allOptions.options
+                .get()
+                .applyToConnectionPoolSettings(builder -> builder.addConnectionPoolListener(connectionPoolMonitor))
+                .addCommandListener(mongoDbMonitor.registerCommands(clientName));
+        SlowOperationMonitor slowOperationMonitor = null;
+        if (clientConfig.getSlowOperationThresholdMS() >= 0) {
+            slowOperationMonitor = mongoDbMonitor.registerSlowOperations(clientName,
+                    clientConfig.getSlowOperationThresholdMS());
+            mongoClientSettingsBuilder.addCommandListener(slowOperationMonitor);
+        }
+        C mongoClient;
+        if (clientConfig.isConfiguredByUri()) {
+            mongoClient = doCreateClient(
+                    mongoClientSettingsBuilder
+                            .applyConnectionString(new ConnectionString(clientConfig.getUri()))
+                            .build());
+        } else {
+            mongoClient = createMongoClient(clientName, clientConfig, mongoClientSettingsBuilder);
+        }
+        if (slowOperationMonitor != null) {
+            slowOperationMonitor.setCommandRunner((dbName, command) -> doRunCommand(mongoClient, dbName, command));
+        }
+        return mongoClient;
+    }
+
+    private C createMongoClient(
+            String clientName,
+            MongoDbConfig.ClientConfig clientConfig,
+            MongoClientSettings.Builder mongoClientSettingsBuilder) {
+        List<ServerAddress> serverAddresses = buildServerAddresses(clientName, clientConfig.getHosts());
+
+        if (serverAddresses.isEmpty()) {
+            throw SeedException.createNew(MongoDbErrorCode.MISSING_HOSTS_CONFIGURATION)
+                    .put("clientName", clientName);
+        }
+
+        ConnectionString connectionString = buildConnectionString(clientName, serverAddresses,
+                clientConfig.getCredentials());
+
+        return doCreateClient(mongoClientSettingsBuilder.applyConnectionString(connectionString).build());
+
+    }
+
+    @Override
+    public void registerClient(
+            String clientName, MongoDbConfig.ClientConfig clientConfig, Coffig coffig) {
+        LOGGER.info("Creating MongoDB client {}", clientName);
+        mongoClients.put(clientName, createClient(clientName, clientConfig, coffig));
+    }
+
+    @Override
+    public void registerDatabase(String clientName, String dbName, String alias) {
+        C mongoClient = mongoClients.get(clientName);
+        Preconditions.checkNotNull(mongoClient, "Mongo client " + clientName + " is not registered");
+        mongoDatabases.put(alias, doCreateDatabase(mongoClient, dbName));
+        mongoDbMonitor.registerDatabase(clientName, dbName, alias);
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            for (Map.Entry<String, C> mongoClientEntry : mongoClients.entrySet()) {
+                LOGGER.info("Closing MongoDB client {}", mongoClientEntry.getKey());
+                try {
+                    doClose(mongoClientEntry.getValue());
+                } catch (Exception e) {
+                    LOGGER.error(
+                            String.format(
+                                    "Unable to properly close MongoDB client %s", mongoClientEntry.getKey()),
+                            e);
+                }
+            }
+        } finally {
+            mongoDatabases.clear();
+            mongoClients.clear();
+        }
+    }
+
+    @Override
+    public Module getModule() {
+        return new MongoDbModule<>(clientClass, dbClass, mongoClients, mongoDatabases);
+    }
+
+    ConnectionString buildConnectionString(String clientName, List<ServerAddress> serverAddresses,
+            String mongoCredential) {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("mongodb://");
+
+        if (mongoCredential != null) {
+            builder.append(mongoCredential);
+            builder.append("@");
+        }
+        if (serverAddresses.size() == 1) {
+            builder.append(serverAddresses.get(0));
+        } else {
+            builder.append(serverAddresses.stream()
+                    .map(x -> x.toString())
+                    .collect(Collectors.joining(",")));
+        }
+        LOGGER.info("Connection string", builder);
+        return new ConnectionString(builder.toString());
+    }
+
+    List<ServerAddress> buildServerAddresses(String clientName, List<String> addresses) {
+        List<ServerAddress> serverAddresses = new ArrayList<>();
+
+        if (addresses != null) {
+            for (String address : addresses) {
+                String[] split = address.split(":", 2);
+                if (split.length == 1) {
+                    serverAddresses.add(new ServerAddress(split[0]));
+                } else if (split.length == 2) {
+                    serverAddresses.add(new ServerAddress(split[0], Integer.parseInt(split[1])));
+                } else {
+                    throw SeedException.createNew(MongoDbErrorCode.INVALID_SERVER_ADDRESS)
+                            .put("clientName", clientName)
+                            .put("address", address);
+                }
+            }
+        }
+
+        return serverAddresses;
+    }
+
+    private static class AllOptions {
+        private BuilderSupplier<MongoClientSettings.Builder> options = BuilderSupplier
+                .of(MongoClientSettings.builder());
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.io.BsonInput;
+import org.bson.io.ByteBufferBsonInput;
+
+/**
+ * Reads fields of serialized BSON documents in place, the names and values of the skipped fields being compared and
+ * skipped as bytes without being decoded. String values are interned from their bytes, so that the documents of the
+ * driver events can be inspected without allocating once their strings have been seen.
+ */
+final class BsonScanner {
+    private static final int MAX_INTERNED_STRINGS = 10_000;
+    private static final Map<Utf8Key, String> INTERNED_STRINGS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Utf8Key> PROBE = ThreadLocal.withInitial(Utf8Key::new);
+
+    private BsonScanner() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Encodes a field name to compare it with the serialized names.
+     *
+     * @param name the field name.
+     * @return the UTF-8 bytes of the name.
+     */
+    static byte[] name(String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens the serialized form of a lazy document, such as the documents of the driver events.
+     *
+     * @param document the document.
+     * @return the input positioned on the size of the document, null if the document is not serialized.
+     */
+    static BsonInput open(BsonDocument document) {
+        if (document instanceof RawBsonDocument) {
+            return new ByteBufferBsonInput(((RawBsonDocument) document).getByteBuffer());
+        } else if (document.getClass() != BsonDocument.class) {
+            BsonReader reader = document.asBsonReader();
+            if (reader instanceof BsonBinaryReader) {
+                return ((BsonBinaryReader) reader).getBsonInput();
+            }
+            reader.close();
+        }
+        return null;
+    }
+
+    /**
+     * Copies the document starting at the current position, without decoding it.
+     *
+     * @param input the input positioned on the size of a document.
+     * @return the bytes of the document.
+     */
+    static byte[] readDocument(BsonInput input) {
+        int size = input.readInt32();
+        byte[] bytes = new byte[size];
+        bytes[0] = (byte) size;
+        bytes[1] = (byte) (size >> 8);
+        bytes[2] = (byte) (size >> 16);
+        bytes[3] = (byte) (size >> 24);
+        input.readBytes(bytes, 4, size - 4);
+        return bytes;
+    }
+
+    /**
+     * Enters the document starting at the current position.
+     *
+     * @param input the input positioned on the size of a document.
+     */
+    static void enterDocument(BsonInput input) {
+        input.readInt32();
+    }
+
+    /**
+     * Reads the type of the next field of the current document.
+     *
+     * @param input the input positioned on a field of the current document.
+     * @return the type of the field, {@link BsonType#END_OF_DOCUMENT} at the end of the document.
+     */
+    static BsonType readType(BsonInput input) {
+        return BsonType.findByValue(input.readByte());
+    }
+
+    /**
+     * Reads the name of the current field, comparing it with an expected name.
+     *
+     * @param input the input positioned on the name of a field.
+     * @param name  the expected name, as returned by {@link #name(String)}, or null to skip the name.
+     * @return true if the name is the expected one, false otherwise.
+     */
+    static boolean readName(BsonInput input, byte[] name) {
+        if (name == null) {
+            input.skipCString();
+            return false;
+        }
+        boolean matches = true;
+        int index = 0;
+        byte b;
+        while ((b = input.readByte()) != 0) {
+            matches = matches && index < name.length && name[index] == b;
+            index++;
+        }
+        return matches && index == name.length;
+    }
+
+    /**
+     * Moves to the value of a field of the current document.
+     *
+     * @param input the input positioned on a field of the current document.
+     * @param name  the name of the field, as returned by {@link #name(String)}.
+     * @return the type of the field value, {@link BsonType#END_OF_DOCUMENT} if the field is not found.
+     */
+    static BsonType findField(BsonInput input, byte[] name) {
+        BsonType type;
+        while ((type = readType(input)) != BsonType.END_OF_DOCUMENT) {
+            if (readName(input, name)) {
+                return type;
+            }
+            skipValue(input, type);
+        }
+        return type;
+    }
+
+    /**
+     * Counts the elements of the array starting at the current position, without decoding them.
+     *
+     * @param input the input positioned on the size of an array.
+     * @return the number of elements.
+     */
+    static int countElements(BsonInput input) {
+        enterDocument(input);
+        int count = 0;
+        BsonType type;
+        while ((type = readType(input)) != BsonType.END_OF_DOCUMENT) {
+            input.skipCString();
+            skipValue(input, type);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the string starting at the current position, returning the same instance for the same bytes.
+     *
+     * @param input the input positioned on a string value.
+     * @return the string.
+     */
+    static String readInternedString(BsonInput input) {
+        int length = input.readInt32() - 1;
+        Utf8Key probe = PROBE.get();
+        probe.read(input, length);
+        input.skip(1);
+        String string = INTERNED_STRINGS.get(probe);
+        if (string == null) {
+            string = new String(probe.bytes, 0, length, StandardCharsets.UTF_8);
+            if (INTERNED_STRINGS.size() < MAX_INTERNED_STRINGS) {
+                String previous = INTERNED_STRINGS.putIfAbsent(probe.copy(), string);
+                if (previous != null) {
+                    string = previous;
+                }
+            }
+        }
+        return string;
+    }
+
+    /**
+     * Skips the value of the current field.
+     *
+     * @param input the input positioned on the value of a field.
+     * @param type  the type of the value.
+     */
+    static void skipValue(BsonInput input, BsonType type) {
+        switch (type) {
+            case DOUBLE:
+            case DATE_TIME:
+            case TIMESTAMP:
+            case INT64:
+                input.skip(8);
+                break;
+            case STRING:
+            case JAVASCRIPT:
+            case SYMBOL:
+                input.skip(input.readInt32());
+                break;
+            case DOCUMENT:
+            case ARRAY:
+            case JAVASCRIPT_WITH_SCOPE:
+                // the size includes the size field itself
+                input.skip(input.readInt32() - 4);
+                break;
+            case BINARY:
+                input.skip(input.readInt32() + 1);
+                break;
+            case OBJECT_ID:
+                input.skip(12);
+                break;
+            case BOOLEAN:
+                input.skip(1);
+                break;
+            case REGULAR_EXPRESSION:
+                input.skipCString();
+                input.skipCString();
+                break;
+            case DB_POINTER:
+                input.skip(input.readInt32() + 12);
+                break;
+            case INT32:
+                input.skip(4);
+                break;
+            case DECIMAL128:
+                input.skip(16);
+                break;
+            case UNDEFINED:
+            case NULL:
+            case MIN_KEY:
+            case MAX_KEY:
+                break;
+            default:
+                throw new IllegalStateException("Unexpected BSON type " + type);
+        }
+    }
+
+    private static class Utf8Key {
+        private byte[] bytes;
+        private int length;
+        private int hash;
+
+        private Utf8Key() {
+            this.bytes = new byte[64];
+        }
+
+        private Utf8Key(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.length = bytes.length;
+            this.hash = hash;
+        }
+
+        private void read(BsonInput input, int length) {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            input.readBytes(bytes, 0, length);
+            this.length = length;
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            this.hash = h;
+        }
+
+        private Utf8Key copy() {
+            return new Utf8Key(Arrays.copyOf(bytes, length), hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Utf8Key)) {
+                return false;
+            }
+            Utf8Key other = (Utf8Key) o;
+            if (length != other.length || hash != other.hash) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != other.bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.io.BsonInput;
+import org.seedstack.mongodb.CommandStatistics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Command listener of a client, recording the latency and reply size of its commands per database, collection and
+ * command name. The collection is only known from the command when it starts, so the recorder of a running command
+ * is kept in a fixed ring indexed by its request id until it completes. A command whose slot has been reused by the
+ * time it completes, which requires thousands of commands running concurrently, is recorded on an unknown
+ * collection. The lazy documents of the events are scanned in place with {@link BsonScanner}, so that neither the
+ * collection name nor the returned batch is decoded for each command.
+ */
+class CommandMonitor implements CommandListener {
+    static final String DATABASE_COMMAND = "$cmd";
+    static final String UNKNOWN_COLLECTION = "?";
+    private static final String GET_MORE = "getMore";
+    private static final byte[] COLLECTION_FIELD = BsonScanner.name("collection");
+    private static final byte[] CURSOR_FIELD = BsonScanner.name("cursor");
+    private static final byte[] N_FIELD = BsonScanner.name("n");
+    private static final int RUNNING_SLOTS = 4096;
+    private static final int SLOT_MASK = RUNNING_SLOTS - 1;
+    private final String clientName;
+    private final Map<String, String> databaseAliases = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Map<String, CommandRecorder>>> recorders = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray runningRequestIds = new AtomicIntegerArray(RUNNING_SLOTS);
+    private final AtomicReferenceArray<CommandRecorder> runningRecorders = new AtomicReferenceArray<>(RUNNING_SLOTS);
+
+    CommandMonitor(String clientName) {
+        this.clientName = clientName;
+    }
+
+    void addDatabaseAlias(String dbName, String alias) {
+        databaseAliases.put(dbName, alias);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        CommandRecorder recorder = recorder(event.getDatabaseName(),
+                collectionName(event.getCommandName(), event.getCommand()), event.getCommandName());
+        int slot = event.getRequestId() & SLOT_MASK;
+        runningRecorders.set(slot, recorder);
+        runningRequestIds.set(slot, event.getRequestId());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completedRecorder(event.getRequestId(), event.getDatabaseName(), event.getCommandName())
+                .recordSuccess(event.getElapsedTime(TimeUnit.NANOSECONDS), replySize(event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completedRecorder(event.getRequestId(), event.getDatabaseName(), event.getCommandName())
+                .recordFailure(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    List<CommandStatistics> getCommands() {
+        List<CommandStatistics> commands = new ArrayList<>();
+        forEachRecorder(commands::add);
+        return commands;
+    }
+
+    List<CommandStatistics> snapshot() {
+        List<CommandStatistics> commands = new ArrayList<>();
+        forEachRecorder(recorder -> commands.add(recorder.snapshot()));
+        return commands;
+    }
+
+    private void forEachRecorder(Consumer<CommandRecorder> action) {
+        recorders.values().forEach(collections -> collections.values()
+                .forEach(commands -> commands.values().forEach(action)));
+    }
+
+    private CommandRecorder completedRecorder(int requestId, String databaseName, String commandName) {
+        int slot = requestId & SLOT_MASK;
+        boolean running = runningRequestIds.get(slot) == requestId;
+        CommandRecorder recorder = runningRecorders.get(slot);
+        if (!running || recorder == null || !recorder.getCommandName().equals(commandName)) {
+            return recorder(databaseName, UNKNOWN_COLLECTION, commandName);
+        }
+        return recorder;
+    }
+
+    private CommandRecorder recorder(String databaseName, String collectionName, String commandName) {
+        Map<String, Map<String, CommandRecorder>> collections = recorders.get(databaseName);
+        if (collections == null) {
+            collections = recorders.computeIfAbsent(databaseName, key -> new ConcurrentHashMap<>());
+        }
+        Map<String, CommandRecorder> commands = collections.get(collectionName);
+        if (commands == null) {
+            commands = collections.computeIfAbsent(collectionName, key -> new ConcurrentHashMap<>());
+        }
+        CommandRecorder recorder = commands.get(commandName);
+        if (recorder == null) {
+            recorder = commands.computeIfAbsent(commandName, key -> new CommandRecorder(clientName,
+                    databaseAliases.getOrDefault(databaseName, databaseName), collectionName, commandName));
+        }
+        return recorder;
+    }
+
+    static String collectionName(String commandName, BsonDocument command) {
+        try (BsonInput input = BsonScanner.open(command)) {
+            if (input != null) {
+                return scanCollectionName(commandName, input);
+            }
+        }
+        BsonValue target = command.get(GET_MORE.equals(commandName) ? "collection" : commandName);
+        return target != null && target.isString() ? target.asString().getValue() : DATABASE_COMMAND;
+    }
+
+    static int replySize(BsonDocument response) {
+        try (BsonInput input = BsonScanner.open(response)) {
+            if (input != null) {
+                return scanReplySize(input);
+            }
+        }
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().get("firstBatch");
+            if (batch == null) {
+                batch = cursor.asDocument().get("nextBatch");
+            }
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+    }
+
+    private static String scanCollectionName(String commandName, BsonInput input) {
+        BsonScanner.enterDocument(input);
+        BsonType type;
+        if (GET_MORE.equals(commandName)) {
+            type = BsonScanner.findField(input, COLLECTION_FIELD);
+        } else {
+            // the collection is the value of the first field, named after the command
+            type = BsonScanner.readType(input);
+            BsonScanner.readName(input, null);
+        }
+        return type == BsonType.STRING ? BsonScanner.readInternedString(input) : DATABASE_COMMAND;
+    }
+
+    private static int scanReplySize(BsonInput input) {
+        BsonScanner.enterDocument(input);
+        BsonType type;
+        while ((type = BsonScanner.readType(input)) != BsonType.END_OF_DOCUMENT) {
+            byte[] expectedName = type == BsonType.DOCUMENT ? CURSOR_FIELD : type == BsonType.INT32 ? N_FIELD : null;
+            if (BsonScanner.readName(input, expectedName)) {
+                return type == BsonType.DOCUMENT ? scanBatchSize(input) : input.readInt32();
+            }
+            BsonScanner.skipValue(input, type);
+        }
+        return 0;
+    }
+
+    private static int scanBatchSize(BsonInput input) {
+        BsonScanner.enterDocument(input);
+        BsonType type;
+        while ((type = BsonScanner.readType(input)) != BsonType.END_OF_DOCUMENT) {
+            // the batch, named firstBatch or nextBatch, is the only array of the cursor document
+            BsonScanner.readName(input, null);
+            if (type == BsonType.ARRAY) {
+                return BsonScanner.countElements(input);
+            }
+            BsonScanner.skipValue(input, type);
+        }
+        return 0;
+    }
+}
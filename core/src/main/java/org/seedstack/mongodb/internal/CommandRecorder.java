@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.seedstack.mongodb.CommandStatistics;
+import org.seedstack.mongodb.Histogram;
+
+/**
+ * Statistics of the commands of a given name on a collection. The recording goes to the current interval, which a
+ * snapshot swaps for a new one, so that the recording threads never wait for the snapshot.
+ */
+class CommandRecorder implements CommandStatistics {
+    private static final int LATENCY_PRECISION_BITS = 3;
+    private final String clientName;
+    private final String database;
+    private final String collection;
+    private final String commandName;
+    private volatile Interval interval;
+
+    CommandRecorder(String clientName, String database, String collection, String commandName) {
+        this(clientName, database, collection, commandName, new Interval());
+    }
+
+    private CommandRecorder(String clientName, String database, String collection, String commandName,
+            Interval interval) {
+        this.clientName = clientName;
+        this.database = database;
+        this.collection = collection;
+        this.commandName = commandName;
+        this.interval = interval;
+    }
+
+    @Override
+    public String getClientName() {
+        return clientName;
+    }
+
+    @Override
+    public String getDatabase() {
+        return database;
+    }
+
+    @Override
+    public String getCollection() {
+        return collection;
+    }
+
+    @Override
+    public String getCommandName() {
+        return commandName;
+    }
+
+    @Override
+    public Instant getSince() {
+        return interval.since;
+    }
+
+    @Override
+    public Histogram getLatencies() {
+        return interval.latencies;
+    }
+
+    @Override
+    public Histogram getReplySizes() {
+        return interval.replySizes;
+    }
+
+    @Override
+    public long getFailureCount() {
+        return interval.failureCount.sum();
+    }
+
+    void recordSuccess(long elapsedNanos, int replySize) {
+        Interval current = interval;
+        current.latencies.record(elapsedNanos);
+        current.replySizes.record(replySize);
+    }
+
+    void recordFailure(long elapsedNanos) {
+        Interval current = interval;
+        current.latencies.record(elapsedNanos);
+        current.failureCount.increment();
+    }
+
+    /**
+     * Starts a new interval. Commands completing while the snapshot is taken are recorded in one of the intervals.
+     *
+     * @return the statistics of the interval ending now.
+     */
+    CommandStatistics snapshot() {
+        Interval ended = interval;
+        interval = new Interval();
+        return new CommandRecorder(clientName, database, collection, commandName, ended);
+    }
+
+    private static class Interval {
+        private final Instant since = Instant.now();
+        private final Histogram latencies = new Histogram(LATENCY_PRECISION_BITS);
+        private final Histogram replySizes = new Histogram();
+        private final LongAdder failureCount = new LongAdder();
+    }
+}
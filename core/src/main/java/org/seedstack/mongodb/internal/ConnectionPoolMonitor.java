@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.seedstack.mongodb.ConnectionPoolStatistics;
+import org.seedstack.mongodb.Histogram;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+/**
+ * Connection pool listener of a client, recording its statistics with lock-free counters so that the threads
+ * checking out connections do not contend on it.
+ */
+class ConnectionPoolMonitor implements ConnectionPoolListener, ConnectionPoolStatistics {
+    private final String clientName;
+    private final LongAdder checkedOutCount = new LongAdder();
+    private final LongAdder waitQueueDepth = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final Map<ConnectionCheckOutFailedEvent.Reason, LongAdder> checkoutFailureCounts = new EnumMap<>(
+            ConnectionCheckOutFailedEvent.Reason.class);
+    private final Histogram checkoutTimes = new Histogram();
+    private volatile int maxSize;
+
+    ConnectionPoolMonitor(String clientName) {
+        this.clientName = clientName;
+        for (ConnectionCheckOutFailedEvent.Reason reason : ConnectionCheckOutFailedEvent.Reason.values()) {
+            checkoutFailureCounts.put(reason, new LongAdder());
+        }
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waitQueueDepth.increment();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitQueueDepth.decrement();
+        checkedOutCount.increment();
+        checkoutTimes.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitQueueDepth.decrement();
+        checkoutFailureCounts.get(event.getReason()).increment();
+        checkoutTimes.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOutCount.decrement();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        createdCount.increment();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        closedCount.increment();
+    }
+
+    @Override
+    public String getClientName() {
+        return clientName;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getOpenCount() {
+        return createdCount.sum() - closedCount.sum();
+    }
+
+    @Override
+    public long getCheckedOutCount() {
+        return checkedOutCount.sum();
+    }
+
+    @Override
+    public long getWaitQueueDepth() {
+        return waitQueueDepth.sum();
+    }
+
+    @Override
+    public Histogram getCheckoutTimes() {
+        return checkoutTimes;
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    @Override
+    public long getClosedCount() {
+        return closedCount.sum();
+    }
+
+    @Override
+    public long getCheckoutFailureCount() {
+        long count = 0;
+        for (LongAdder failureCount : checkoutFailureCounts.values()) {
+            count += failureCount.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<ConnectionCheckOutFailedEvent.Reason, Long> getCheckoutFailureCounts() {
+        Map<ConnectionCheckOutFailedEvent.Reason, Long> counts = new EnumMap<>(
+                ConnectionCheckOutFailedEvent.Reason.class);
+        checkoutFailureCounts.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return clientName + "{open=" + getOpenCount() + ", checkedOut=" + getCheckedOutCount() + ", waiting="
+                + getWaitQueueDepth() + ", checkout=[" + checkoutTimes + "], failures=" + getCheckoutFailureCount()
+                + "}";
+    }
+}
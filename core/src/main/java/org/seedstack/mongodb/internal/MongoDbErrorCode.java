@@ -14,5 +14,6 @@ enum MongoDbErrorCode implements ErrorCode {
     INVALID_CREDENTIAL_SYNTAX,
     INVALID_SERVER_ADDRESS,
     MISSING_HOSTS_CONFIGURATION,
+    MISSING_REACTIVE_DRIVER,
     UNSUPPORTED_AUTHENTICATION_MECHANISM
 }
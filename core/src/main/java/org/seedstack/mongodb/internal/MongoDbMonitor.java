@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.seedstack.mongodb.CommandStatistics;
+import org.seedstack.mongodb.ConnectionPoolStatistics;
+import org.seedstack.mongodb.Histogram;
+import org.seedstack.mongodb.MongoDbStatistics;
+import org.seedstack.seed.diagnostic.spi.DiagnosticInfoCollector;
+
+/**
+ * Statistics of all the clients, shared by the synchronous and reactive managers, and their diagnostic collector.
+ */
+class MongoDbMonitor implements MongoDbStatistics, DiagnosticInfoCollector {
+    private final Map<String, ConnectionPoolMonitor> connectionPools = new ConcurrentHashMap<>();
+    private final Map<String, CommandMonitor> commands = new ConcurrentHashMap<>();
+    private final Map<String, SlowOperationMonitor> slowOperations = new ConcurrentHashMap<>();
+
+    ConnectionPoolMonitor registerConnectionPool(String clientName) {
+        ConnectionPoolMonitor connectionPoolMonitor = new ConnectionPoolMonitor(clientName);
+        connectionPools.put(clientName, connectionPoolMonitor);
+        return connectionPoolMonitor;
+    }
+
+    CommandMonitor registerCommands(String clientName) {
+        CommandMonitor commandMonitor = new CommandMonitor(clientName);
+        commands.put(clientName, commandMonitor);
+        return commandMonitor;
+    }
+
+    SlowOperationMonitor registerSlowOperations(String clientName, long thresholdMillis) {
+        SlowOperationMonitor slowOperationMonitor = new SlowOperationMonitor(clientName, thresholdMillis);
+        slowOperations.put(clientName, slowOperationMonitor);
+        return slowOperationMonitor;
+    }
+
+    void registerDatabase(String clientName, String dbName, String alias) {
+        CommandMonitor commandMonitor = commands.get(clientName);
+        if (commandMonitor != null) {
+            commandMonitor.addDatabaseAlias(dbName, alias);
+        }
+    }
+
+    void clear() {
+        connectionPools.clear();
+        commands.clear();
+        slowOperations.values().forEach(SlowOperationMonitor::shutdown);
+        slowOperations.clear();
+    }
+
+    @Override
+    public Optional<ConnectionPoolStatistics> getConnectionPool(String clientName) {
+        return Optional.ofNullable(connectionPools.get(clientName));
+    }
+
+    @Override
+    public Map<String, ConnectionPoolStatistics> getConnectionPools() {
+        return Collections.unmodifiableMap(connectionPools);
+    }
+
+    @Override
+    public Collection<CommandStatistics> getCommands(String clientName) {
+        CommandMonitor commandMonitor = commands.get(clientName);
+        return commandMonitor == null ? Collections.emptyList() : commandMonitor.getCommands();
+    }
+
+    @Override
+    public Collection<CommandStatistics> snapshotCommands(String clientName) {
+        CommandMonitor commandMonitor = commands.get(clientName);
+        return commandMonitor == null ? Collections.emptyList() : commandMonitor.snapshot();
+    }
+
+    @Override
+    public Object collect() {
+        Map<String, Object> clients = new LinkedHashMap<>();
+        connectionPools.forEach((clientName, pool) -> {
+            Map<String, Object> poolInfo = new LinkedHashMap<>();
+            poolInfo.put("maxSize", pool.getMaxSize());
+            poolInfo.put("open", pool.getOpenCount());
+            poolInfo.put("checkedOut", pool.getCheckedOutCount());
+            poolInfo.put("waitQueueDepth", pool.getWaitQueueDepth());
+            poolInfo.put("created", pool.getCreatedCount());
+            poolInfo.put("closed", pool.getClosedCount());
+            poolInfo.put("checkoutFailures", pool.getCheckoutFailureCounts());
+            poolInfo.put("checkoutTimeMicros", toMicros(pool.getCheckoutTimes()));
+            Map<String, Object> clientInfo = new LinkedHashMap<>();
+            clientInfo.put("connectionPool", poolInfo);
+            clientInfo.put("commands", collectCommands(clientName));
+            clients.put(clientName, clientInfo);
+        });
+        return clients;
+    }
+
+    private Map<String, Object> collectCommands(String clientName) {
+        Map<String, Object> commandsInfo = new TreeMap<>();
+        for (CommandStatistics command : getCommands(clientName)) {
+            Map<String, Object> commandInfo = new LinkedHashMap<>();
+            commandInfo.put("since", command.getSince().toString());
+            commandInfo.put("latencyMicros", toMicros(command.getLatencies()));
+            commandInfo.put("meanReplyDocuments", command.getReplySizes().getMean());
+            commandInfo.put("failures", command.getFailureCount());
+            commandsInfo.put(String.format("%s.%s.%s", command.getDatabase(), command.getCollection(),
+                    command.getCommandName()), commandInfo);
+        }
+        return commandsInfo;
+    }
+
+    static Map<String, Object> toMicros(Histogram histogram) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("count", histogram.getCount());
+        info.put("mean", TimeUnit.NANOSECONDS.toMicros((long) histogram.getMean()));
+        info.put("p50", TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50)));
+        info.put("p99", TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99)));
+        info.put("max", TimeUnit.NANOSECONDS.toMicros(histogram.getMax()));
+        return info;
+    }
+}
@@ -15,17 +15,27 @@ import java.util.Set;
 import org.seedstack.coffig.Coffig;
 import org.seedstack.mongodb.MongoDbConfig;
 import org.seedstack.mongodb.MongoDbConfig.ClientConfig;
+import org.seedstack.mongodb.MongoDbStatistics;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.AbstractSeedPlugin;
+import org.seedstack.shed.reflect.Classes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
 import io.nuun.kernel.api.plugin.InitState;
 import io.nuun.kernel.api.plugin.context.InitContext;
 
 public class MongoDbPlugin extends AbstractSeedPlugin {
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoDbPlugin.class);
-    private static final MongoDbManager MONGO_DB_MANAGER = new MongoDbManager();
+    private static final MongoDbMonitor MONGO_DB_MONITOR = new MongoDbMonitor();
+    private static final MongoDbManager SYNC_MONGO_DB_MANAGER = new SyncMongoDbManager(MONGO_DB_MONITOR);
+    private static final MongoDbManager REACTIVE_MONGO_DB_MANAGER = Classes
+            .optional("com.mongodb.reactivestreams.client.MongoClients")
+            .map(reactiveClients -> new ReactiveMongoDbManager(MONGO_DB_MONITOR))
+            .orElse(null);
 
     @Override
     public String name() {
@@ -43,11 +53,14 @@ public class MongoDbPlugin extends AbstractSeedPlugin {
             return InitState.INITIALIZED;
         }
 
+        getSeedRuntime().registerDiagnosticCollector("org.seedstack.mongodb", MONGO_DB_MONITOR);
+
         for (Map.Entry<String, MongoDbConfig.ClientConfig> clientEntry : mongoDbConfig.getClients().entrySet()) {
             String clientName = clientEntry.getKey();
             MongoDbConfig.ClientConfig clientConfig = clientEntry.getValue();
 
-            MONGO_DB_MANAGER.registerClient(clientName, clientConfig, coffig);
+            MongoDbManager mongoDbManager = getMongoDbManager(clientName, clientConfig);
+            mongoDbManager.registerClient(clientName, clientConfig, coffig);
 
             for (Map.Entry<String, ClientConfig.DatabaseConfig> dbEntry : clientConfig.getDatabases().entrySet()) {
                 String dbName = dbEntry.getKey();
@@ -62,7 +75,7 @@ public class MongoDbPlugin extends AbstractSeedPlugin {
                     allDbNames.add(alias);
                 }
 
-                MONGO_DB_MANAGER.registerDatabase(clientName, dbName, alias);
+                mongoDbManager.registerDatabase(clientName, dbName, alias);
             }
         }
 
@@ -71,11 +84,37 @@ public class MongoDbPlugin extends AbstractSeedPlugin {
 
     @Override
     public Object nativeUnitModule() {
-        return MONGO_DB_MANAGER.getModule();
+        Module statisticsModule = binder -> binder.bind(MongoDbStatistics.class).toInstance(MONGO_DB_MONITOR);
+        if (REACTIVE_MONGO_DB_MANAGER == null) {
+            return Modules.combine(SYNC_MONGO_DB_MANAGER.getModule(), statisticsModule);
+        }
+        return Modules.combine(SYNC_MONGO_DB_MANAGER.getModule(), REACTIVE_MONGO_DB_MANAGER.getModule(),
+                statisticsModule);
     }
 
     @Override
     public void stop() {
-        MONGO_DB_MANAGER.shutdown();
+        try {
+            SYNC_MONGO_DB_MANAGER.shutdown();
+        } finally {
+            try {
+                if (REACTIVE_MONGO_DB_MANAGER != null) {
+                    REACTIVE_MONGO_DB_MANAGER.shutdown();
+                }
+            } finally {
+                MONGO_DB_MONITOR.clear();
+            }
+        }
+    }
+
+    private MongoDbManager getMongoDbManager(String clientName, MongoDbConfig.ClientConfig clientConfig) {
+        if (!clientConfig.isReactive()) {
+            return SYNC_MONGO_DB_MANAGER;
+        }
+        if (REACTIVE_MONGO_DB_MANAGER == null) {
+            throw SeedException.createNew(MongoDbErrorCode.MISSING_REACTIVE_DRIVER)
+                    .put("clientName", clientName);
+        }
+        return REACTIVE_MONGO_DB_MANAGER;
     }
 }
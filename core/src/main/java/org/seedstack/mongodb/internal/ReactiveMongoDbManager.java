@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.bson.BsonDocument;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+class ReactiveMongoDbManager extends AbstractMongoDbManager<MongoClient, MongoDatabase> {
+    ReactiveMongoDbManager(MongoDbMonitor mongoDbMonitor) {
+        super(MongoClient.class, MongoDatabase.class, mongoDbMonitor);
+    }
+
+    @Override
+    protected MongoClient doCreateClient(MongoClientSettings mongoClientSettings) {
+        return MongoClients.create(mongoClientSettings);
+    }
+
+    @Override
+    protected MongoDatabase doCreateDatabase(MongoClient client, String dbName) {
+        return client.getDatabase(dbName);
+    }
+
+    @Override
+    protected void doClose(MongoClient client) {
+        client.close();
+    }
+
+    /**
+     * Runs the command and waits for its reply, which is only done on background threads.
+     */
+    @Override
+    protected BsonDocument doRunCommand(MongoClient client, String dbName, BsonDocument command) {
+        CompletableFuture<BsonDocument> reply = new CompletableFuture<>();
+        client.getDatabase(dbName).runCommand(command, BsonDocument.class).subscribe(new Subscriber<BsonDocument>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(BsonDocument document) {
+                reply.complete(document);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                reply.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                reply.complete(new BsonDocument());
+            }
+        });
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.io.BsonInput;
+import org.seedstack.mongodb.OperationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Command listener of a client logging the commands slower than a threshold, with the query they ran and the
+ * {@link OperationContext operation} that issued them. The query of each slow query shape is explained once with the
+ * {@code executionStats} verbosity on a background thread, so that collection scans and bad index choices show in the
+ * logs without enabling the server profiler.
+ *
+ * <p>The find, aggregate, count, distinct, update, delete and find-and-modify commands are retained while they run, as
+ * the buffers of command documents are released before the reply is received: serialized documents are copied as bytes
+ * without being decoded, and only the first statement of updates and deletes is kept. Their query is only extracted
+ * once a command completes slower than the threshold. Writes are explained as the equivalent find of their first
+ * statement, so that explaining never modifies data.</p>
+ */
+class SlowOperationMonitor implements CommandListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowOperationMonitor.class);
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+    private static final Set<String> SHAPED_FIELDS = new HashSet<>(Arrays.asList("filter", "query", "pipeline"));
+    private static final Set<String> VALUE_FIELDS = new HashSet<>(Arrays.asList("skip", "limit"));
+    private static final Set<String> EXPLAINABLE_COMMANDS = new HashSet<>(Arrays.asList("find", "count", "distinct",
+            "aggregate", "findAndModify", "update", "delete"));
+    private static final int RUNNING_SLOTS = 1024;
+    private static final int SLOT_MASK = RUNNING_SLOTS - 1;
+    private static final int MAX_EXPLAINED_SHAPES = 1000;
+    private static final int MAX_PENDING_EXPLAINS = 16;
+    private final String clientName;
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<RunningCommand> runningCommands = new AtomicReferenceArray<>(RUNNING_SLOTS);
+    private final Set<String> explainedShapes = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile BiFunction<String, BsonDocument, BsonDocument> commandRunner;
+
+    SlowOperationMonitor(String clientName, long thresholdMillis) {
+        this.clientName = clientName;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_EXPLAINS), runnable -> {
+                    Thread thread = new Thread(runnable, "mongodb-explain-" + clientName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Sets the function running the explain commands, once the client is created.
+     *
+     * @param commandRunner the function running a command on a database, given its name, and returning the reply.
+     */
+    void setCommandRunner(BiFunction<String, BsonDocument, BsonDocument> commandRunner) {
+        this.commandRunner = commandRunner;
+    }
+
+    void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = retain(event.getCommandName(), event.getCommand());
+        if (command != null) {
+            runningCommands.set(event.getRequestId() & SLOT_MASK, new RunningCommand(event.getRequestId(), command,
+                    OperationContext.current().orElse(null)));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getDatabaseName(), event.getCommandName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getDatabaseName(), event.getCommandName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), event.getThrowable());
+    }
+
+    private void completed(int requestId, String databaseName, String commandName, long elapsedNanos,
+            Throwable failure) {
+        int slot = requestId & SLOT_MASK;
+        RunningCommand running = runningCommands.get(slot);
+        if (running != null && running.requestId == requestId) {
+            runningCommands.compareAndSet(slot, running, null);
+        } else {
+            running = null;
+        }
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        BsonDocument query = running == null ? null : explainableQuery(commandName, running.command);
+        StringBuilder message = new StringBuilder("Slow MongoDB ").append(commandName)
+                .append(" command on database ").append(databaseName)
+                .append(" of client ").append(clientName)
+                .append(": ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms");
+        if (failure != null) {
+            message.append(", failed with ").append(failure);
+        }
+        if (running != null && running.operation != null) {
+            message.append(", issued by ").append(describe(running.operation));
+        }
+        if (query != null) {
+            message.append(", query ").append(query.toJson());
+        }
+        LOGGER.warn(message.toString());
+        if (query != null) {
+            explainOnce(databaseName, query);
+        }
+    }
+
+    private void explainOnce(String databaseName, BsonDocument query) {
+        BiFunction<String, BsonDocument, BsonDocument> runner = commandRunner;
+        if (runner == null || explainedShapes.size() >= MAX_EXPLAINED_SHAPES) {
+            return;
+        }
+        String shape = databaseName + " " + shape(query).toJson();
+        if (explainedShapes.add(shape)) {
+            try {
+                explainExecutor.execute(() -> explain(runner, databaseName, shape, query));
+            } catch (RejectedExecutionException e) {
+                // too many pending explains, the shape will be explained when slow again
+                explainedShapes.remove(shape);
+            }
+        }
+    }
+
+    private void explain(BiFunction<String, BsonDocument, BsonDocument> runner, String databaseName, String shape,
+            BsonDocument query) {
+        try {
+            BsonDocument explanation = runner.apply(databaseName, new BsonDocument("explain", query)
+                    .append("verbosity", new BsonString("executionStats")));
+            LOGGER.warn("Explained slow MongoDB query shape {} of client {}: {}", shape, clientName,
+                    summarize(explanation));
+            LOGGER.debug("Explanation of MongoDB query shape {}: {}", shape, explanation.toJson());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to explain slow MongoDB query shape {} of client {}", shape, clientName, e);
+        }
+    }
+
+    private static String describe(Supplier<String> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            return "an operation that cannot be described (" + e + ")";
+        }
+    }
+
+    /**
+     * Retains the parts of an explainable command that are needed to extract its query, independently of the buffers
+     * of the command document.
+     *
+     * @param commandName the name of the command.
+     * @param command     the command document.
+     * @return the retained command, or null if the command is not explainable.
+     */
+    static BsonDocument retain(String commandName, BsonDocument command) {
+        if (!EXPLAINABLE_COMMANDS.contains(commandName)) {
+            return null;
+        }
+        String statementsField = commandName.equals("update") ? "updates"
+                : commandName.equals("delete") ? "deletes" : null;
+        if (statementsField == null) {
+            return retain(command).asDocument();
+        }
+        // the statements are document sequences appended to the decoded command, of which only the first is explained
+        BsonValue collection = command.get(commandName);
+        BsonValue statements = command.get(statementsField);
+        if (collection == null || statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+            return null;
+        }
+        return new BsonDocument(commandName, collection)
+                .append(statementsField, new BsonArray(Collections.singletonList(retain(statements.asArray().get(0)))));
+    }
+
+    private static BsonValue retain(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            if (document instanceof RawBsonDocument) {
+                return document;
+            }
+            try (BsonInput input = BsonScanner.open(document)) {
+                if (input != null) {
+                    return new RawBsonDocument(BsonScanner.readDocument(input));
+                }
+            }
+            BsonDocument retained = new BsonDocument();
+            for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+                retained.append(entry.getKey(), retain(entry.getValue()));
+            }
+            return retained;
+        } else if (value.isArray()) {
+            BsonArray retained = new BsonArray(value.asArray().size());
+            for (BsonValue element : value.asArray()) {
+                retained.add(retain(element));
+            }
+            return retained;
+        }
+        return value;
+    }
+
+    /**
+     * Extracts the query of a command as a read command that can be explained.
+     *
+     * @param commandName the name of the command.
+     * @param command     the command document, as returned by {@link #retain(String, BsonDocument)}.
+     * @return the query, or null if the command is not explainable.
+     */
+    static BsonDocument explainableQuery(String commandName, BsonDocument command) {
+        BsonValue collection = command.get(commandName);
+        if (collection == null || !collection.isString()) {
+            return null;
+        }
+        BsonDocument query;
+        switch (commandName) {
+            case "find":
+                query = copy(command, new BsonDocument("find", collection), "filter", "sort", "projection", "hint",
+                        "collation", "skip", "limit");
+                break;
+            case "count":
+                query = copy(command, new BsonDocument("count", collection), "query", "hint", "collation", "skip",
+                        "limit");
+                break;
+            case "distinct":
+                query = copy(command, new BsonDocument("distinct", collection), "key", "query", "collation");
+                break;
+            case "aggregate":
+                if (writesOutput(command.get("pipeline"))) {
+                    return null;
+                }
+                query = copy(command, new BsonDocument("aggregate", collection), "pipeline", "hint", "collation")
+                        .append("cursor", new BsonDocument());
+                break;
+            case "findAndModify":
+                query = copy(command, new BsonDocument("find", collection), "sort", "hint", "collation");
+                copyAs(command, "query", query, "filter");
+                query.append("limit", new BsonInt32(1));
+                break;
+            case "update":
+                query = firstStatementQuery(collection, command.get("updates"), false);
+                break;
+            case "delete":
+                query = firstStatementQuery(collection, command.get("deletes"), true);
+                break;
+            default:
+                return null;
+        }
+        return query;
+    }
+
+    private static BsonDocument firstStatementQuery(BsonValue collection, BsonValue statements, boolean delete) {
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty()
+                || !statements.asArray().get(0).isDocument()) {
+            return null;
+        }
+        BsonDocument statement = statements.asArray().get(0).asDocument();
+        BsonDocument query = copy(statement, new BsonDocument("find", collection), "hint", "collation");
+        copyAs(statement, "q", query, "filter");
+        boolean single;
+        if (delete) {
+            BsonValue limit = statement.get("limit");
+            single = limit != null && limit.isNumber() && limit.asNumber().intValue() == 1;
+        } else {
+            BsonValue multi = statement.get("multi");
+            single = multi == null || !multi.isBoolean() || !multi.asBoolean().getValue();
+        }
+        if (single) {
+            query.append("limit", new BsonInt32(1));
+        }
+        return query;
+    }
+
+    private static boolean writesOutput(BsonValue pipeline) {
+        if (pipeline == null || !pipeline.isArray()) {
+            return false;
+        }
+        for (BsonValue stage : pipeline.asArray()) {
+            if (stage.isDocument() && (stage.asDocument().containsKey("$out")
+                    || stage.asDocument().containsKey("$merge"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BsonDocument copy(BsonDocument source, BsonDocument target, String... fields) {
+        for (String field : fields) {
+            copyAs(source, field, target, field);
+        }
+        return target;
+    }
+
+    private static void copyAs(BsonDocument source, String field, BsonDocument target, String targetField) {
+        BsonValue value = source.get(field);
+        if (value != null) {
+            target.append(targetField, value);
+        }
+    }
+
+    /**
+     * Replaces the values of a query by placeholders, keeping its structure, sort, projection and hint.
+     *
+     * @param query the query, as returned by {@link #explainableQuery(String, BsonDocument)}.
+     * @return the shape of the query.
+     */
+    static BsonDocument shape(BsonDocument query) {
+        BsonDocument shape = new BsonDocument();
+        for (String field : query.keySet()) {
+            BsonValue value = query.get(field);
+            if (SHAPED_FIELDS.contains(field)) {
+                shape.append(field, shapeValue(value));
+            } else if (VALUE_FIELDS.contains(field)) {
+                shape.append(field, PLACEHOLDER);
+            } else {
+                shape.append(field, value);
+            }
+        }
+        return shape;
+    }
+
+    private static BsonValue shapeValue(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            for (String field : value.asDocument().keySet()) {
+                shape.append(field, shapeValue(value.asDocument().get(field)));
+            }
+            return shape;
+        } else if (value.isArray() && !value.asArray().isEmpty() && value.asArray().get(0).isDocument()) {
+            // logical operators and pipelines
+            BsonArray shape = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                shape.add(shapeValue(element));
+            }
+            return shape;
+        }
+        return PLACEHOLDER;
+    }
+
+    /**
+     * Summarizes an explanation: the stages of the winning plan, from the root, and the execution statistics.
+     *
+     * @param explanation the reply of an explain command.
+     * @return the summary.
+     */
+    static String summarize(BsonDocument explanation) {
+        StringBuilder summary = new StringBuilder("plan ");
+        BsonDocument winningPlan = findDocument(explanation, "winningPlan");
+        if (winningPlan == null) {
+            summary.append("unknown");
+        } else {
+            appendStages(winningPlan, summary);
+        }
+        BsonDocument executionStats = findDocument(explanation, "executionStats");
+        if (executionStats != null) {
+            summary.append(", ").append(number(executionStats, "totalKeysExamined")).append(" keys and ")
+                    .append(number(executionStats, "totalDocsExamined")).append(" documents examined, ")
+                    .append(number(executionStats, "nReturned")).append(" returned in ")
+                    .append(number(executionStats, "executionTimeMillis")).append(" ms");
+        }
+        return summary.toString();
+    }
+
+    private static void appendStages(BsonDocument plan, StringBuilder summary) {
+        // plans of the slot based execution engine are nested in a query plan
+        BsonValue queryPlan = plan.get("queryPlan");
+        BsonDocument stage = queryPlan != null && queryPlan.isDocument() ? queryPlan.asDocument() : plan;
+        BsonValue stageName = stage.get("stage");
+        summary.append(stageName != null && stageName.isString() ? stageName.asString().getValue() : "?");
+        BsonValue keyPattern = stage.get("keyPattern");
+        if (keyPattern != null && keyPattern.isDocument()) {
+            summary.append(' ').append(keyPattern.asDocument().toJson());
+        }
+        BsonValue inputStage = stage.get("inputStage");
+        if (inputStage != null && inputStage.isDocument()) {
+            summary.append(" < ");
+            appendStages(inputStage.asDocument(), summary);
+        }
+        BsonValue inputStages = stage.get("inputStages");
+        if (inputStages != null && inputStages.isArray()) {
+            summary.append(" < [");
+            for (int i = 0; i < inputStages.asArray().size(); i++) {
+                if (i > 0) {
+                    summary.append(", ");
+                }
+                appendStages(inputStages.asArray().get(i).asDocument(), summary);
+            }
+            summary.append(']');
+        }
+    }
+
+    private static BsonDocument findDocument(BsonValue value, String field) {
+        if (value.isDocument()) {
+            BsonValue found = value.asDocument().get(field);
+            if (found != null && found.isDocument()) {
+                return found.asDocument();
+            }
+            for (BsonValue child : value.asDocument().values()) {
+                BsonDocument document = findDocument(child, field);
+                if (document != null) {
+                    return document;
+                }
+            }
+        } else if (value.isArray()) {
+            for (BsonValue child : value.asArray()) {
+                BsonDocument document = findDocument(child, field);
+                if (document != null) {
+                    return document;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String number(BsonDocument document, String field) {
+        BsonValue value = document.get(field);
+        return value != null && value.isNumber() ? String.valueOf(value.asNumber().longValue()) : "?";
+    }
+
+    private static class RunningCommand {
+        private final int requestId;
+        private final BsonDocument command;
+        private final Supplier<String> operation;
+
+        private RunningCommand(int requestId, BsonDocument command, Supplier<String> operation) {
+            this.requestId = requestId;
+            this.command = command;
+            this.operation = operation;
+        }
+    }
+}
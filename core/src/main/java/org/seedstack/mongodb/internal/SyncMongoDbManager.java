@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import org.bson.BsonDocument;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+
+class SyncMongoDbManager extends AbstractMongoDbManager<MongoClient, MongoDatabase> {
+    SyncMongoDbManager(MongoDbMonitor mongoDbMonitor) {
+        super(MongoClient.class, MongoDatabase.class, mongoDbMonitor);
+    }
+
+    @Override
+    protected MongoClient doCreateClient(MongoClientSettings mongoClientSettings) {
+        return MongoClients.create(mongoClientSettings);
+    }
+
+    @Override
+    protected MongoDatabase doCreateDatabase(MongoClient client, String dbName) {
+        return client.getDatabase(dbName);
+    }
+
+    @Override
+    protected void doClose(MongoClient client) {
+        client.close();
+    }
+
+    @Override
+    protected BsonDocument doRunCommand(MongoClient client, String dbName, BsonDocument command) {
+        return client.getDatabase(dbName).runCommand(command, BsonDocument.class);
+    }
+}
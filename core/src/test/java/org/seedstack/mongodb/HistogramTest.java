@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class HistogramTest {
+    @Test
+    public void emptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMean()).isZero();
+        assertThat(histogram.getPercentile(99)).isZero();
+    }
+
+    @Test
+    public void percentilesAreBoundedByTheirBucket() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMean()).isEqualTo(50.5);
+        assertThat(histogram.getMax()).isEqualTo(100);
+        assertThat(histogram.getPercentile(50)).isEqualTo(63);
+        assertThat(histogram.getPercentile(10)).isEqualTo(15);
+        assertThat(histogram.getPercentile(100)).isEqualTo(100);
+    }
+
+    @Test
+    public void extremeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getPercentile(50)).isZero();
+        assertThat(histogram.getPercentile(100)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void subBucketsBoundTheRelativeError() {
+        Histogram histogram = new Histogram(3);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getPercentile(50)).isBetween(500_000L, 500_000L + 500_000L / 8);
+        assertThat(histogram.getPercentile(99)).isBetween(990_000L, 990_000L + 990_000L / 8);
+        assertThat(histogram.getPercentile(100)).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    public void subBucketsCoverExtremeValues() {
+        Histogram histogram = new Histogram(8);
+        histogram.record(0);
+        histogram.record(3);
+        histogram.record(Long.MAX_VALUE);
+        assertThat(histogram.getPercentile(30)).isZero();
+        assertThat(histogram.getPercentile(60)).isEqualTo(3);
+        assertThat(histogram.getPercentile(100)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void smallValuesAreRecordedExactly() {
+        for (int precisionBits = 0; precisionBits <= 8; precisionBits++) {
+            Histogram histogram = new Histogram(precisionBits);
+            int exactValues = 2 << precisionBits;
+            for (int i = 0; i < exactValues; i++) {
+                histogram.record(i);
+            }
+            for (int i = 0; i < exactValues; i++) {
+                assertThat(histogram.getPercentile(100.0 * (i + 1) / exactValues)).isEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    public void adjacentSmallValuesAreNotMerged() {
+        Histogram histogram = new Histogram(2);
+        histogram.record(2);
+        histogram.record(2);
+        histogram.record(3);
+        assertThat(histogram.getPercentile(50)).isEqualTo(2);
+        assertThat(histogram.getPercentile(100)).isEqualTo(3);
+    }
+}
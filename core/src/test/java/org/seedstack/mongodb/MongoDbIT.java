@@ -11,11 +11,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoDatabase;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.seedstack.seed.testing.junit4.SeedITRunner;
 
 @RunWith(SeedITRunner.class)
@@ -34,6 +41,20 @@ public class MongoDbIT {
     @Inject
     MongoDatabase implicitDatabase;
 
+    @Inject
+    @Named("client2")
+    com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+
+    @Inject
+    @Named("db2")
+    com.mongodb.reactivestreams.client.MongoDatabase reactiveDatabase;
+
+    @Inject
+    com.mongodb.reactivestreams.client.MongoDatabase implicitReactiveDatabase;
+
+    @Inject
+    MongoDbStatistics mongoDbStatistics;
+
     @Test
     public void mongo_clients_are_injectable() {
         assertThat(client1).isNotNull();
@@ -46,6 +67,53 @@ public class MongoDbIT {
         assertThat(implicitDatabase).isNotNull();
     }
 
+    @Test
+    public void reactive_clients_and_databases_are_injectable() {
+        assertThat(reactiveClient).isNotNull();
+        assertThat(reactiveDatabase).isNotNull();
+        assertThat(implicitReactiveDatabase).isSameAs(reactiveDatabase);
+    }
+
+    @Test
+    public void test_insert_into_reactive_collection() throws Exception {
+        ObjectId id = new ObjectId();
+        assertThat(first(reactiveDatabase.getCollection("test2").insertOne(new Document("_id", id)))
+                .getInsertedId().asObjectId().getValue()).isEqualTo(id);
+        assertThat(first(reactiveDatabase.getCollection("test2").find(new Document("_id", id))))
+                .containsEntry("_id", id);
+    }
+
+    @Test
+    public void connection_pools_are_instrumented() {
+        db1.getCollection("test1").countDocuments();
+        ConnectionPoolStatistics connectionPool = mongoDbStatistics.getConnectionPool("client1")
+                .orElseThrow(IllegalStateException::new);
+        assertThat(connectionPool.getClientName()).isEqualTo("client1");
+        assertThat(connectionPool.getCheckoutTimes().getCount()).isGreaterThanOrEqualTo(1);
+        assertThat(connectionPool.getCreatedCount()).isGreaterThanOrEqualTo(1);
+        assertThat(connectionPool.getCheckedOutCount()).isZero();
+        assertThat(mongoDbStatistics.getConnectionPools()).containsKeys("client1", "client2");
+    }
+
+    @Test
+    public void commands_are_instrumented() {
+        db1.getCollection("commands").insertOne(new Document("name", "MongoDB"));
+        db1.getCollection("commands").find().first();
+        assertThat(mongoDbStatistics.getCommands("client1"))
+                .anySatisfy(command -> {
+                    assertThat(command.getDatabase()).isEqualTo("db1");
+                    assertThat(command.getCollection()).isEqualTo("commands");
+                    assertThat(command.getCommandName()).isEqualTo("find");
+                    assertThat(command.getLatencies().getCount()).isGreaterThanOrEqualTo(1);
+                    assertThat(command.getReplySizes().getMax()).isGreaterThanOrEqualTo(1);
+                });
+        Collection<CommandStatistics> snapshot = mongoDbStatistics.snapshotCommands("client1");
+        assertThat(snapshot).isNotEmpty();
+        assertThat(mongoDbStatistics.getCommands("client1"))
+                .allSatisfy(command -> assertThat(command.getLatencies().getCount()).isZero());
+        assertThat(mongoDbStatistics.getCommands("unknown")).isEmpty();
+    }
+
     @Test
     public void test_insert_into_collection() {
         Document doc = new Document("name", "MongoDB")
@@ -55,4 +123,30 @@ public class MongoDbIT {
 
         db1.getCollection("test1").insertOne(doc);
     }
+
+    private static <T> T first(Publisher<T> publisher) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                result.complete(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(null);
+            }
+        });
+        return result.get(10, TimeUnit.SECONDS);
+    }
 }
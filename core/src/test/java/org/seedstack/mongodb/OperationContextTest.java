@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class OperationContextTest {
+    @Test
+    public void scopesRestoreEnclosingOperations() throws Exception {
+        assertThat(OperationContext.current()).isEmpty();
+        Runnable task;
+        try (OperationContext.Scope outer = OperationContext.enter(() -> "outer")) {
+            try (OperationContext.Scope inner = OperationContext.enter(() -> "inner")) {
+                task = OperationContext.wrap(() -> assertThat(OperationContext.current().map(Supplier::get))
+                        .contains("inner"));
+            }
+            assertThat(OperationContext.current().map(Supplier::get)).contains("outer");
+        }
+        assertThat(OperationContext.current()).isEmpty();
+        CompletableFuture.runAsync(task).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void wrappedIteratorsAreIteratedWithinOperation() {
+        Iterator<String> iterator;
+        try (OperationContext.Scope ignored = OperationContext.enter(() -> "get")) {
+            iterator = OperationContext.wrap(Stream.generate(() -> OperationContext.current().map(Supplier::get)
+                    .orElse("none")).limit(2).iterator());
+        }
+        assertThat(iterator.hasNext()).isTrue();
+        assertThat(iterator.next()).isEqualTo("get");
+        assertThat(iterator.next()).isEqualTo("get");
+        assertThat(iterator.hasNext()).isFalse();
+        assertThat(OperationContext.current()).isEmpty();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Assume;
+import org.junit.Test;
+import org.seedstack.mongodb.CommandStatistics;
+
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+public class CommandMonitorTest {
+    private final ConnectionDescription connection = new ConnectionDescription(
+            new ServerId(new ClusterId(), new ServerAddress()));
+    private static final int COMMAND_COUNT = 10_000;
+    private final CommandMonitor monitor = new CommandMonitor("client1");
+
+    @Test
+    public void commandsAreRecordedPerCollection() {
+        monitor.addDatabaseAlias("db", "alias");
+        start(1, "find", new BsonDocument("find", new BsonString("orders")));
+        start(2, "find", new BsonDocument("find", new BsonString("customers")));
+        succeed(2, "find", cursorReply("firstBatch", 3), 2);
+        succeed(1, "find", cursorReply("firstBatch", 101), 5);
+        start(3, "getMore", new BsonDocument("getMore", new BsonInt32(42))
+                .append("collection", new BsonString("orders")));
+        succeed(3, "getMore", cursorReply("nextBatch", 50), 4);
+        start(4, "insert", new BsonDocument("insert", new BsonString("orders")));
+        succeed(4, "insert", new BsonDocument("n", new BsonInt32(7)), 1);
+
+        CommandStatistics ordersFind = find(monitor.getCommands(), "orders", "find");
+        assertThat(ordersFind.getClientName()).isEqualTo("client1");
+        assertThat(ordersFind.getDatabase()).isEqualTo("alias");
+        assertThat(ordersFind.getLatencies().getCount()).isEqualTo(1);
+        assertThat(ordersFind.getLatencies().getMax()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(ordersFind.getReplySizes().getMax()).isEqualTo(101);
+        assertThat(find(monitor.getCommands(), "customers", "find").getReplySizes().getMax()).isEqualTo(3);
+        assertThat(find(monitor.getCommands(), "orders", "getMore").getReplySizes().getMax()).isEqualTo(50);
+        assertThat(find(monitor.getCommands(), "orders", "insert").getReplySizes().getMax()).isEqualTo(7);
+    }
+
+    @Test
+    public void databaseCommandsAndFailuresAreRecorded() {
+        start(1, "ping", new BsonDocument("ping", new BsonInt32(1)));
+        succeed(1, "ping", new BsonDocument("ok", new BsonInt32(1)), 1);
+        start(2, "update", new BsonDocument("update", new BsonString("orders")));
+        monitor.commandFailed(new CommandFailedEvent(null, 1, 2, connection, "db", "update",
+                TimeUnit.MILLISECONDS.toNanos(3), new MongoException("failed")));
+
+        CommandStatistics ping = find(monitor.getCommands(), CommandMonitor.DATABASE_COMMAND, "ping");
+        assertThat(ping.getDatabase()).isEqualTo("db");
+        assertThat(ping.getFailureCount()).isZero();
+        CommandStatistics update = find(monitor.getCommands(), "orders", "update");
+        assertThat(update.getFailureCount()).isEqualTo(1);
+        assertThat(update.getLatencies().getCount()).isEqualTo(1);
+        assertThat(update.getReplySizes().getCount()).isZero();
+    }
+
+    @Test
+    public void unmatchedCompletionsAreRecordedOnUnknownCollection() {
+        start(1, "find", new BsonDocument("find", new BsonString("orders")));
+        start(4097, "find", new BsonDocument("find", new BsonString("customers")));
+        succeed(1, "find", cursorReply("firstBatch", 1), 1);
+
+        assertThat(find(monitor.getCommands(), CommandMonitor.UNKNOWN_COLLECTION, "find").getLatencies().getCount())
+                .isEqualTo(1);
+        assertThat(find(monitor.getCommands(), "orders", "find").getLatencies().getCount()).isZero();
+    }
+
+    @Test
+    public void snapshotsStartNewIntervals() {
+        start(1, "find", new BsonDocument("find", new BsonString("orders")));
+        succeed(1, "find", cursorReply("firstBatch", 1), 1);
+
+        Collection<CommandStatistics> snapshot = monitor.snapshot();
+        start(2, "find", new BsonDocument("find", new BsonString("orders")));
+        succeed(2, "find", cursorReply("firstBatch", 1), 1);
+        start(3, "find", new BsonDocument("find", new BsonString("orders")));
+        succeed(3, "find", cursorReply("firstBatch", 1), 1);
+
+        CommandStatistics ended = find(snapshot, "orders", "find");
+        CommandStatistics current = find(monitor.getCommands(), "orders", "find");
+        assertThat(ended.getLatencies().getCount()).isEqualTo(1);
+        assertThat(current.getLatencies().getCount()).isEqualTo(2);
+        assertThat(current.getSince()).isAfterOrEqualTo(ended.getSince());
+    }
+
+    @Test
+    public void lazyDocumentsAreScannedInPlace() {
+        start(1, "find", raw(new BsonDocument("find", new BsonString("orders"))
+                .append("filter", new BsonDocument("status", new BsonString("open")))));
+        succeed(1, "find", raw(cursorReply("firstBatch", 101)), 5);
+        start(2, "getMore", raw(new BsonDocument("getMore", new BsonInt64(42))
+                .append("collection", new BsonString("orders"))));
+        succeed(2, "getMore", raw(cursorReply("nextBatch", 50)), 4);
+        start(3, "insert", raw(new BsonDocument("insert", new BsonString("orders"))));
+        succeed(3, "insert", raw(new BsonDocument("n", new BsonInt32(7)).append("ok", new BsonDouble(1))), 1);
+        start(4, "ping", raw(new BsonDocument("ping", new BsonInt32(1))));
+        succeed(4, "ping", raw(new BsonDocument("ok", new BsonDouble(1))), 1);
+
+        assertThat(find(monitor.getCommands(), "orders", "find").getReplySizes().getMax()).isEqualTo(101);
+        assertThat(find(monitor.getCommands(), "orders", "getMore").getReplySizes().getMax()).isEqualTo(50);
+        assertThat(find(monitor.getCommands(), "orders", "insert").getReplySizes().getMax()).isEqualTo(7);
+        assertThat(find(monitor.getCommands(), CommandMonitor.DATABASE_COMMAND, "ping").getReplySizes().getMax())
+                .isZero();
+    }
+
+    @Test
+    public void recordingDoesNotDependOnReplySize() {
+        com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+        CommandStartedEvent started = new CommandStartedEvent(null, 1, 1, connection, "db", "find",
+                raw(new BsonDocument("find", new BsonString("orders"))));
+        CommandSucceededEvent succeeded = new CommandSucceededEvent(null, 1, 1, connection, "db", "find",
+                raw(cursorReply("firstBatch", 1000)), 1);
+
+        // warm up so the measured loop runs compiled code
+        recordCommands(started, succeeded);
+        recordCommands(started, succeeded);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        recordCommands(started, succeeded);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // the readers over the lazy documents may be allocated but nothing proportional to the batch
+        assertThat(allocated / COMMAND_COUNT).isLessThan(1000);
+        assertThat(find(monitor.getCommands(), "orders", "find").getReplySizes().getMax()).isEqualTo(1000);
+    }
+
+    private void recordCommands(CommandStartedEvent started, CommandSucceededEvent succeeded) {
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            monitor.commandStarted(started);
+            monitor.commandSucceeded(succeeded);
+        }
+    }
+
+    private com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(sunThreadMXBean.isThreadAllocatedMemorySupported());
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadMXBean;
+    }
+
+    private void start(int requestId, String commandName, BsonDocument command) {
+        monitor.commandStarted(new CommandStartedEvent(null, 1, requestId, connection, "db", commandName, command));
+    }
+
+    private void succeed(int requestId, String commandName, BsonDocument response, long elapsedMillis) {
+        monitor.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, connection, "db", commandName,
+                response, TimeUnit.MILLISECONDS.toNanos(elapsedMillis)));
+    }
+
+    private static BsonDocument cursorReply(String batchName, int size) {
+        BsonArray batch = new BsonArray();
+        for (int i = 0; i < size; i++) {
+            batch.add(new BsonDocument());
+        }
+        return new BsonDocument("cursor", new BsonDocument(batchName, batch));
+    }
+
+    private static RawBsonDocument raw(BsonDocument document) {
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+
+    private static CommandStatistics find(Collection<CommandStatistics> commands, String collection,
+            String commandName) {
+        return commands.stream()
+                .filter(command -> command.getCollection().equals(collection)
+                        && command.getCommandName().equals(commandName))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statistics of " + commandName + " on " + collection));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+
+public class ConnectionPoolMonitorTest {
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress());
+    private final ConnectionId connectionId = new ConnectionId(serverId);
+
+    @Test
+    public void checkoutsAreTracked() {
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor("client1");
+        monitor.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId,
+                ConnectionPoolSettings.builder().maxSize(10).build()));
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 1));
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 2));
+        monitor.connectionCreated(new ConnectionCreatedEvent(connectionId));
+        assertThat(monitor.getWaitQueueDepth()).isEqualTo(2);
+
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(connectionId, 1,
+                TimeUnit.MILLISECONDS.toNanos(3)));
+        monitor.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId, 2,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT, TimeUnit.MILLISECONDS.toNanos(5)));
+        assertThat(monitor.getClientName()).isEqualTo("client1");
+        assertThat(monitor.getMaxSize()).isEqualTo(10);
+        assertThat(monitor.getWaitQueueDepth()).isZero();
+        assertThat(monitor.getCheckedOutCount()).isEqualTo(1);
+        assertThat(monitor.getOpenCount()).isEqualTo(1);
+        assertThat(monitor.getCheckoutTimes().getCount()).isEqualTo(2);
+        assertThat(monitor.getCheckoutTimes().getMax()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(monitor.getCheckoutFailureCount()).isEqualTo(1);
+        assertThat(monitor.getCheckoutFailureCounts())
+                .containsEntry(ConnectionCheckOutFailedEvent.Reason.TIMEOUT, 1L)
+                .containsEntry(ConnectionCheckOutFailedEvent.Reason.POOL_CLOSED, 0L);
+
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(connectionId, 1));
+        monitor.connectionClosed(new ConnectionClosedEvent(connectionId, ConnectionClosedEvent.Reason.POOL_CLOSED));
+        assertThat(monitor.getCheckedOutCount()).isZero();
+        assertThat(monitor.getOpenCount()).isZero();
+        assertThat(monitor.getCreatedCount()).isEqualTo(1);
+        assertThat(monitor.getClosedCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.After;
+import org.junit.Test;
+import org.seedstack.mongodb.OperationContext;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+public class SlowOperationMonitorTest {
+    private final ConnectionDescription connection = new ConnectionDescription(
+            new ServerId(new ClusterId(), new ServerAddress()));
+    private final SlowOperationMonitor monitor = new SlowOperationMonitor("client1", 100);
+
+    @After
+    public void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    public void queriesAreExtracted() {
+        BsonDocument find = SlowOperationMonitor.explainableQuery("find", BsonDocument.parse(
+                "{find: 'orders', filter: {status: 'open'}, sort: {date: -1}, limit: 10, lsid: {id: 1}, $db: 'db'}"));
+        assertThat(find).isEqualTo(BsonDocument.parse(
+                "{find: 'orders', filter: {status: 'open'}, sort: {date: -1}, limit: 10}"));
+        assertThat(SlowOperationMonitor.explainableQuery("update", BsonDocument.parse(
+                "{update: 'orders', updates: [{q: {_id: 1}, u: {status: 'closed'}}]}")))
+                .isEqualTo(BsonDocument.parse("{find: 'orders', filter: {_id: 1}, limit: 1}"));
+        assertThat(SlowOperationMonitor.explainableQuery("update", BsonDocument.parse(
+                "{update: 'orders', updates: [{q: {a: 1}, u: {$set: {b: 1}}, multi: true}]}")))
+                .isEqualTo(BsonDocument.parse("{find: 'orders', filter: {a: 1}}"));
+        assertThat(SlowOperationMonitor.explainableQuery("delete", BsonDocument.parse(
+                "{delete: 'orders', deletes: [{q: {a: 1}, limit: 0}]}")))
+                .isEqualTo(BsonDocument.parse("{find: 'orders', filter: {a: 1}}"));
+        assertThat(SlowOperationMonitor.explainableQuery("aggregate", BsonDocument.parse(
+                "{aggregate: 'orders', pipeline: [{$match: {a: 1}}, {$out: 'copy'}], cursor: {}}"))).isNull();
+        assertThat(SlowOperationMonitor.explainableQuery("aggregate", BsonDocument.parse(
+                "{aggregate: 1, pipeline: [{$currentOp: {}}], cursor: {}}"))).isNull();
+        assertThat(SlowOperationMonitor.explainableQuery("insert", BsonDocument.parse(
+                "{insert: 'orders', documents: [{a: 1}]}"))).isNull();
+    }
+
+    @Test
+    public void commandsAreRetainedIndependentlyOfTheirDocument() {
+        BsonDocument find = BsonDocument.parse("{find: 'orders', filter: {status: 'open'}}");
+        BsonDocument retained = SlowOperationMonitor.retain("find", find);
+        find.getDocument("filter").put("status", new BsonString("closed"));
+        assertThat(SlowOperationMonitor.explainableQuery("find", retained))
+                .isEqualTo(BsonDocument.parse("{find: 'orders', filter: {status: 'open'}}"));
+
+        BsonDocument rawFind = new RawBsonDocument(BsonDocument.parse("{find: 'orders', filter: {a: 1}}"),
+                new BsonDocumentCodec());
+        assertThat(SlowOperationMonitor.retain("find", rawFind)).isSameAs(rawFind);
+        assertThat(SlowOperationMonitor.retain("update", BsonDocument.parse(
+                "{update: 'orders', updates: [{q: {a: 1}, u: {b: 1}}, {q: {a: 2}, u: {b: 2}}], ordered: true}")))
+                .isEqualTo(BsonDocument.parse("{update: 'orders', updates: [{q: {a: 1}, u: {b: 1}}]}"));
+        assertThat(SlowOperationMonitor.retain("insert", BsonDocument.parse(
+                "{insert: 'orders', documents: [{a: 1}]}"))).isNull();
+    }
+
+    @Test
+    public void valuesAreRemovedFromShapes() {
+        BsonDocument first = SlowOperationMonitor.shape(BsonDocument.parse(
+                "{find: 'orders', filter: {$or: [{a: 1}, {b: {$in: [1, 2]}}]}, sort: {a: 1}, limit: 10}"));
+        BsonDocument second = SlowOperationMonitor.shape(BsonDocument.parse(
+                "{find: 'orders', filter: {$or: [{a: 2}, {b: {$in: [3]}}]}, sort: {a: 1}, limit: 20}"));
+        assertThat(first).isEqualTo(second);
+        assertThat(first).isEqualTo(BsonDocument.parse(
+                "{find: 'orders', filter: {$or: [{a: '?'}, {b: {$in: '?'}}]}, sort: {a: 1}, limit: '?'}"));
+    }
+
+    @Test
+    public void explanationsAreSummarized() {
+        BsonDocument explanation = BsonDocument.parse("{queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: "
+                + "{stage: 'IXSCAN', keyPattern: {a: 1}}}}, executionStats: {nReturned: 3, executionTimeMillis: 2, "
+                + "totalKeysExamined: 3, totalDocsExamined: 3}}");
+        assertThat(SlowOperationMonitor.summarize(explanation))
+                .isEqualTo("plan FETCH < IXSCAN {\"a\": 1}, 3 keys and 3 documents examined, 3 returned in 2 ms");
+        assertThat(SlowOperationMonitor.summarize(BsonDocument.parse(
+                "{stages: [{$cursor: {queryPlanner: {winningPlan: {queryPlan: {stage: 'COLLSCAN'}}}}}]}")))
+                .isEqualTo("plan COLLSCAN");
+    }
+
+    @Test
+    public void slowQueriesAreExplainedOncePerShape() throws Exception {
+        CompletableFuture<BsonDocument> explained = new CompletableFuture<>();
+        AtomicInteger explainCount = new AtomicInteger();
+        monitor.setCommandRunner((dbName, command) -> {
+            explainCount.incrementAndGet();
+            explained.complete(command);
+            return BsonDocument.parse("{queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}");
+        });
+        try (OperationContext.Scope ignored = OperationContext.enter(() -> "OrderRepository.get(status = open)")) {
+            run(1, "{find: 'orders', filter: {status: 'open'}}", 150);
+            run(2, "{find: 'orders', filter: {status: 'closed'}}", 200);
+            run(3, "{find: 'orders', filter: {amount: 10}}", 50);
+        }
+
+        assertThat(explained.get(5, TimeUnit.SECONDS)).isEqualTo(BsonDocument.parse(
+                "{explain: {find: 'orders', filter: {status: 'open'}}, verbosity: 'executionStats'}"));
+        assertThat(explainCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void completedCommandsAreForgotten() throws Exception {
+        CompletableFuture<BsonDocument> explained = new CompletableFuture<>();
+        monitor.setCommandRunner((dbName, command) -> {
+            explained.complete(command);
+            return BsonDocument.parse("{queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}");
+        });
+        start(1, "{find: 'orders', filter: {status: 'open'}}");
+        succeed(1, 50);
+        // a duplicate completion does not find the completed command anymore
+        succeed(1, 150);
+        run(2, "{find: 'orders', filter: {amount: 10}}", 150);
+
+        assertThat(explained.get(5, TimeUnit.SECONDS)).isEqualTo(BsonDocument.parse(
+                "{explain: {find: 'orders', filter: {amount: 10}}, verbosity: 'executionStats'}"));
+    }
+
+    private void run(int requestId, String command, long elapsedMillis) {
+        start(requestId, command).put("filter", BsonBoolean.FALSE);
+        succeed(requestId, elapsedMillis);
+    }
+
+    private BsonDocument start(int requestId, String command) {
+        BsonDocument commandDocument = BsonDocument.parse(command);
+        monitor.commandStarted(new CommandStartedEvent(null, 1, requestId, connection, "db", "find",
+                commandDocument));
+        return commandDocument;
+    }
+
+    private void succeed(int requestId, long elapsedMillis) {
+        monitor.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, connection, "db", "find",
+                new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(elapsedMillis)));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.time.Duration;
+
+/**
+ * Statistics of the second-level cache of an aggregate root class, enabled by the {@code cacheSize} class
+ * configuration option.
+ */
+public interface AggregateCacheStatistics {
+    /**
+     * Returns the ratio of the lookups served by the cache.
+     *
+     * @return the hit ratio, 1 if there was no lookup.
+     */
+    double getHitRatio();
+
+    /**
+     * Returns the number of documents loaded from the database.
+     *
+     * @return the load count.
+     */
+    long getLoadCount();
+
+    /**
+     * Returns the mean time spent loading documents from the database.
+     *
+     * @return the mean load time.
+     */
+    Duration getAverageLoadTime();
+
+    /**
+     * Returns the number of documents evicted because of the size or time bounds, invalidations excluded.
+     *
+     * @return the eviction count.
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of cached documents.
+     *
+     * @return the cache size.
+     */
+    long getSize();
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.util.ConcurrentModificationException;
+
+/**
+ * Thrown when an aggregate with a {@link dev.morphia.annotations.Version} field is updated but the version stored in
+ * the database differs from the version held by the aggregate, meaning it has been concurrently modified since it was
+ * loaded.
+ */
+public class AggregateVersionConflictException extends ConcurrentModificationException {
+    private static final long serialVersionUID = 1L;
+    private final transient Object id;
+    private final Long expectedVersion;
+
+    public AggregateVersionConflictException(Class<?> aggregateRootClass, Object id, Long expectedVersion) {
+        super("Aggregate " + aggregateRootClass.getSimpleName() + " identified with " + id
+                + " has been concurrently modified (expected version " + expectedVersion + ")");
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    /**
+     * Returns the identifier of the conflicting aggregate.
+     *
+     * @return the aggregate identifier.
+     */
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * Returns the version the aggregate was expected to have in the database.
+     *
+     * @return the expected version, null if the aggregate was never versioned.
+     */
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
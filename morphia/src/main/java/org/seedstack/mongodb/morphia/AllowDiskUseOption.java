@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option allowing the server to write temporary files when sorting the results of a query exceeds its
+ * memory limit. Overrides the {@code allowDiskUse} class configuration option of the aggregate root. Only supported by
+ * retrievals.
+ */
+public class AllowDiskUseOption implements Repository.Option {
+    private final boolean allowDiskUse;
+
+    public AllowDiskUseOption(boolean allowDiskUse) {
+        this.allowDiskUse = allowDiskUse;
+    }
+
+    public boolean isAllowDiskUse() {
+        return allowDiskUse;
+    }
+
+    @Override
+    public String toString() {
+        return "allowDiskUse=" + allowDiskUse;
+    }
+}
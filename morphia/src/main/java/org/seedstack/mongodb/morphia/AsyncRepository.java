@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.seedstack.business.domain.AggregateExistsException;
+import org.seedstack.business.domain.AggregateNotFoundException;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.mongodb.morphia.internal.AsyncExecutor;
+
+/**
+ * Asynchronous facade of a {@link BaseMorphiaRepository}, obtained with {@link BaseMorphiaRepository#async()}. Each
+ * operation runs on its own thread, virtual when the runtime provides them, and completes a future, so that
+ * independent reads can be issued concurrently without blocking the caller. The operations of all the repositories
+ * of a client share the concurrency limit of the client, given by {@code mongoDb.morphia.async.maxConcurrency} or
+ * {@code mongoDb.morphia.async.clients.<clientName>}, the operations beyond it being queued.
+ *
+ * <p>Exceptions thrown by an operation, such as {@link AggregateNotFoundException}, complete its future
+ * exceptionally.</p>
+ *
+ * @param <A>  the aggregate root class.
+ * @param <ID> the identifier class.
+ */
+public class AsyncRepository<A extends AggregateRoot<ID>, ID> {
+    private final BaseMorphiaRepository<A, ID> repository;
+    private final AsyncExecutor asyncExecutor;
+
+    AsyncRepository(BaseMorphiaRepository<A, ID> repository, AsyncExecutor asyncExecutor) {
+        this.repository = repository;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Runs an arbitrary operation on the repository asynchronously. The operation should not return a stream that
+     * remains to be consumed, as it would then be consumed on the calling thread.
+     *
+     * @param operation the operation.
+     * @param <R>       the type of the result.
+     * @return the future result of the operation.
+     */
+    public <R> CompletableFuture<R> submit(Function<? super BaseMorphiaRepository<A, ID>, R> operation) {
+        return asyncExecutor.submit(() -> operation.apply(repository));
+    }
+
+    /**
+     * Adds an aggregate asynchronously.
+     *
+     * @param aggregate the aggregate to add.
+     * @return a future completed when the aggregate is added, or with an {@link AggregateExistsException}.
+     * @see Repository#add(AggregateRoot)
+     */
+    public CompletableFuture<Void> add(A aggregate) {
+        return asyncExecutor.submit(() -> {
+            repository.add(aggregate);
+            return null;
+        });
+    }
+
+    /**
+     * Gets an aggregate asynchronously.
+     *
+     * @param id the identifier of the aggregate.
+     * @return the future aggregate, empty if it doesn't exist.
+     * @see Repository#get(Object)
+     */
+    public CompletableFuture<Optional<A>> get(ID id) {
+        return asyncExecutor.submit(() -> repository.get(id));
+    }
+
+    /**
+     * Gets the aggregates satisfying a specification, read entirely into a list.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options.
+     * @return the future aggregates.
+     * @see Repository#get(Specification, Repository.Option...)
+     */
+    public CompletableFuture<List<A>> get(Specification<A> specification, Repository.Option... options) {
+        return asyncExecutor.submit(() -> {
+            try (Stream<A> aggregates = repository.get(specification, options)) {
+                return aggregates.collect(Collectors.toList());
+            }
+        });
+    }
+
+    /**
+     * Gets the aggregates identified by the given identifiers, read entirely into a list.
+     *
+     * @param ids the identifiers of the aggregates.
+     * @return the future aggregates, in the order of their identifiers.
+     * @see BaseMorphiaRepository#getAll(Collection)
+     */
+    public CompletableFuture<List<A>> getAll(Collection<? extends ID> ids) {
+        return asyncExecutor.submit(() -> {
+            try (Stream<A> aggregates = repository.getAll(ids)) {
+                return aggregates.collect(Collectors.toList());
+            }
+        });
+    }
+
+    /**
+     * Checks asynchronously if an aggregate exists.
+     *
+     * @param id the identifier of the aggregate.
+     * @return a future true if the aggregate exists, false otherwise.
+     * @see Repository#contains(Object)
+     */
+    public CompletableFuture<Boolean> contains(ID id) {
+        return asyncExecutor.submit(() -> repository.contains(id));
+    }
+
+    /**
+     * Checks asynchronously if at least one aggregate satisfies a specification.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options.
+     * @return a future true if at least one aggregate satisfies the specification, false otherwise.
+     * @see BaseMorphiaRepository#contains(Specification, Repository.Option...)
+     */
+    public CompletableFuture<Boolean> contains(Specification<A> specification, Repository.Option... options) {
+        return asyncExecutor.submit(() -> repository.contains(specification, options));
+    }
+
+    /**
+     * Counts asynchronously the aggregates satisfying a specification.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options.
+     * @return the future number of aggregates satisfying the specification.
+     * @see BaseMorphiaRepository#count(Specification, Repository.Option...)
+     */
+    public CompletableFuture<Long> count(Specification<A> specification, Repository.Option... options) {
+        return asyncExecutor.submit(() -> repository.count(specification, options));
+    }
+
+    /**
+     * Counts asynchronously all the aggregates.
+     *
+     * @return the future number of aggregates.
+     * @see Repository#size()
+     */
+    public CompletableFuture<Long> size() {
+        return asyncExecutor.submit(repository::size);
+    }
+
+    /**
+     * Updates an aggregate asynchronously.
+     *
+     * @param aggregate the aggregate to update.
+     * @return the future updated aggregate, or an {@link AggregateNotFoundException}.
+     * @see Repository#update(AggregateRoot)
+     */
+    public CompletableFuture<A> update(A aggregate) {
+        return asyncExecutor.submit(() -> repository.update(aggregate));
+    }
+
+    /**
+     * Adds or updates an aggregate asynchronously.
+     *
+     * @param aggregate the aggregate to add or update.
+     * @return the future added or updated aggregate.
+     * @see Repository#addOrUpdate(AggregateRoot)
+     */
+    public CompletableFuture<A> addOrUpdate(A aggregate) {
+        return asyncExecutor.submit(() -> repository.addOrUpdate(aggregate));
+    }
+
+    /**
+     * Removes an aggregate asynchronously.
+     *
+     * @param id the identifier of the aggregate to remove.
+     * @return a future completed when the aggregate is removed, or with an {@link AggregateNotFoundException}.
+     * @see Repository#remove(Object)
+     */
+    public CompletableFuture<Void> remove(ID id) {
+        return asyncExecutor.submit(() -> {
+            repository.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Removes asynchronously the aggregates satisfying a specification.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options.
+     * @return the future number of removed aggregates.
+     * @see BaseMorphiaRepository#remove(Specification, Repository.Option...)
+     */
+    public CompletableFuture<Long> remove(Specification<A> specification, Repository.Option... options) {
+        return asyncExecutor.submit(() -> repository.remove(specification, options));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import org.seedstack.mongodb.Histogram;
+
+/**
+ * Statistics of the asynchronous repository operations of a client, issued through {@link AsyncRepository}.
+ */
+public interface AsyncStatistics {
+    /**
+     * Returns the maximum number of operations of the client running concurrently.
+     *
+     * @return the maximum concurrency.
+     */
+    int getMaxConcurrency();
+
+    /**
+     * Returns the number of operations currently running.
+     *
+     * @return the running count.
+     */
+    int getRunningCount();
+
+    /**
+     * Returns the number of operations currently waiting for a slot.
+     *
+     * @return the queued count.
+     */
+    int getQueuedCount();
+
+    /**
+     * Returns the histogram of the time operations waited for a slot, in nanoseconds.
+     *
+     * @return the queue time histogram.
+     */
+    Histogram getQueueTimes();
+
+    /**
+     * Returns the histogram of the time operations took to run, in nanoseconds.
+     *
+     * @return the execution time histogram.
+     */
+    Histogram getExecutionTimes();
+}
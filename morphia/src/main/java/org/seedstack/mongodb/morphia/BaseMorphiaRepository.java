@@ -8,17 +8,41 @@
 package org.seedstack.mongodb.morphia;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Spliterators.spliteratorUnknownSize;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import javax.inject.Inject;
 
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.conversions.Bson;
+import org.bson.json.JsonMode;
 import org.seedstack.business.domain.AggregateExistsException;
 import org.seedstack.business.domain.AggregateNotFoundException;
 import org.seedstack.business.domain.AggregateRoot;
@@ -28,13 +52,60 @@ import org.seedstack.business.domain.OffsetOption;
 import org.seedstack.business.domain.SortOption;
 import org.seedstack.business.specification.Specification;
 import org.seedstack.business.spi.SpecificationTranslator;
+import org.seedstack.mongodb.OperationContext;
+import org.seedstack.mongodb.morphia.internal.AggregateCache;
+import org.seedstack.mongodb.morphia.internal.AggregateCaches;
+import org.seedstack.mongodb.morphia.internal.AggregateContext;
+import org.seedstack.mongodb.morphia.internal.AggregateContexts;
+import org.seedstack.mongodb.morphia.internal.AsyncExecutor;
+import org.seedstack.mongodb.morphia.internal.CountMonitor;
 import org.seedstack.mongodb.morphia.internal.DatastoreFactory;
+import org.seedstack.mongodb.morphia.internal.DirtyTrackingEntityListener;
+import org.seedstack.mongodb.morphia.internal.DocumentDiff;
+import org.seedstack.mongodb.morphia.internal.IdBatchLoader;
+import org.seedstack.mongodb.morphia.internal.OrderedBatchIterator;
+import org.seedstack.mongodb.morphia.internal.PartitionSpliterator;
+import org.seedstack.mongodb.morphia.internal.PrefetchMonitor;
+import org.seedstack.mongodb.morphia.internal.PrefetchStatistics;
+import org.seedstack.mongodb.morphia.internal.PrefetchingIterator;
+import org.seedstack.mongodb.morphia.internal.QueryCoalescers;
+import org.seedstack.mongodb.morphia.internal.QueryExecutor;
+import org.seedstack.mongodb.morphia.internal.QuerySettings;
+import org.seedstack.mongodb.morphia.internal.RawDocumentWriter;
+import org.seedstack.mongodb.morphia.internal.SingleFlight;
+import org.seedstack.mongodb.morphia.internal.specification.BsonTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.CaseInsensitiveIndexes;
+import org.seedstack.mongodb.morphia.internal.specification.MappedPaths;
 import org.seedstack.mongodb.morphia.internal.specification.MorphiaTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.SpecificationOptimizer;
+import org.seedstack.mongodb.morphia.internal.specification.TranslationCache;
 
+import com.google.common.collect.MapMaker;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 
 import dev.morphia.Datastore;
 import dev.morphia.DeleteOptions;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+import dev.morphia.mapping.codec.writer.DocumentWriter;
 import dev.morphia.query.CountOptions;
 import dev.morphia.query.FindOptions;
 import dev.morphia.query.MorphiaCursor;
@@ -57,9 +128,32 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  */
 public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> extends BaseRepository<A, ID> {
     public static final String ID_KEY = "_id";
+    private static final String KEY_PATTERN = "keyPattern";
+    private static final int SAMPLES_PER_PARTITION = 20;
+    private static final Set<Object> PARTIAL_AGGREGATES = Collections.newSetFromMap(
+            new MapMaker().weakKeys().makeMap());
     private Datastore datastore;
+    private int bulkWriteBatchSize;
+    private int getAllBatchSize;
+    private int getAllParallelism;
+    private QueryExecutor queryExecutor;
+    private PrefetchMonitor prefetchMonitor;
+    private DirtyTrackingEntityListener dirtyTrackingEntityListener;
+    private CaseInsensitiveIndexes caseInsensitiveIndexes;
+    private TranslationCache translationCache;
+    private MappedPaths mappedPaths;
+    private MorphiaConfig.FilterTranslation filterTranslation;
+    private QuerySettings defaultQuerySettings;
+    private QuerySettings idQuerySettings;
+    private CountMonitor countMonitor;
+    private AggregateCache aggregateCache;
+    private IdBatchLoader idBatchLoader;
+    private SingleFlight singleFlight;
+    private AsyncExecutor asyncExecutor;
+    private AsyncRepository<A, ID> asyncRepository;
 
     private SpecificationTranslator<MorphiaTranslationContext, Filter> specificationTranslator;
+    private SpecificationTranslator<BsonTranslationContext, Bson> bsonSpecificationTranslator;
 
     public BaseMorphiaRepository() {
 
@@ -72,9 +166,51 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
     @Inject
     @SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD", justification = "Called by Guice")
     private void init(DatastoreFactory datastoreFactory,
-            SpecificationTranslator<MorphiaTranslationContext, Filter> specificationTranslator) {
+            SpecificationTranslator<MorphiaTranslationContext, Filter> specificationTranslator,
+            SpecificationTranslator<BsonTranslationContext, Bson> bsonSpecificationTranslator,
+            MorphiaConfig morphiaConfig, DirtyTrackingEntityListener dirtyTrackingEntityListener,
+            TranslationCache translationCache, CountMonitor countMonitor, AggregateCaches aggregateCaches,
+            QueryCoalescers queryCoalescers, QueryExecutor queryExecutor, PrefetchMonitor prefetchMonitor,
+            AggregateContexts aggregateContexts) {
         this.datastore = datastoreFactory.createDatastore(getAggregateRootClass());
         this.specificationTranslator = specificationTranslator;
+        this.bsonSpecificationTranslator = bsonSpecificationTranslator;
+        this.filterTranslation = morphiaConfig.getFilterTranslation();
+        this.bulkWriteBatchSize = morphiaConfig.getBulkWriteBatchSize();
+        this.getAllBatchSize = morphiaConfig.getGetAllBatchSize();
+        this.getAllParallelism = morphiaConfig.getGetAllParallelism();
+        this.queryExecutor = queryExecutor;
+        this.prefetchMonitor = prefetchMonitor;
+        this.dirtyTrackingEntityListener = dirtyTrackingEntityListener;
+        AggregateContext aggregateContext = aggregateContexts.get(getAggregateRootClass(), datastore);
+        this.mappedPaths = aggregateContext.getMappedPaths();
+        this.caseInsensitiveIndexes = aggregateContext.getCaseInsensitiveIndexes();
+        this.translationCache = translationCache;
+        this.countMonitor = countMonitor;
+        this.aggregateCache = aggregateCaches.get(getAggregateRootClass(),
+                datastore.getCollection(getAggregateRootClass()));
+        this.idBatchLoader = queryCoalescers.getIdBatchLoader(getAggregateRootClass(),
+                datastore.getCollection(getAggregateRootClass()).withDocumentClass(RawBsonDocument.class));
+        this.singleFlight = queryCoalescers.getSingleFlight(getAggregateRootClass()).orElse(null);
+        this.defaultQuerySettings = aggregateContext.getDefaultQuerySettings();
+        this.idQuerySettings = aggregateContext.getIdQuerySettings();
+        this.asyncExecutor = aggregateContext.getAsyncExecutor();
+    }
+
+    /**
+     * Provides an asynchronous facade of this repository, whose operations complete futures.
+     *
+     * @return the asynchronous facade.
+     * @see AsyncRepository
+     */
+    public AsyncRepository<A, ID> async() {
+        AsyncRepository<A, ID> result = asyncRepository;
+        if (result == null) {
+            // racing calls may create distinct facades, which are equivalent
+            result = new AsyncRepository<>(this, asyncExecutor);
+            asyncRepository = result;
+        }
+        return result;
     }
 
     /**
@@ -89,49 +225,610 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
     @Override
     public void add(A aggregate) throws AggregateExistsException {
         datastore.save(aggregate);
+        // an aggregate loaded before being removed and added again keeps the snapshot of its loaded state
+        dirtyTrackingEntityListener.discardSnapshot(aggregate);
+        evict(aggregate.getId());
+    }
+
+    /**
+     * Adds the given aggregates with ordered bulk inserts.
+     *
+     * @param aggregates the aggregates to add.
+     * @return the outcome of the insertion of each aggregate.
+     * @see #addAll(Stream, boolean)
+     */
+    public BulkWriteReport addAll(Collection<? extends A> aggregates) {
+        return addAll(aggregates.stream(), true);
+    }
+
+    /**
+     * Adds the given aggregates with bulk inserts of {@code mongoDb.morphia.bulkWriteBatchSize} aggregates. The
+     * driver further splits each batch according to the server message size limits. Entity listeners and validation
+     * are invoked for each aggregate, a listener or validation failure aborting the bulk write.
+     *
+     * @param aggregates the aggregates to add.
+     * @param ordered    if true, the bulk write stops at the first failure. Otherwise all aggregates are attempted.
+     * @return the outcome of the insertion of each aggregate, an existing aggregate being reported as an
+     *         {@link AggregateExistsException}.
+     */
+    public BulkWriteReport addAll(Stream<? extends A> aggregates, boolean ordered) {
+        return bulkWrite(aggregates, ordered, false);
+    }
+
+    /**
+     * Adds or replaces the given aggregates with ordered bulk writes.
+     *
+     * @param aggregates the aggregates to add or update.
+     * @return the outcome of the write of each aggregate.
+     * @see #addOrUpdateAll(Stream, boolean)
+     */
+    public BulkWriteReport addOrUpdateAll(Collection<? extends A> aggregates) {
+        return addOrUpdateAll(aggregates.stream(), true);
+    }
+
+    /**
+     * Adds or replaces the given aggregates with bulk upserts, batched like {@link #addAll(Stream, boolean)}. Like
+     * {@link #update(AggregateRoot)}, aggregates with a {@code @Version} field are only replaced if the stored version
+     * is the one they hold, and their version is incremented when written.
+     *
+     * @param aggregates the aggregates to add or update.
+     * @param ordered    if true, the bulk write stops at the first failure. Otherwise all aggregates are attempted.
+     * @return the outcome of the write of each aggregate, a concurrently modified aggregate being reported as an
+     *         {@link AggregateVersionConflictException}.
+     */
+    public BulkWriteReport addOrUpdateAll(Stream<? extends A> aggregates, boolean ordered) {
+        return bulkWrite(aggregates, ordered, true);
+    }
+
+    /**
+     * Removes the aggregates identified by the given identifiers.
+     *
+     * @param ids the identifiers of the aggregates to remove.
+     * @return the number of removed aggregates.
+     */
+    public long removeAll(Collection<? extends ID> ids) {
+        return removeAll(ids.stream());
+    }
+
+    /**
+     * Removes the aggregates identified by the given identifiers, with one delete of
+     * {@code mongoDb.morphia.bulkWriteBatchSize} identifiers at most per round trip.
+     *
+     * @param ids the identifiers of the aggregates to remove.
+     * @return the number of removed aggregates.
+     */
+    public long removeAll(Stream<? extends ID> ids) {
+        long deletedCount = 0;
+        List<ID> batch = new ArrayList<>();
+        Iterator<? extends ID> iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == bulkWriteBatchSize || !iterator.hasNext()) {
+                deletedCount += datastore.find(getAggregateRootClass())
+                        .filter(Filters.in(ID_KEY, batch))
+                        .delete(new DeleteOptions().multi(true))
+                        .getDeletedCount();
+                batch.forEach(this::evict);
+                batch.clear();
+            }
+        }
+        return deletedCount;
     }
 
     @Override
     public Stream<A> get(Specification<A> specification, Option... options) {
-        MorphiaCursor<A> cursor = buildQuery(specification).iterator(buildFindOptions(options));
-        return StreamSupport.stream(spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
-                .onClose(cursor::close);
+        try (OperationContext.Scope ignored = enterOperation("get", specification, options)) {
+            Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+            if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+                return Stream.empty();
+            }
+            QuerySettings querySettings = defaultQuerySettings.with(options);
+            Collation collation = resolveCollation(optimizedSpecification, querySettings, options);
+            for (Option option : options) {
+                if (option instanceof PrefetchOption) {
+                    return prefetch(optimizedSpecification, collation, querySettings, (PrefetchOption) option, options);
+                }
+            }
+            FindOptions findOptions = querySettings.apply(buildFindOptions(options)).collation(collation);
+            MorphiaCursor<A> cursor = buildQuery(optimizedSpecification, collation, options).iterator(findOptions);
+            // the next batches are fetched while the stream is consumed, after the operation returned it
+            Iterator<A> iterator = OperationContext.wrap(cursor);
+            Stream<A> stream = StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(cursor::close);
+            if (findOptions.getProjection() != null) {
+                stream = stream.peek(PARTIAL_AGGREGATES::add);
+            }
+            return stream;
+        }
+    }
+
+    private Stream<A> prefetch(Specification<A> specification, Collation collation, QuerySettings querySettings,
+            PrefetchOption prefetchOption, Option... options) {
+        FindIterable<RawBsonDocument> findIterable = findRaw(specification, collation, querySettings, options);
+        PrefetchStatistics statistics = prefetchMonitor.getStatistics(getAggregateRootClass());
+        if (querySettings.getBatchSize() == null) {
+            findIterable.batchSize(statistics.nextBatchSize(prefetchOption.getMaxBufferedBytes()));
+        }
+        PrefetchingIterator<A> iterator = new PrefetchingIterator<>(findIterable,
+                prefetchOption.getMaxBufferedBytes(),
+                runnable -> queryExecutor.execute(OperationContext.wrap(runnable)), this::decode, statistics);
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
     }
 
+    /**
+     * Exports the aggregates satisfying the specification to an output stream, without decoding them. The documents
+     * are written as stored in the database, so no entity listener is invoked and no dirty tracking occurs.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param format        the format of the exported documents.
+     * @param outputStream  the output stream, which is neither flushed nor closed.
+     * @param options       the query options, such as {@link SortOption}, {@link LimitOption} or
+     *                      {@link BatchSizeOption}. Projections and keyset pagination are not supported.
+     * @return the report of the export.
+     * @throws IOException if the output stream cannot be written to.
+     */
+    public ExportReport export(Specification<A> specification, ExportFormat format, OutputStream outputStream,
+            Option... options) throws IOException {
+        return export(specification, format, Channels.newChannel(outputStream), options);
+    }
+
+    /**
+     * Exports the aggregates satisfying the specification to a channel, without decoding them. The documents are
+     * written as stored in the database, so no entity listener is invoked and no dirty tracking occurs.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param format        the format of the exported documents.
+     * @param channel       the channel, which is not closed.
+     * @param options       the query options, such as {@link SortOption}, {@link LimitOption} or
+     *                      {@link BatchSizeOption}. Projections and keyset pagination are not supported.
+     * @return the report of the export.
+     * @throws IOException if the channel cannot be written to.
+     */
+    public ExportReport export(Specification<A> specification, ExportFormat format, WritableByteChannel channel,
+            Option... options) throws IOException {
+        ExportReport exportReport = new ExportReport();
+        Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+        if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+            return exportReport;
+        }
+        QuerySettings querySettings = defaultQuerySettings.with(options);
+        Collation collation = resolveCollation(optimizedSpecification, querySettings, options);
+        RawDocumentWriter writer;
+        switch (format) {
+            case RELAXED_JSON:
+                writer = new RawDocumentWriter(channel, JsonMode.RELAXED);
+                break;
+            case EXTENDED_JSON:
+                writer = new RawDocumentWriter(channel, JsonMode.EXTENDED);
+                break;
+            default:
+                writer = new RawDocumentWriter(channel);
+        }
+        try (MongoCursor<RawBsonDocument> cursor = findRaw(optimizedSpecification, collation, querySettings, options)
+                .cursor()) {
+            while (cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                exportReport.addDocument(document.getByteBuffer().remaining(), writer.write(document));
+            }
+        }
+        return exportReport;
+    }
+
+    private FindIterable<RawBsonDocument> findRaw(Specification<A> specification, Collation collation,
+            QuerySettings querySettings, Option... options) {
+        FindIterable<RawBsonDocument> findIterable = querySettings.apply(datastore
+                        .getCollection(getAggregateRootClass())
+                        .withDocumentClass(RawBsonDocument.class)
+                        .find(buildQuery(specification, collation).toDocument()))
+                .collation(collation);
+        if (querySettings.getBatchSize() != null) {
+            findIterable.batchSize(querySettings.getBatchSize());
+        }
+        for (Option option : options) {
+            checkArgument(!(option instanceof ProjectionOption || option instanceof KeysetOption),
+                    "Raw document queries do not support " + option.getClass().getSimpleName());
+            if (option instanceof OffsetOption) {
+                long offset = ((OffsetOption) option).getOffset();
+                checkArgument(offset <= Integer.MAX_VALUE, "Offset is limited to " + Integer.MAX_VALUE);
+                findIterable.skip((int) offset);
+            } else if (option instanceof LimitOption) {
+                long limit = ((LimitOption) option).getLimit();
+                checkArgument(limit <= Integer.MAX_VALUE, "Limit is limited to " + Integer.MAX_VALUE);
+                findIterable.limit((int) limit);
+            } else if (option instanceof SortOption) {
+                Document sort = new Document();
+                for (SortOption.SortedAttribute sortedAttribute : ((SortOption) option).getSortedAttributes()) {
+                    sort.append(mappedPaths.get(sortedAttribute.getAttribute()),
+                            sortedAttribute.getDirection() == SortOption.Direction.DESCENDING ? -1 : 1);
+                }
+                findIterable.sort(sort);
+            }
+        }
+        return findIterable;
+    }
+
+    /**
+     * Scans the aggregates satisfying the specification with a parallel stream partitioned by identifier.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param partitions    the number of partitions.
+     * @param options       the query options, such as {@link BatchSizeOption} or {@link MaxTimeOption}.
+     * @return the parallel stream of the aggregates, in no particular order.
+     * @see #scan(Specification, String, int, Option...)
+     */
+    public Stream<A> scan(Specification<A> specification, int partitions, Option... options) {
+        return scan(specification, ID_KEY, partitions, options);
+    }
+
+    /**
+     * Scans the aggregates satisfying the specification with a parallel stream of up to {@code partitions} ranges of
+     * the given attribute, each range being read through its own cursor, and thus its own connection, by a thread of
+     * the fork-join pool. Range boundaries are taken from a random sample of the collection, so partitions have
+     * similar sizes. The attribute should be indexed and must not hold arrays. The stream should be closed to
+     * release the cursors of the partitions not fully read.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param attribute     the attribute partitioning the collection.
+     * @param partitions    the maximum number of partitions.
+     * @param options       the query options, such as {@link BatchSizeOption} or {@link ProjectionOption}.
+     *                      Sorting, offset, limit and keyset options are not supported.
+     * @return the parallel stream of the aggregates, in no particular order.
+     */
+    public Stream<A> scan(Specification<A> specification, String attribute, int partitions, Option... options) {
+        checkArgument(partitions > 0, "At least one partition is required");
+        for (Option option : options) {
+            checkArgument(!(option instanceof SortOption || option instanceof OffsetOption
+                            || option instanceof LimitOption || option instanceof KeysetOption),
+                    "Partitioned scans do not support " + option.getClass().getSimpleName());
+        }
+        Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+        if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+            return Stream.empty();
+        }
+        QuerySettings querySettings = defaultQuerySettings.with(options);
+        Collation collation = resolveCollation(optimizedSpecification, querySettings, options);
+        Document filter = buildQuery(optimizedSpecification, collation).toDocument();
+        FindOptions findOptions = querySettings.apply(buildFindOptions(options)).collation(collation);
+        String field = mappedPaths.get(attribute);
+        PartitionSpliterator<A> spliterator = new PartitionSpliterator<>(
+                PartitionSpliterator.rangeFilters(field, sampleBoundaries(field, partitions, collation)),
+                range -> datastore.find(getAggregateRootClass(), new Document("$and", Arrays.asList(filter, range)))
+                        .iterator(findOptions.copy()));
+        Stream<A> stream = StreamSupport.stream(spliterator, true).onClose(spliterator::close);
+        if (findOptions.getProjection() != null) {
+            stream = stream.peek(PARTIAL_AGGREGATES::add);
+        }
+        return stream;
+    }
+
+    private List<BsonValue> sampleBoundaries(String field, int partitions, Collation collation) {
+        if (partitions == 1) {
+            return Collections.emptyList();
+        }
+        List<BsonValue> samples = new ArrayList<>();
+        for (BsonDocument sample : datastore.getCollection(getAggregateRootClass())
+                .withDocumentClass(BsonDocument.class)
+                .aggregate(Arrays.asList(
+                        Aggregates.sample(partitions * SAMPLES_PER_PARTITION),
+                        Aggregates.match(new Document(field, new Document("$ne", null))),
+                        Aggregates.sort(Sorts.ascending(field)),
+                        Aggregates.project(Projections.include(field))))
+                .collation(collation)) {
+            BsonValue value = sample;
+            for (String segment : field.split("\\.")) {
+                value = value.isDocument() ? value.asDocument().get(segment) : null;
+                if (value == null) {
+                    break;
+                }
+            }
+            if (value != null && !value.isArray()) {
+                samples.add(value);
+            }
+        }
+        return PartitionSpliterator.selectBoundaries(samples, partitions);
+    }
+
+    /**
+     * Returns a page of the aggregates satisfying the specification, positioned by key instead of by offset.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param keysetOption  the sort and the position of the page.
+     * @param limit         the maximum number of aggregates in the page.
+     * @param options       the query options, such as {@link BatchSizeOption} or {@link MaxTimeOption}.
+     * @return the page, holding the continuation token of the next page if any.
+     * @see KeysetOption
+     */
+    public KeysetPage<A> get(Specification<A> specification, KeysetOption keysetOption, long limit,
+            Option... options) {
+        checkArgument(limit > 0 && limit < Integer.MAX_VALUE,
+                "Keyset pages must hold between 1 and " + (Integer.MAX_VALUE - 1) + " aggregates");
+        List<A> items = new ArrayList<>();
+        Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+        if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+            return new KeysetPage<>(items, null);
+        }
+        QuerySettings querySettings = defaultQuerySettings.with(options);
+        // pages are sorted, so no collation is inferred from the indexes as it would change the sort of strings
+        Collation collation = resolveCollation(optimizedSpecification, querySettings, keysetOption);
+        boolean hasNext = false;
+        try (MorphiaCursor<A> cursor = buildQuery(optimizedSpecification, collation, keysetOption)
+                .iterator(querySettings.apply(buildFindOptions(keysetOption)).limit((int) limit + 1)
+                        .collation(collation))) {
+            while (cursor.hasNext()) {
+                A aggregate = cursor.next();
+                if (items.size() == limit) {
+                    hasNext = true;
+                    break;
+                }
+                items.add(aggregate);
+            }
+        }
+        String nextToken = null;
+        if (hasNext) {
+            nextToken = KeysetOption.createToken(getKeysetValues(items.get(items.size() - 1), keysetOption),
+                    datastore.getCodecRegistry());
+        }
+        return new KeysetPage<>(items, nextToken);
+    }
+
+    /**
+     * Gets an aggregate by its identifier. When the {@code cacheSize} class configuration option is set for the
+     * aggregate root, the document is served by the second-level cache of the class if present, and a new aggregate is
+     * decoded from it on each call. When the {@code coalescingWindowMicros} class configuration option is set, the
+     * documents requested concurrently are loaded with a single query.
+     *
+     * @see AggregateCaches
+     * @see QueryCoalescers
+     */
     @Override
     public Optional<A> get(ID id) {
-        return Optional.ofNullable(datastore.find(getAggregateRootClass()).filter(Filters.eq(ID_KEY, id)).first());
+        if (aggregateCache == null && idBatchLoader == null) {
+            return Optional.ofNullable(datastore.find(getAggregateRootClass()).filter(Filters.eq(ID_KEY, id)).first());
+        }
+        BsonValue bsonId = toBsonId(id);
+        RawBsonDocument document;
+        if (aggregateCache == null) {
+            document = loadDocument(bsonId);
+        } else {
+            document = aggregateCache.get(bsonId, () -> loadDocument(bsonId));
+        }
+        return Optional.ofNullable(document).map(this::decode);
+    }
+
+    private RawBsonDocument loadDocument(BsonValue bsonId) {
+        if (idBatchLoader != null) {
+            return idBatchLoader.load(bsonId);
+        }
+        return datastore.getCollection(getAggregateRootClass())
+                .withDocumentClass(RawBsonDocument.class)
+                .find(new BsonDocument(ID_KEY, bsonId))
+                .first();
+    }
+
+    private A decode(RawBsonDocument document) {
+        return datastore.getCodecRegistry()
+                .get(getAggregateRootClass())
+                .decode(document.asBsonReader(), DecoderContext.builder().build());
+    }
+
+    /**
+     * Gets the aggregates identified by the given identifiers, skipping the missing ones.
+     *
+     * @param ids the identifiers of the aggregates.
+     * @return the aggregates, in the order of their identifiers.
+     * @see #getAll(Stream, Consumer)
+     */
+    public Stream<A> getAll(Collection<? extends ID> ids) {
+        return getAll(ids.stream(), id -> {
+        });
+    }
+
+    /**
+     * Gets the aggregates identified by the given identifiers with {@code $in} queries of
+     * {@code mongoDb.morphia.getAllBatchSize} identifiers at most. When {@code mongoDb.morphia.getAllParallelism} is
+     * greater than one, as many batches are loaded in parallel ahead of the consumption of the stream, which should
+     * then be closed. The memory used only depends on the batch size and the parallelism, whatever the number of
+     * identifiers.
+     *
+     * @param ids              the identifiers of the aggregates, consumed lazily.
+     * @param missingIdHandler the handler of the identifiers without aggregate, called when the stream reaches them.
+     * @return the aggregates, in the order of their identifiers. An identifier given several times in a batch gives
+     *         the same aggregate instance each time.
+     */
+    public Stream<A> getAll(Stream<? extends ID> ids, Consumer<? super ID> missingIdHandler) {
+        OrderedBatchIterator<ID, A> iterator = new OrderedBatchIterator<>(ids.iterator(), getAllBatchSize,
+                getAllParallelism, queryExecutor, this::loadBatch, missingIdHandler);
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close)
+                .onClose(ids::close);
     }
 
+    private Map<ID, A> loadBatch(List<ID> ids) {
+        Map<ID, A> aggregates = new HashMap<>();
+        try (MorphiaCursor<A> cursor = datastore.find(getAggregateRootClass())
+                .filter(Filters.in(ID_KEY, ids))
+                .iterator(idQuerySettings.apply(new FindOptions()))) {
+            while (cursor.hasNext()) {
+                A aggregate = cursor.next();
+                aggregates.put(aggregate.getId(), aggregate);
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Gets a partially loaded aggregate.
+     *
+     * @param id               the identifier of the aggregate.
+     * @param projectionOption the attributes to load.
+     * @return the read-only aggregate, empty if it doesn't exist.
+     * @see ProjectionOption
+     */
+    public Optional<A> get(ID id, ProjectionOption projectionOption) {
+        FindOptions findOptions = new FindOptions().limit(1);
+        applyProjection(findOptions, projectionOption);
+        Optional<A> aggregate = Optional.ofNullable(datastore.find(getAggregateRootClass())
+                .filter(Filters.eq(ID_KEY, id))
+                .first(findOptions));
+        aggregate.ifPresent(PARTIAL_AGGREGATES::add);
+        return aggregate;
+    }
+
+    /**
+     * Checks if at least one aggregate satisfies the specification. Only the identifier of the first matching
+     * document is transferred, so the check is covered when an index matches the specification.
+     */
     @Override
     public boolean contains(Specification<A> specification) {
-        return buildQuery(specification).count(new CountOptions().limit(1)) > 0;
+        return contains(specification, new Option[0]);
     }
 
+    /**
+     * Checks if at least one aggregate satisfies the specification, like {@link #contains(Specification)}.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options, such as {@link MaxTimeOption} or {@link HintOption}.
+     * @return true if at least one aggregate satisfies the specification, false otherwise.
+     */
+    public boolean contains(Specification<A> specification, Option... options) {
+        Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+        if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+            return false;
+        }
+        QuerySettings querySettings = defaultQuerySettings.with(options);
+        Collation collation = resolveCollation(optimizedSpecification, querySettings);
+        Document filter = buildQuery(optimizedSpecification, collation).toDocument();
+        if (singleFlight == null) {
+            return containsDocument(filter, querySettings, collation);
+        }
+        return singleFlight.execute("contains " + toJson(filter) + " " + querySettings + " " + collation,
+                () -> containsDocument(filter, querySettings, collation));
+    }
+
+    /**
+     * Checks if the aggregate exists with an identifier-only lookup, served by the {@code _id} index alone. The
+     * {@code hint} class configuration option is not applied to this lookup.
+     */
     @Override
     public boolean contains(ID id) {
-        return this.get(id).isPresent();
+        return containsDocument(new Document(ID_KEY, id), idQuerySettings, null);
+    }
+
+    private boolean containsDocument(Document filter, QuerySettings querySettings, Collation collation) {
+        return querySettings.apply(datastore.getCollection(getAggregateRootClass())
+                        .withDocumentClass(Document.class)
+                        .find(filter))
+                .collation(collation)
+                .projection(Projections.include(ID_KEY))
+                .limit(1)
+                .first() != null;
     }
 
     @Override
     public long count(Specification<A> specification) {
-        return buildQuery(specification).count();
+        return count(specification, new Option[0]);
     }
 
+    /**
+     * Counts the aggregates satisfying the specification. A {@link LimitOption} caps the count, the server stopping
+     * as soon as the limit is reached, which is enough to answer questions such as "more than N aggregates?". An
+     * {@link OffsetOption} skips the first matching aggregates.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options, such as {@link LimitOption}, {@link MaxTimeOption} or
+     *                      {@link HintOption}.
+     * @return the number of aggregates satisfying the specification, up to the limit if any.
+     */
+    public long count(Specification<A> specification, Option... options) {
+        try (OperationContext.Scope ignored = enterOperation("count", specification, options)) {
+            Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+            if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+                return 0;
+            }
+            QuerySettings querySettings = defaultQuerySettings.with(options);
+            Collation collation = resolveCollation(optimizedSpecification, querySettings);
+            CountOptions countOptions = querySettings.apply(buildCountOptions(options)).collation(collation);
+            Query<A> query = buildQuery(optimizedSpecification, collation);
+            if (singleFlight == null) {
+                return countMonitor.time(getAggregateRootClass(), () -> query.count(countOptions));
+            }
+            return singleFlight.execute("count " + toJson(query.toDocument()) + " " + countOptions,
+                    () -> countMonitor.time(getAggregateRootClass(), () -> query.count(countOptions)));
+        }
+    }
+
+    /**
+     * Returns the number of aggregates. When the {@code estimatedSize} class configuration option is enabled for the
+     * aggregate root, the size is read from the collection metadata instead of counted, which does not depend on the
+     * size of the collection but may be slightly off.
+     *
+     * @see #estimateSize(Duration)
+     */
     @Override
     public long size() {
-        return datastore.find(getAggregateRootClass()).count();
+        if (defaultQuerySettings.isEstimatedSize()) {
+            return countMonitor.time(getAggregateRootClass(), this::estimateDocumentCount);
+        } else {
+            return countMonitor.time(getAggregateRootClass(), () -> datastore.find(getAggregateRootClass())
+                    .count(defaultQuerySettings.apply(new CountOptions())));
+        }
+    }
+
+    /**
+     * Returns an estimate of the number of aggregates read from the collection metadata. Estimates are shared by the
+     * repositories of the aggregate root class and reused as long as they are not older than the given staleness, so
+     * frequent callers such as dashboards only reach the database once per staleness period.
+     *
+     * @param maxStaleness the maximum age of the returned estimate, zero to always take a new estimate.
+     * @return the estimate and the instant it was taken at.
+     */
+    public CountEstimate estimateSize(Duration maxStaleness) {
+        checkArgument(!maxStaleness.isNegative(), "Maximum staleness must not be negative");
+        return countMonitor.estimate(getAggregateRootClass(), maxStaleness, this::estimateDocumentCount);
+    }
+
+    private long estimateDocumentCount() {
+        return datastore.getCollection(getAggregateRootClass())
+                .estimatedDocumentCount(defaultQuerySettings.apply(new EstimatedDocumentCountOptions()));
     }
 
     @Override
     public long remove(Specification<A> specification) throws AggregateNotFoundException {
-        return buildQuery(specification).delete(new DeleteOptions().multi(true)).getDeletedCount();
+        return remove(specification, new Option[0]);
+    }
+
+    /**
+     * Removes the aggregates satisfying the specification. The maximum time, batch size and disk use options do not
+     * apply to removals.
+     *
+     * @param specification the specification aggregates must satisfy.
+     * @param options       the query options, such as {@link HintOption} or {@link CommentOption}.
+     * @return the number of removed aggregates.
+     */
+    public long remove(Specification<A> specification, Option... options) {
+        try (OperationContext.Scope ignored = enterOperation("remove", specification, options)) {
+            Specification<A> optimizedSpecification = SpecificationOptimizer.optimize(specification);
+            if (SpecificationOptimizer.isNeverSatisfied(optimizedSpecification)) {
+                return 0;
+            }
+            QuerySettings querySettings = defaultQuerySettings.with(options);
+            Collation collation = resolveCollation(optimizedSpecification, querySettings);
+            try {
+                return buildQuery(optimizedSpecification, collation)
+                        .delete(querySettings.apply(new DeleteOptions().multi(true)).collation(collation))
+                        .getDeletedCount();
+            } finally {
+                evictAll();
+            }
+        }
     }
 
     @Override
     public void remove(ID id) throws AggregateNotFoundException {
         long deletedCount = datastore.find(getAggregateRootClass()).filter(Filters.eq(ID_KEY, id)).delete()
                 .getDeletedCount();
+        evict(id);
         checkExactlyOneAggregateRemoved(deletedCount, id);
     }
 
@@ -145,19 +842,136 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
         }
     }
 
+    /**
+     * Updates the stored aggregate in a single round trip. If the aggregate root has a
+     * {@link dev.morphia.annotations.Version} field, the update only applies if the stored version is the one held by
+     * the aggregate, which is then incremented.
+     *
+     * <p>When the {@code dirtyTracking} class configuration option is enabled for the aggregate root and the aggregate
+     * has been loaded by this repository, only the fields changed since loading (or since the last update) are
+     * written, and nothing is written at all if the aggregate is unchanged. Otherwise the whole document is
+     * replaced.</p>
+     *
+     * @param aggregate the aggregate to update.
+     * @return the updated aggregate.
+     * @throws AggregateNotFoundException         if the aggregate doesn't exist.
+     * @throws AggregateVersionConflictException if the aggregate has been concurrently modified.
+     */
     @Override
     public A update(A aggregate) throws AggregateNotFoundException {
-        if (!contains(aggregate)) {
+        checkNotPartial(aggregate);
+        try {
+            Document snapshot = dirtyTrackingEntityListener.getSnapshot(aggregate);
+            if (snapshot != null) {
+                return updateChanges(aggregate, snapshot);
+            } else {
+                return replace(aggregate);
+            }
+        } finally {
+            evict(aggregate.getId());
+        }
+    }
+
+    private A replace(A aggregate) {
+        PropertyModel versionProperty = getVersionProperty();
+        Document filter = new Document(ID_KEY, aggregate.getId());
+        Long version = bumpVersion(versionProperty, aggregate, filter);
+        UpdateResult updateResult;
+        try {
+            updateResult = datastore.getCollection(getAggregateRootClass()).replaceOne(filter, aggregate);
+        } catch (RuntimeException e) {
+            rollbackVersion(versionProperty, aggregate, version);
+            throw e;
+        }
+        checkAggregateUpdated(updateResult, versionProperty, aggregate, version);
+        return aggregate;
+    }
+
+    private A updateChanges(A aggregate, Document snapshot) {
+        Document document = DocumentWriter.encode(aggregate, datastore.getMapper(), datastore.getCodecRegistry());
+        Document update = DocumentDiff.compute(snapshot, document);
+        if (update.isEmpty()) {
+            return aggregate;
+        }
+
+        PropertyModel versionProperty = getVersionProperty();
+        Document filter = new Document(ID_KEY, aggregate.getId());
+        Long version = bumpVersion(versionProperty, aggregate, filter);
+        if (versionProperty != null) {
+            Object newVersion = versionProperty.getValue(aggregate);
+            document.put(versionProperty.getMappedName(), newVersion);
+            Document set = update.get("$set", Document.class);
+            if (set == null) {
+                set = new Document();
+                update.put("$set", set);
+            }
+            set.put(versionProperty.getMappedName(), newVersion);
+        }
+
+        UpdateResult updateResult;
+        try {
+            updateResult = datastore.getCollection(getAggregateRootClass()).updateOne(filter, update);
+        } catch (RuntimeException e) {
+            rollbackVersion(versionProperty, aggregate, version);
+            throw e;
+        }
+        checkAggregateUpdated(updateResult, versionProperty, aggregate, version);
+        dirtyTrackingEntityListener.updateSnapshot(aggregate, document);
+        return aggregate;
+    }
+
+    private void checkNotPartial(A aggregate) {
+        checkState(!PARTIAL_AGGREGATES.contains(aggregate), "Partially loaded aggregate "
+                + getAggregateRootClass().getSimpleName() + " identified with " + aggregate.getId()
+                + " cannot be written");
+    }
+
+    private PropertyModel getVersionProperty() {
+        return datastore.getMapper().getEntityModel(getAggregateRootClass()).getVersionProperty();
+    }
+
+    private Long bumpVersion(PropertyModel versionProperty, A aggregate, Document filter) {
+        Long version = null;
+        if (versionProperty != null) {
+            version = (Long) versionProperty.getValue(aggregate);
+            filter.put(versionProperty.getMappedName(), version);
+            versionProperty.setValue(aggregate, version == null ? 1L : version + 1);
+        }
+        return version;
+    }
+
+    private void rollbackVersion(PropertyModel versionProperty, A aggregate, Long version) {
+        if (versionProperty != null) {
+            versionProperty.setValue(aggregate, version);
+        }
+    }
+
+    private void checkAggregateUpdated(UpdateResult updateResult, PropertyModel versionProperty, A aggregate,
+            Long version) {
+        if (updateResult.getMatchedCount() == 0) {
+            rollbackVersion(versionProperty, aggregate, version);
+            if (versionProperty != null && contains(aggregate.getId())) {
+                throw new AggregateVersionConflictException(getAggregateRootClass(), aggregate.getId(), version);
+            }
             throw new AggregateNotFoundException("Non-existent aggregate " + getAggregateRootClass()
                     .getSimpleName() + " identified with " + aggregate.getId() + " cannot be updated");
         }
-        datastore.merge(aggregate);
-        return aggregate;
     }
 
     @Override
     public A addOrUpdate(A aggregate) {
+        checkNotPartial(aggregate);
+        if (dirtyTrackingEntityListener.getSnapshot(aggregate) != null) {
+            try {
+                return update(aggregate);
+            } catch (AggregateNotFoundException e) {
+                // removed since it was loaded, the whole aggregate is written below
+            }
+        }
         datastore.save(aggregate);
+        // the snapshot would no longer match the stored document, duplicating array elements on the next update
+        dirtyTrackingEntityListener.discardSnapshot(aggregate);
+        evict(aggregate.getId());
         return aggregate;
     }
 
@@ -166,16 +980,294 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
         MongoCollection<A> collection = datastore.getCollection(getAggregateRootClass());
         collection.dropIndexes();
         collection.drop();
+        evictAll();
+    }
+
+    /**
+     * Evicts an aggregate from the second-level cache after it has been written. Evicting before the write would let
+     * a concurrent read cache the previous state.
+     */
+    private void evict(Object id) {
+        if (aggregateCache != null && id != null) {
+            aggregateCache.invalidate(toBsonId(id));
+        }
+    }
+
+    private void evictAll() {
+        if (aggregateCache != null) {
+            aggregateCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Enters a repository operation on the current thread, so that the slow commands it issues are reported with the
+     * repository, the specification and the options. The description is only built when such a command is reported.
+     */
+    private OperationContext.Scope enterOperation(String operation, Specification<A> specification,
+            Option... options) {
+        return OperationContext.enter(() -> String.format("%s<%s>.%s(%s)%s", getClass().getSimpleName(),
+                getAggregateRootClass().getSimpleName(), operation, specification,
+                options.length == 0 ? "" : " " + Arrays.toString(options)));
+    }
+
+    private String toJson(Document document) {
+        return document.toBsonDocument(BsonDocument.class, datastore.getCodecRegistry()).toJson();
+    }
+
+    private BsonValue toBsonId(Object id) {
+        return new Document(ID_KEY, id).toBsonDocument(BsonDocument.class, datastore.getCodecRegistry()).get(ID_KEY);
+    }
+
+    /**
+     * Writes aggregates in batches. Each aggregate is encoded once, invoking the entity listeners and validation, and
+     * the encoded document is both written and kept as the dirty tracking snapshot once the write succeeds.
+     */
+    private BulkWriteReport bulkWrite(Stream<? extends A> aggregates, boolean ordered, boolean upsert) {
+        MongoCollection<Document> collection = datastore.getCollection(getAggregateRootClass())
+                .withDocumentClass(Document.class);
+        BulkWriteOptions bulkWriteOptions = new BulkWriteOptions().ordered(ordered);
+        PropertyModel versionProperty = getVersionProperty();
+        boolean tracked = dirtyTrackingEntityListener.isTracked(getAggregateRootClass());
+        BulkWriteReport report = new BulkWriteReport();
+        List<A> batch = new ArrayList<>();
+        Iterator<? extends A> iterator = aggregates.iterator();
+        while (iterator.hasNext()) {
+            A next = iterator.next();
+            // an upsert would erase the fields left out by the projection
+            checkNotPartial(next);
+            batch.add(next);
+            if (batch.size() == bulkWriteBatchSize || !iterator.hasNext()) {
+                List<WriteModel<Document>> writeModels = new ArrayList<>(batch.size());
+                List<Document> documents = new ArrayList<>(batch.size());
+                List<Long> versions = new ArrayList<>(batch.size());
+                for (A aggregate : batch) {
+                    versions.add(versionProperty == null ? null : (Long) versionProperty.getValue(aggregate));
+                    writeModels.add(buildWriteModel(aggregate, upsert, versionProperty, documents));
+                }
+                int offset = report.getProcessedCount();
+                int processedCount = batch.size();
+                Set<Integer> failedIndexes = new HashSet<>();
+                try {
+                    report.addSucceeded(countWritten(collection.bulkWrite(writeModels, bulkWriteOptions)));
+                } catch (MongoBulkWriteException e) {
+                    report.addSucceeded(countWritten(e.getWriteResult()));
+                    for (BulkWriteError writeError : e.getWriteErrors()) {
+                        int index = writeError.getIndex();
+                        failedIndexes.add(index);
+                        report.addFailure(offset + index, translateWriteError(batch.get(index),
+                                writeModels.get(index), versions.get(index), writeError, e));
+                    }
+                    if (ordered) {
+                        processedCount = e.getWriteErrors().get(0).getIndex() + 1;
+                        report.interrupt();
+                    }
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        rollbackVersion(versionProperty, batch.get(i), versions.get(i));
+                        evict(batch.get(i).getId());
+                    }
+                    throw e;
+                }
+                report.addProcessed(processedCount);
+                for (int i = 0; i < batch.size(); i++) {
+                    A aggregate = batch.get(i);
+                    if (i >= processedCount || failedIndexes.contains(i)) {
+                        rollbackVersion(versionProperty, aggregate, versions.get(i));
+                    } else if (tracked) {
+                        dirtyTrackingEntityListener.updateSnapshot(aggregate, documents.get(i));
+                    }
+                    evict(aggregate.getId());
+                }
+                if (!report.isComplete()) {
+                    return report;
+                }
+                batch.clear();
+            }
+        }
+        return report;
+    }
+
+    private WriteModel<Document> buildWriteModel(A aggregate, boolean upsert, PropertyModel versionProperty,
+            List<Document> documents) {
+        Document filter = null;
+        if (upsert && aggregate.getId() != null) {
+            // a stale version does not match, so the upsert fails with a duplicate identifier
+            filter = new Document(ID_KEY, aggregate.getId());
+            bumpVersion(versionProperty, aggregate, filter);
+        } else {
+            generateIdIfAbsent(aggregate);
+        }
+        Document document = DocumentWriter.encode(aggregate, datastore.getMapper(), datastore.getCodecRegistry());
+        documents.add(document);
+        if (filter == null) {
+            return new InsertOneModel<>(document);
+        }
+        return new ReplaceOneModel<>(filter, document, new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Assigns a generated identifier to an aggregate without one, as the driver would when inserting the aggregate
+     * itself rather than its encoded document.
+     */
+    @SuppressWarnings("unchecked")
+    private void generateIdIfAbsent(A aggregate) {
+        Codec<A> codec = datastore.getCodecRegistry().get(getAggregateRootClass());
+        if (codec instanceof CollectibleCodec) {
+            ((CollectibleCodec<A>) codec).generateIdIfAbsentFromDocument(aggregate);
+        }
+    }
+
+    private long countWritten(BulkWriteResult bulkWriteResult) {
+        return bulkWriteResult.getInsertedCount() + bulkWriteResult.getMatchedCount()
+                + bulkWriteResult.getUpserts().size();
+    }
+
+    private RuntimeException translateWriteError(A aggregate, WriteModel<Document> writeModel, Long version,
+            BulkWriteError writeError, MongoBulkWriteException e) {
+        if (writeError.getCategory() == ErrorCategory.DUPLICATE_KEY) {
+            if (writeModel instanceof ReplaceOneModel && getVersionProperty() != null
+                    && isIdentifierConflict(aggregate, (ReplaceOneModel<Document>) writeModel, writeError)) {
+                return new AggregateVersionConflictException(getAggregateRootClass(), aggregate.getId(), version);
+            }
+            return new AggregateExistsException("Aggregate " + getAggregateRootClass().getSimpleName()
+                    + " identified with " + aggregate.getId() + " already exists");
+        } else {
+            return new MongoWriteException(writeError, e.getServerAddress(), e.getErrorLabels());
+        }
     }
 
-    private Query<A> buildQuery(Specification<A> specification) {
+    /**
+     * Tells whether the duplicate key error of a versioned upsert is raised by the identifier index, meaning that the
+     * aggregate exists with another version, rather than by a unique index of the mapping. The key pattern is reported
+     * by the server in the error details; when it is missing, the stored aggregate is looked up instead.
+     */
+    private boolean isIdentifierConflict(A aggregate, ReplaceOneModel<Document> writeModel, BulkWriteError writeError) {
+        BsonValue keyPattern = writeError.getDetails().get(KEY_PATTERN);
+        if (keyPattern != null && keyPattern.isDocument()) {
+            BsonDocument keys = keyPattern.asDocument();
+            return keys.size() == 1 && keys.containsKey(ID_KEY);
+        }
+        return contains(aggregate.getId())
+                && !containsDocument((Document) writeModel.getFilter(), idQuerySettings, null);
+    }
+
+    /**
+     * Resolves the collation of a query: the requested one if any, otherwise the case-insensitive collation serving
+     * the ignore-case equalities of the optimized specification. As a collation also changes the order of strings, the
+     * latter is not used when the results are sorted.
+     */
+    private Collation resolveCollation(Specification<A> specification, QuerySettings querySettings,
+            Option... options) {
+        if (querySettings.getCollation() != null) {
+            return querySettings.getCollation();
+        }
+        for (Option option : options) {
+            if (option instanceof SortOption || option instanceof KeysetOption) {
+                return null;
+            }
+        }
+        return caseInsensitiveIndexes.resolve(specification);
+    }
+
+    /**
+     * Builds the query of an optimized specification, which is left unfiltered if the specification is always
+     * satisfied. String equalities are translated according to the collation the query will run with, if any.
+     */
+    private Query<A> buildQuery(Specification<A> specification, Collation collation) {
+        if (SpecificationOptimizer.isAlwaysSatisfied(specification)) {
+            return datastore.find(getAggregateRootClass());
+        }
+        if (filterTranslation == MorphiaConfig.FilterTranslation.BSON) {
+            Bson filter = bsonSpecificationTranslator.translate(specification,
+                    new BsonTranslationContext(mappedPaths, datastore.getCodecRegistry(), collation));
+            return datastore.find(getAggregateRootClass(), filter instanceof Document ? (Document) filter
+                    : new Document(filter.toBsonDocument(Document.class, datastore.getCodecRegistry())));
+        }
         Query<A> query = datastore.find(getAggregateRootClass());
-        Filter filter = specificationTranslator.translate(
+        Filter filter = translationCache.translate(
                 specification,
-                new MorphiaTranslationContext<>(query));
+                new MorphiaTranslationContext<>(query, collation),
+                specificationTranslator,
+                datastore);
         return query.filter(filter);
     }
 
+    private Query<A> buildQuery(Specification<A> specification, Collation collation, Option... options) {
+        Query<A> query = buildQuery(specification, collation);
+        for (Option option : options) {
+            if (option instanceof KeysetOption && !((KeysetOption) option).isFirstPage()) {
+                query.filter(buildKeysetFilter((KeysetOption) option));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Builds the filter selecting the aggregates sorted after the last seen values, i.e. for a (k1, k2, id) key
+     * {@code k1 >= v1 and (k1 > v1 or (k1 = v1 and k2 > v2) or (k1 = v1 and k2 = v2 and id > vid))}. The redundant
+     * leading bound gives the query planner a tight range on the first key of the index.
+     */
+    private Filter buildKeysetFilter(KeysetOption keysetOption) {
+        List<String> fields = getKeysetFields(keysetOption);
+        List<Boolean> ascending = getKeysetDirections(keysetOption);
+        List<Object> values = keysetOption.getLastValues();
+        Filter[] alternatives = new Filter[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Filter[] conditions = new Filter[i + 1];
+            for (int j = 0; j < i; j++) {
+                conditions[j] = Filters.eq(fields.get(j), values.get(j));
+            }
+            conditions[i] = ascending.get(i) ? Filters.gt(fields.get(i), values.get(i))
+                    : Filters.lt(fields.get(i), values.get(i));
+            alternatives[i] = i == 0 ? conditions[0] : Filters.and(conditions);
+        }
+        Filter leadingBound = ascending.get(0) ? Filters.gte(fields.get(0), values.get(0))
+                : Filters.lte(fields.get(0), values.get(0));
+        return Filters.and(leadingBound, Filters.or(alternatives));
+    }
+
+    private List<String> getKeysetFields(KeysetOption keysetOption) {
+        List<String> fields = new ArrayList<>();
+        for (SortOption.SortedAttribute sortedAttribute : keysetOption.getSortOption().getSortedAttributes()) {
+            fields.add(sortedAttribute.getAttribute());
+        }
+        fields.add(ID_KEY);
+        return fields;
+    }
+
+    private List<Boolean> getKeysetDirections(KeysetOption keysetOption) {
+        List<Boolean> directions = new ArrayList<>();
+        for (SortOption.SortedAttribute sortedAttribute : keysetOption.getSortOption().getSortedAttributes()) {
+            directions.add(sortedAttribute.getDirection() != SortOption.Direction.DESCENDING);
+        }
+        directions.add(directions.isEmpty() || directions.get(directions.size() - 1));
+        return directions;
+    }
+
+    private List<Object> getKeysetValues(A aggregate, KeysetOption keysetOption) {
+        List<Object> values = new ArrayList<>();
+        for (SortOption.SortedAttribute sortedAttribute : keysetOption.getSortOption().getSortedAttributes()) {
+            values.add(getAttributeValue(aggregate, sortedAttribute.getAttribute()));
+        }
+        values.add(aggregate.getId());
+        return values;
+    }
+
+    private Object getAttributeValue(Object object, String attribute) {
+        Object value = object;
+        for (String propertyName : attribute.split("\\.")) {
+            if (value == null) {
+                break;
+            }
+            EntityModel entityModel = datastore.getMapper().getEntityModel(value.getClass());
+            PropertyModel propertyModel = entityModel.getProperty(propertyName);
+            checkArgument(propertyModel != null,
+                    "Unknown attribute " + attribute + " on " + getAggregateRootClass().getSimpleName());
+            value = propertyModel.getValue(value);
+        }
+        return value;
+    }
+
     private FindOptions buildFindOptions(Option... options) {
         FindOptions findOptions = new FindOptions();
         for (Option option : options) {
@@ -185,11 +1277,33 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
                 applyLimit(findOptions, ((LimitOption) option));
             } else if (option instanceof SortOption) {
                 applySort(findOptions, ((SortOption) option));
+            } else if (option instanceof KeysetOption) {
+                applyKeysetSort(findOptions, ((KeysetOption) option));
+            } else if (option instanceof ProjectionOption) {
+                applyProjection(findOptions, ((ProjectionOption) option));
             }
         }
         return findOptions;
     }
 
+    private CountOptions buildCountOptions(Option... options) {
+        CountOptions countOptions = new CountOptions();
+        for (Option option : options) {
+            if (option instanceof OffsetOption) {
+                long offset = ((OffsetOption) option).getOffset();
+                checkArgument(offset <= Integer.MAX_VALUE,
+                        "Morphia only supports offsetting counts up to " + Integer.MAX_VALUE);
+                countOptions.skip((int) offset);
+            } else if (option instanceof LimitOption) {
+                long limit = ((LimitOption) option).getLimit();
+                checkArgument(limit <= Integer.MAX_VALUE,
+                        "Morphia only supports limiting counts up to " + Integer.MAX_VALUE);
+                countOptions.limit((int) limit);
+            }
+        }
+        return countOptions;
+    }
+
     private void applyOffset(FindOptions findOptions, OffsetOption offsetOption) {
         long offset = offsetOption.getOffset();
         checkArgument(offset <= Integer.MAX_VALUE,
@@ -222,4 +1336,23 @@ public abstract class BaseMorphiaRepository<A extends AggregateRoot<ID>, ID> ext
 
         findOptions.sort(sorts.toArray(new Sort[0]));
     }
+
+    private void applyProjection(FindOptions findOptions, ProjectionOption projectionOption) {
+        String[] attributes = projectionOption.getAttributes().toArray(new String[0]);
+        if (projectionOption.isIncluding()) {
+            findOptions.projection().include(attributes);
+        } else {
+            findOptions.projection().exclude(attributes);
+        }
+    }
+
+    private void applyKeysetSort(FindOptions findOptions, KeysetOption keysetOption) {
+        List<String> fields = getKeysetFields(keysetOption);
+        List<Boolean> ascending = getKeysetDirections(keysetOption);
+        Sort[] sorts = new Sort[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            sorts[i] = ascending.get(i) ? Sort.ascending(fields.get(i)) : Sort.descending(fields.get(i));
+        }
+        findOptions.sort(sorts);
+    }
 }
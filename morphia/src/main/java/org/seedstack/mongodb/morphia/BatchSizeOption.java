@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option setting the number of documents returned by each round trip of the cursor of a query. Overrides
+ * the {@code batchSize} class configuration option of the aggregate root.
+ */
+public class BatchSizeOption implements Repository.Option {
+    private final int batchSize;
+
+    public BatchSizeOption(int batchSize) {
+        checkArgument(batchSize > 0, "Batch size must be strictly positive");
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "batchSize=" + batchSize;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a bulk write issued through {@link BaseMorphiaRepository}. Failures are reported per aggregate, keyed by
+ * the position of the aggregate in the submitted collection or stream. An aggregate that already exists is reported
+ * as an {@link org.seedstack.business.domain.AggregateExistsException}.
+ */
+public class BulkWriteReport {
+    private final Map<Integer, RuntimeException> failures = new TreeMap<>();
+    private long succeededCount;
+    private int processedCount;
+    private boolean complete = true;
+
+    /**
+     * Returns the number of aggregates that have been written.
+     *
+     * @return the number of written aggregates.
+     */
+    public long getSucceededCount() {
+        return succeededCount;
+    }
+
+    /**
+     * Returns the number of aggregates that have been processed by the database, whether they succeeded or not.
+     *
+     * @return the number of processed aggregates.
+     */
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    /**
+     * Returns the failures, keyed by the position of the failed aggregate.
+     *
+     * @return an immutable map of failures ordered by position.
+     */
+    public Map<Integer, RuntimeException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Indicates if all the aggregates have been processed. An ordered bulk write stops at its first failure, leaving
+     * the following aggregates unwritten.
+     *
+     * @return true if all the aggregates have been processed, false otherwise.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Indicates if the aggregate at the specified position has been written.
+     *
+     * @param index the position of the aggregate in the submitted collection or stream.
+     * @return true if the aggregate has been written, false if it failed or has not been processed.
+     */
+    public boolean isWritten(int index) {
+        return index < processedCount && !failures.containsKey(index);
+    }
+
+    void addSucceeded(long count) {
+        succeededCount += count;
+    }
+
+    void addProcessed(int count) {
+        processedCount += count;
+    }
+
+    void addFailure(int index, RuntimeException exception) {
+        failures.put(index, exception);
+    }
+
+    void interrupt() {
+        complete = false;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkWriteReport{succeeded=" + succeededCount + ", failed=" + failures.size() + ", complete="
+                + complete + "}";
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.seedstack.business.domain.Repository;
+
+import com.mongodb.client.model.Collation;
+
+/**
+ * Repository option setting the collation used to compare strings in a query and to sort its results. It replaces
+ * the case-insensitive collation that {@link BaseMorphiaRepository} otherwise selects for ignore-case equalities.
+ * String specifications ignoring case are only translated as equalities under a collation of primary or secondary
+ * strength.
+ */
+public class CollationOption implements Repository.Option {
+    private final Collation collation;
+
+    public CollationOption(Collation collation) {
+        checkArgument(collation != null, "Collation must not be null");
+        this.collation = collation;
+    }
+
+    public Collation getCollation() {
+        return collation;
+    }
+
+    @Override
+    public String toString() {
+        return "collation=" + collation;
+    }
+}
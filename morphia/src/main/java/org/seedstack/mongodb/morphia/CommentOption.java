@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option attaching a comment to a query, which appears in the server logs and profiler output. Overrides
+ * the {@code comment} class configuration option of the aggregate root.
+ */
+public class CommentOption implements Repository.Option {
+    private final String comment;
+
+    public CommentOption(String comment) {
+        checkArgument(comment != null, "Comment must not be null");
+        this.comment = comment;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    @Override
+    public String toString() {
+        return "comment=" + comment;
+    }
+}
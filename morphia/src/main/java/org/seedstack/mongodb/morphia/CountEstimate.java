@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Approximate number of aggregates of a collection, taken from the collection metadata at a given instant. The
+ * metadata count may itself drift from the exact count, for instance after an unclean shutdown or with orphaned
+ * documents on sharded clusters.
+ *
+ * @see BaseMorphiaRepository#estimateSize(Duration)
+ */
+public class CountEstimate {
+    private final long count;
+    private final Instant timestamp;
+
+    public CountEstimate(long count, Instant timestamp) {
+        this.count = count;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the estimated number of aggregates.
+     *
+     * @return the estimated count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the instant the estimate was taken at.
+     *
+     * @return the timestamp of the estimate.
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the time elapsed since the estimate was taken.
+     *
+     * @return the age of the estimate.
+     */
+    public Duration getStaleness() {
+        return Duration.between(timestamp, Instant.now());
+    }
+
+    @Override
+    public String toString() {
+        return "~" + count + " at " + timestamp;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.time.Duration;
+
+/**
+ * Latency of the count commands issued for an aggregate root class, exact counts and size estimates included.
+ */
+public interface CountStatistics {
+    /**
+     * Returns the number of count commands issued.
+     *
+     * @return the number of commands.
+     */
+    long getCount();
+
+    /**
+     * Returns the cumulated duration of the count commands.
+     *
+     * @return the total duration.
+     */
+    Duration getTotalTime();
+
+    /**
+     * Returns the mean duration of the count commands.
+     *
+     * @return the mean duration, zero if no command was issued.
+     */
+    Duration getMeanTime();
+
+    /**
+     * Returns the duration of the slowest count command.
+     *
+     * @return the maximum duration.
+     */
+    Duration getMaxTime();
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+/**
+ * Format of the documents exported by {@link BaseMorphiaRepository}.
+ */
+public enum ExportFormat {
+    /**
+     * Concatenated BSON documents, as written by {@code mongodump}.
+     */
+    BSON,
+    /**
+     * One relaxed extended JSON document per line, where numbers and dates are written as plain JSON when possible.
+     */
+    RELAXED_JSON,
+    /**
+     * One canonical extended JSON document per line, preserving all BSON types.
+     */
+    EXTENDED_JSON
+}
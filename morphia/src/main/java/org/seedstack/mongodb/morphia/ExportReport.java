@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import org.seedstack.mongodb.Histogram;
+
+/**
+ * Outcome of an export issued through {@link BaseMorphiaRepository}, with the sizes of the exported documents.
+ */
+public class ExportReport {
+    private final Histogram documentSizes = new Histogram();
+    private long documentCount;
+    private long documentBytes;
+    private long writtenBytes;
+
+    /**
+     * Returns the number of exported documents.
+     *
+     * @return the number of documents.
+     */
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * Returns the total size of the exported documents in BSON, as read from the database.
+     *
+     * @return the number of BSON bytes.
+     */
+    public long getDocumentBytes() {
+        return documentBytes;
+    }
+
+    /**
+     * Returns the number of bytes written to the output, which differs from the BSON size when exporting JSON.
+     *
+     * @return the number of written bytes.
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Returns the histogram of the BSON sizes of the exported documents, in bytes.
+     *
+     * @return the document size histogram.
+     */
+    public Histogram getDocumentSizes() {
+        return documentSizes;
+    }
+
+    void addDocument(int bsonBytes, int writtenBytes) {
+        this.documentCount++;
+        this.documentBytes += bsonBytes;
+        this.writtenBytes += writtenBytes;
+        this.documentSizes.record(bsonBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "ExportReport{documents=" + documentCount + ", documentBytes=" + documentBytes + ", writtenBytes="
+                + writtenBytes + "}";
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option forcing the index used by a query, designated by its name. Overrides the {@code hint} class
+ * configuration option of the aggregate root.
+ */
+public class HintOption implements Repository.Option {
+    private final String indexName;
+
+    public HintOption(String indexName) {
+        checkArgument(indexName != null && !indexName.isEmpty(), "Index name must be specified");
+        this.indexName = indexName;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    @Override
+    public String toString() {
+        return "hint=" + indexName;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import org.seedstack.mongodb.Histogram;
+
+/**
+ * Statistics of the coalesced lookups by identifier of an aggregate root class, enabled by the
+ * {@code coalescingWindowMicros} class configuration option.
+ */
+public interface IdBatchStatistics {
+    /**
+     * Returns the histogram of the number of identifiers per loaded batch.
+     *
+     * @return the batch size histogram.
+     */
+    Histogram getBatchSizes();
+
+    /**
+     * Returns the histogram of the time callers waited for their document, in nanoseconds, the query included.
+     *
+     * @return the wait time histogram.
+     */
+    Histogram getWaitTimes();
+}
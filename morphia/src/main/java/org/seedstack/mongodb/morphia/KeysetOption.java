@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.SortOption;
+
+/**
+ * Repository option paginating results by key (seek method) instead of by offset. Results are sorted by the specified
+ * attributes, then by identifier in the direction of the last attribute, and only the aggregates sorted after the last
+ * aggregate of the previous page are returned. Unlike an offset, the cost of reaching a page does not depend on its
+ * depth, provided an index matches the sort.
+ *
+ * <p>The position of the last aggregate of a page is exposed as an opaque continuation token by
+ * {@link KeysetPage#getNextToken()}, to be passed back to {@link #after(SortOption, String)} to get the next page.
+ * Sort attributes must not be null on paginated aggregates: an {@link IllegalArgumentException} is thrown when the
+ * last aggregate of a page has a null sort attribute.</p>
+ */
+public class KeysetOption implements Repository.Option {
+    private static final String VALUES_KEY = "v";
+    private static final JsonWriterSettings TOKEN_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+    private final SortOption sortOption;
+    private final List<Object> lastValues;
+
+    private KeysetOption(SortOption sortOption, List<Object> lastValues) {
+        this.sortOption = sortOption;
+        this.lastValues = lastValues;
+    }
+
+    /**
+     * Creates an option selecting the first page of the results sorted as specified.
+     *
+     * @param sortOption the sort of the results.
+     * @return the keyset option.
+     */
+    public static KeysetOption sortedBy(SortOption sortOption) {
+        return new KeysetOption(sortOption, Collections.emptyList());
+    }
+
+    /**
+     * Creates an option selecting the page following the one the continuation token has been issued for.
+     *
+     * @param sortOption the sort of the results, which must be the one of the previous page.
+     * @param token      the continuation token of the previous page.
+     * @return the keyset option.
+     */
+    public static KeysetOption after(SortOption sortOption, String token) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid keyset continuation token " + token, e);
+        }
+        List<Object> lastValues = document.getList(VALUES_KEY, Object.class);
+        checkArgument(lastValues != null && lastValues.size() == sortOption.getSortedAttributes().size() + 1,
+                "Keyset continuation token " + token + " does not match the sort " + sortOption);
+        checkArgument(!lastValues.contains(null), "Keyset continuation token " + token + " holds null values");
+        return new KeysetOption(sortOption, lastValues);
+    }
+
+    static String createToken(List<Object> lastValues, CodecRegistry codecRegistry) {
+        // null values cannot be compared with range operators, so no following page could be selected
+        checkArgument(!lastValues.contains(null),
+                "Cannot paginate by key after an aggregate with null sort attributes " + lastValues);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                new Document(VALUES_KEY, new ArrayList<>(lastValues))
+                        .toJson(TOKEN_SETTINGS, new DocumentCodec(codecRegistry))
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public SortOption getSortOption() {
+        return sortOption;
+    }
+
+    /**
+     * Returns the values of the sort attributes, followed by the identifier, of the last aggregate of the previous
+     * page.
+     *
+     * @return the last seen values, empty for the first page.
+     */
+    public List<Object> getLastValues() {
+        return Collections.unmodifiableList(lastValues);
+    }
+
+    public boolean isFirstPage() {
+        return lastValues.isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of aggregates obtained with a {@link KeysetOption}.
+ *
+ * @param <A> the aggregate root class.
+ */
+public class KeysetPage<A> {
+    private final List<A> items;
+    private final String nextToken;
+
+    KeysetPage(List<A> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    public List<A> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the continuation token to pass to {@link KeysetOption#after(org.seedstack.business.domain.SortOption,
+     * String)} to get the next page.
+     *
+     * @return the continuation token, null if this page is the last one.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
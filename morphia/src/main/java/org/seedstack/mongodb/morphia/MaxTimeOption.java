@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option bounding the server execution time of a query, after which it fails. Overrides the
+ * {@code maxTimeMS} class configuration option of the aggregate root. Not supported by removals.
+ */
+public class MaxTimeOption implements Repository.Option {
+    private final Duration maxTime;
+
+    public MaxTimeOption(Duration maxTime) {
+        checkArgument(!maxTime.isNegative(), "Maximum time must not be negative");
+        this.maxTime = maxTime;
+    }
+
+    public Duration getMaxTime() {
+        return maxTime;
+    }
+
+    @Override
+    public String toString() {
+        return "maxTime=" + maxTime;
+    }
+}
@@ -7,12 +7,23 @@
  */
 package org.seedstack.mongodb.morphia;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.seedstack.coffig.Config;
 
 @Config("mongoDb.morphia")
 public class MorphiaConfig {
     private boolean ensureCapsAtStartup = true;
     private boolean ensureIndexesAtStartup = true;
+    private ValidationConfig validation = new ValidationConfig();
+    private AsyncConfig async = new AsyncConfig();
+    private int bulkWriteBatchSize = 1000;
+    private int translationCacheSize = 1000;
+    private int getAllBatchSize = 1000;
+    private int getAllParallelism = 1;
+    private FilterTranslation filterTranslation = FilterTranslation.MORPHIA;
 
     public boolean isEnsureCapsAtStartup() {
         return ensureCapsAtStartup;
@@ -31,4 +42,158 @@ public class MorphiaConfig {
         this.ensureIndexesAtStartup = ensureIndexesAtStartup;
         return this;
     }
+
+    public int getBulkWriteBatchSize() {
+        return bulkWriteBatchSize;
+    }
+
+    public MorphiaConfig setBulkWriteBatchSize(int bulkWriteBatchSize) {
+        this.bulkWriteBatchSize = bulkWriteBatchSize;
+        return this;
+    }
+
+    public int getTranslationCacheSize() {
+        return translationCacheSize;
+    }
+
+    public MorphiaConfig setTranslationCacheSize(int translationCacheSize) {
+        this.translationCacheSize = translationCacheSize;
+        return this;
+    }
+
+    public int getGetAllBatchSize() {
+        return getAllBatchSize;
+    }
+
+    public MorphiaConfig setGetAllBatchSize(int getAllBatchSize) {
+        this.getAllBatchSize = getAllBatchSize;
+        return this;
+    }
+
+    public int getGetAllParallelism() {
+        return getAllParallelism;
+    }
+
+    public MorphiaConfig setGetAllParallelism(int getAllParallelism) {
+        this.getAllParallelism = getAllParallelism;
+        return this;
+    }
+
+    public FilterTranslation getFilterTranslation() {
+        return filterTranslation;
+    }
+
+    public MorphiaConfig setFilterTranslation(FilterTranslation filterTranslation) {
+        this.filterTranslation = filterTranslation;
+        return this;
+    }
+
+    public ValidationConfig getValidation() {
+        return validation;
+    }
+
+    public MorphiaConfig setValidation(ValidationConfig validation) {
+        this.validation = validation;
+        return this;
+    }
+
+    public AsyncConfig getAsync() {
+        return async;
+    }
+
+    public MorphiaConfig setAsync(AsyncConfig async) {
+        this.async = async;
+        return this;
+    }
+
+    public enum FilterTranslation {
+        /**
+         * Specifications are translated into Morphia filters, mapped by Morphia on each query.
+         */
+        MORPHIA,
+        /**
+         * Specifications are translated directly into driver-level filter documents, attribute paths being mapped once
+         * per aggregate class and values being encoded through the codec registry of the datastore. The translation
+         * cache is bypassed: every specification is translated by the converters, and the
+         * {@code mongoDb.morphia.translationCacheSize} config option has no effect.
+         */
+        BSON
+    }
+
+    public enum ValidationMode {
+        /**
+         * Every persisted entity is validated.
+         */
+        FULL,
+        /**
+         * A random fraction of the persisted entities, given by the sample rate, is validated.
+         */
+        SAMPLED,
+        /**
+         * Only new entities and loaded entities whose persistent state has changed since loading are validated.
+         */
+        CHANGED
+    }
+
+    public static class ValidationConfig {
+        private ValidationMode mode = ValidationMode.FULL;
+        private double sampleRate = 0.1;
+
+        public ValidationMode getMode() {
+            return mode;
+        }
+
+        public ValidationConfig setMode(ValidationMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public ValidationConfig setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+    }
+
+    public static class AsyncConfig {
+        private int maxConcurrency = 100;
+        private Map<String, Integer> clients = new HashMap<>();
+
+        /**
+         * Returns the maximum number of asynchronous repository operations running at once on a client, operations
+         * beyond it being queued. It must be strictly positive and defaults to 100, whatever the size configured for
+         * the connection pool of the client.
+         *
+         * @return the default maximum concurrency.
+         */
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public AsyncConfig setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Returns the maximum concurrency of the clients that override the default one.
+         *
+         * @return the maximum concurrency by client name.
+         */
+        public Map<String, Integer> getClients() {
+            return Collections.unmodifiableMap(clients);
+        }
+
+        public AsyncConfig addClient(String clientName, int maxConcurrency) {
+            this.clients.put(clientName, maxConcurrency);
+            return this;
+        }
+
+        public int getMaxConcurrency(String clientName) {
+            return clients.getOrDefault(clientName, maxConcurrency);
+        }
+    }
 }
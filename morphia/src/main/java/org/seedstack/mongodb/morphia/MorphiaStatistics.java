@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statistics of the Morphia repositories, keyed by aggregate root class and shared by all the repositories of a class.
+ * They are also reported in the {@code org.seedstack.mongodb.morphia} diagnostic domain.
+ */
+public interface MorphiaStatistics {
+    /**
+     * Returns the latency of the count commands issued for an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the count statistics, with a zero count if no command was issued.
+     */
+    CountStatistics getCounts(Class<?> aggregateRootClass);
+
+    /**
+     * Returns the statistics of the second-level cache of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the cache statistics, empty if the class is not cached or no repository of the class was created.
+     */
+    Optional<AggregateCacheStatistics> getCache(Class<?> aggregateRootClass);
+
+    /**
+     * Returns the statistics of the coalesced lookups by identifier of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the batch statistics, empty if lookups are not coalesced or no repository of the class was created.
+     */
+    Optional<IdBatchStatistics> getIdBatches(Class<?> aggregateRootClass);
+
+    /**
+     * Returns the statistics of the deduplicated queries of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the single-flight statistics, empty if queries are not deduplicated or no repository of the class was
+     *         created.
+     */
+    Optional<SingleFlightStatistics> getSingleFlight(Class<?> aggregateRootClass);
+
+    /**
+     * Returns the statistics of the prefetching cursors of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the prefetching statistics, empty if no prefetching cursor was opened for the class.
+     */
+    Optional<PrefetchingStatistics> getPrefetching(Class<?> aggregateRootClass);
+
+    /**
+     * Returns the statistics of the asynchronous operations of the clients that issued some.
+     *
+     * @return the asynchronous operation statistics, by client name.
+     */
+    Map<String, AsyncStatistics> getAsyncOperations();
+}
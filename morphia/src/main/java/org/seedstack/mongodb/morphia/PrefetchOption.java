@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option reading the results of a query ahead on a background thread while its stream is consumed, so
+ * that the round trips of the cursor overlap with the processing of the aggregates. Documents read ahead are buffered
+ * up to the given size and, unless a {@link BatchSizeOption} is given, the batch size of the cursor is derived from
+ * the size of the documents and the speed of the consumers observed on previous queries. The stream must be closed
+ * to stop reading ahead. Projections and keyset pagination are not supported.
+ */
+public class PrefetchOption implements Repository.Option {
+    private static final long DEFAULT_MAX_BUFFERED_BYTES = 16 * 1024 * 1024;
+    private final long maxBufferedBytes;
+
+    /**
+     * Reads ahead up to 16 MiB of documents.
+     */
+    public PrefetchOption() {
+        this(DEFAULT_MAX_BUFFERED_BYTES);
+    }
+
+    public PrefetchOption(long maxBufferedBytes) {
+        checkArgument(maxBufferedBytes > 0, "Maximum buffered bytes must be strictly positive");
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "prefetch=" + maxBufferedBytes + "B";
+    }
+}
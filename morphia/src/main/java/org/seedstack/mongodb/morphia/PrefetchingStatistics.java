@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import org.seedstack.mongodb.Histogram;
+
+/**
+ * Statistics of the prefetching cursors of an aggregate root class, opened with {@link PrefetchOption}.
+ */
+public interface PrefetchingStatistics {
+    /**
+     * Returns the histogram of the time consumers waited for a document not fetched yet, in nanoseconds.
+     *
+     * @return the stall time histogram.
+     */
+    Histogram getStallTimes();
+
+    /**
+     * Returns the histogram of the number of documents read ahead, sampled each time a consumer takes a document.
+     *
+     * @return the prefetch depth histogram.
+     */
+    Histogram getPrefetchDepths();
+
+    /**
+     * Returns the mean size of the documents read by prefetching cursors.
+     *
+     * @return the mean size in bytes, zero if no document was read.
+     */
+    long getMeanDocumentSize();
+
+    /**
+     * Returns the ratio of the documents the consumers had to wait for in the last completed cursor.
+     *
+     * @return the stall ratio, between 0 (the consumers never waited) and 1 (they always waited).
+     */
+    double getStallRatio();
+}
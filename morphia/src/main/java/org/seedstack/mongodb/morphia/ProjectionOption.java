@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.seedstack.business.domain.Repository;
+
+/**
+ * Repository option restricting the attributes loaded from the database. Aggregates are only partially hydrated, the
+ * other attributes keeping the value given by their default constructor, and are therefore read-only: updating them
+ * would overwrite the attributes that were not loaded and is refused by {@link BaseMorphiaRepository}.
+ */
+public class ProjectionOption implements Repository.Option {
+    private final List<String> attributes;
+    private final boolean including;
+
+    private ProjectionOption(List<String> attributes, boolean including) {
+        checkArgument(!attributes.isEmpty(), "At least one attribute must be specified for projection");
+        this.attributes = Collections.unmodifiableList(attributes);
+        this.including = including;
+    }
+
+    /**
+     * Creates an option loading only the specified attributes, besides the identifier.
+     *
+     * @param attributes the attribute paths to load.
+     * @return the projection option.
+     */
+    public static ProjectionOption include(String... attributes) {
+        return new ProjectionOption(Arrays.asList(attributes), true);
+    }
+
+    /**
+     * Creates an option loading all attributes except the specified ones.
+     *
+     * @param attributes the attribute paths to leave out.
+     * @return the projection option.
+     */
+    public static ProjectionOption exclude(String... attributes) {
+        return new ProjectionOption(Arrays.asList(attributes), false);
+    }
+
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    public boolean isIncluding() {
+        return including;
+    }
+
+    @Override
+    public String toString() {
+        return (including ? "include" : "exclude") + attributes;
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+/**
+ * Statistics of the deduplicated counts and existence checks of an aggregate root class, enabled by the
+ * {@code singleFlight} class configuration option.
+ */
+public interface SingleFlightStatistics {
+    /**
+     * Returns the number of queries that reached the server.
+     *
+     * @return the executed count.
+     */
+    long getExecutedCount();
+
+    /**
+     * Returns the number of queries served by an identical query in flight.
+     *
+     * @return the shared count.
+     */
+    long getSharedCount();
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.seedstack.mongodb.morphia.AggregateCacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+/**
+ * Second-level cache of the documents of an aggregate root class, keyed by their BSON identifier. Documents are kept
+ * in their raw encoded form, which is immutable and compact, and decoded into a new aggregate on each hit so that
+ * callers never share instances. The cache is bounded in size and optionally in time, and can listen to the change
+ * stream of the collection to evict the documents written by other nodes.
+ */
+public class AggregateCache implements AggregateCacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregateCache.class);
+    private static final String ID_KEY = "_id";
+    private static final long MAX_RETRY_DELAY = 60_000;
+    private final Class<?> aggregateRootClass;
+    private final Cache<BsonValue, RawBsonDocument> documents;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Thread changeStreamListener;
+
+    AggregateCache(Class<?> aggregateRootClass, long maximumSize, Duration timeToLive) {
+        this.aggregateRootClass = aggregateRootClass;
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats();
+        if (timeToLive != null) {
+            cacheBuilder.expireAfterWrite(timeToLive.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        this.documents = cacheBuilder.build();
+    }
+
+    /**
+     * Returns the cached document of an identifier, loading it if absent. Absent documents are not cached.
+     *
+     * @param id     the BSON identifier.
+     * @param loader the loader of the document, returning null if it doesn't exist.
+     * @return the document, null if it doesn't exist.
+     */
+    public RawBsonDocument get(BsonValue id, Callable<RawBsonDocument> loader) {
+        long loadGeneration = generation.get();
+        RawBsonDocument document;
+        try {
+            document = documents.get(id, loader);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        if (generation.get() != loadGeneration) {
+            // a write happened during the load, which may have returned the previous state
+            documents.invalidate(id);
+        }
+        return document;
+    }
+
+    /**
+     * Evicts the document of an identifier.
+     *
+     * @param id the BSON identifier.
+     */
+    public void invalidate(BsonValue id) {
+        generation.incrementAndGet();
+        documents.invalidate(id);
+    }
+
+    /**
+     * Evicts all the documents.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        documents.invalidateAll();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return documents.stats().hitRate();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return documents.stats().loadCount();
+    }
+
+    @Override
+    public Duration getAverageLoadTime() {
+        return Duration.ofNanos((long) documents.stats().averageLoadPenalty());
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return documents.stats().evictionCount();
+    }
+
+    @Override
+    public long getSize() {
+        return documents.size();
+    }
+
+    synchronized void listen(MongoCollection<?> collection) {
+        if (changeStreamListener == null) {
+            Thread thread = new Thread(() -> watch(collection),
+                    "morphia-cache-" + aggregateRootClass.getSimpleName());
+            thread.setDaemon(true);
+            changeStreamListener = thread;
+            thread.start();
+        }
+    }
+
+    synchronized void close() {
+        Thread thread = changeStreamListener;
+        changeStreamListener = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void watch(MongoCollection<?> collection) {
+        long retryDelay = 1000;
+        Thread thread = Thread.currentThread();
+        while (changeStreamListener == thread) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = collection
+                    .withDocumentClass(Document.class)
+                    .watch()
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .cursor()) {
+                // changes missed while not listening cannot be known
+                invalidateAll();
+                retryDelay = 1000;
+                while (changeStreamListener == thread) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        BsonDocument documentKey = change.getDocumentKey();
+                        if (documentKey == null || !documentKey.containsKey(ID_KEY)) {
+                            invalidateAll();
+                        } else {
+                            invalidate(documentKey.get(ID_KEY));
+                        }
+                    }
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (changeStreamListener != thread) {
+                    break;
+                }
+                LOGGER.warn("Cannot listen to changes of {}, retrying in {} ms: {}", aggregateRootClass.getName(),
+                        retryDelay, e.getMessage());
+                invalidateAll();
+                try {
+                    Thread.sleep(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+
+import com.mongodb.client.MongoCollection;
+
+/**
+ * Second-level caches of the aggregate root classes, shared by all their repositories. A class is cached when its
+ * {@code cacheSize} class configuration option is set, optionally with a {@code cacheTtlMS} time to live after which
+ * cached documents are reloaded. The {@code cacheChangeStream} option additionally evicts the documents changed by
+ * other nodes, which requires a replica set or a sharded cluster.
+ */
+@Singleton
+public class AggregateCaches {
+    static final String CACHE_SIZE_OPTION = "cacheSize";
+    static final String CACHE_TTL_OPTION = "cacheTtlMS";
+    static final String CACHE_CHANGE_STREAM_OPTION = "cacheChangeStream";
+    private final Application application;
+    private final Map<Class<?>, Optional<AggregateCache>> caches = new ConcurrentHashMap<>();
+
+    @Inject
+    AggregateCaches(Application application) {
+        this.application = application;
+    }
+
+    /**
+     * Returns the cache of an aggregate root class, creating it on first call.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param collection         the collection of the aggregate root class, to listen to if configured.
+     * @return the cache, null if the class is not cached.
+     */
+    public AggregateCache get(Class<?> aggregateRootClass, MongoCollection<?> collection) {
+        return caches.computeIfAbsent(aggregateRootClass, k -> create(aggregateRootClass, collection)).orElse(null);
+    }
+
+    /**
+     * Returns the cache of an aggregate root class if it has been created.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the cache, if any.
+     */
+    public Optional<AggregateCache> get(Class<?> aggregateRootClass) {
+        return caches.getOrDefault(aggregateRootClass, Optional.empty());
+    }
+
+    Set<Class<?>> getAggregateRootClasses() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    void close() {
+        caches.values().forEach(cache -> cache.ifPresent(AggregateCache::close));
+        caches.clear();
+    }
+
+    private Optional<AggregateCache> create(Class<?> aggregateRootClass, MongoCollection<?> collection) {
+        ClassConfiguration<?> configuration = application.getConfiguration(aggregateRootClass);
+        String cacheSize = configuration.get(CACHE_SIZE_OPTION);
+        if (cacheSize == null) {
+            return Optional.empty();
+        }
+        String cacheTtl = configuration.get(CACHE_TTL_OPTION);
+        AggregateCache cache = new AggregateCache(aggregateRootClass,
+                QuerySettings.parsePositive(aggregateRootClass, CACHE_SIZE_OPTION, cacheSize),
+                cacheTtl == null ? null : Duration.ofMillis(
+                        QuerySettings.parsePositive(aggregateRootClass, CACHE_TTL_OPTION, cacheTtl)));
+        if (Boolean.parseBoolean(configuration.get(CACHE_CHANGE_STREAM_OPTION))) {
+            cache.listen(collection);
+        }
+        return Optional.of(cache);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import org.seedstack.mongodb.morphia.internal.specification.CaseInsensitiveIndexes;
+import org.seedstack.mongodb.morphia.internal.specification.MappedPaths;
+
+/**
+ * Query support of an aggregate root class, derived from its mapping and class configuration once and shared by all
+ * its repositories.
+ */
+public final class AggregateContext {
+    private final MappedPaths mappedPaths;
+    private final CaseInsensitiveIndexes caseInsensitiveIndexes;
+    private final QuerySettings defaultQuerySettings;
+    private final QuerySettings idQuerySettings;
+    private final AsyncExecutor asyncExecutor;
+
+    AggregateContext(MappedPaths mappedPaths, CaseInsensitiveIndexes caseInsensitiveIndexes,
+            QuerySettings defaultQuerySettings, AsyncExecutor asyncExecutor) {
+        this.mappedPaths = mappedPaths;
+        this.caseInsensitiveIndexes = caseInsensitiveIndexes;
+        this.defaultQuerySettings = defaultQuerySettings;
+        this.idQuerySettings = defaultQuerySettings.withoutHint();
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public MappedPaths getMappedPaths() {
+        return mappedPaths;
+    }
+
+    public CaseInsensitiveIndexes getCaseInsensitiveIndexes() {
+        return caseInsensitiveIndexes;
+    }
+
+    /**
+     * Returns the query settings of the class configuration.
+     *
+     * @return the default query settings.
+     */
+    public QuerySettings getDefaultQuerySettings() {
+        return defaultQuerySettings;
+    }
+
+    /**
+     * Returns the query settings of the lookups by identifier, which ignore the configured hint so that they use the
+     * identifier index.
+     *
+     * @return the query settings of the lookups by identifier.
+     */
+    public QuerySettings getIdQuerySettings() {
+        return idQuerySettings;
+    }
+
+    public AsyncExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.seedstack.mongodb.morphia.internal.specification.CaseInsensitiveIndexes;
+import org.seedstack.mongodb.morphia.internal.specification.MappedPaths;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+
+import dev.morphia.Datastore;
+
+/**
+ * Query support of the aggregate root classes, shared by all their repositories so that injecting a repository does
+ * not map the paths, parse the class configuration or list the case-insensitive indexes again.
+ */
+@Singleton
+public class AggregateContexts {
+    private static final String MONGO_DB_CLIENT_OPTION = "mongoDbClient";
+    private final Application application;
+    private final AsyncExecutors asyncExecutors;
+    private final Map<Class<?>, AggregateContext> contexts = new ConcurrentHashMap<>();
+
+    @Inject
+    AggregateContexts(Application application, AsyncExecutors asyncExecutors) {
+        this.application = application;
+        this.asyncExecutors = asyncExecutors;
+    }
+
+    /**
+     * Returns the context of an aggregate root class, creating it on first call.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param datastore          the datastore of the aggregate root class.
+     * @return the context.
+     */
+    public AggregateContext get(Class<?> aggregateRootClass, Datastore datastore) {
+        return contexts.computeIfAbsent(aggregateRootClass, k -> {
+            ClassConfiguration<?> configuration = application.getConfiguration(aggregateRootClass);
+            MappedPaths mappedPaths = new MappedPaths(datastore.getMapper(), aggregateRootClass);
+            return new AggregateContext(mappedPaths,
+                    new CaseInsensitiveIndexes(datastore, aggregateRootClass, mappedPaths),
+                    QuerySettings.of(aggregateRootClass, configuration),
+                    asyncExecutors.getAsyncExecutor(configuration.get(MONGO_DB_CLIENT_OPTION)));
+        });
+    }
+}
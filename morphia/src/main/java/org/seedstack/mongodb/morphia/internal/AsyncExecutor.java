@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.seedstack.mongodb.Histogram;
+import org.seedstack.mongodb.morphia.AsyncStatistics;
+
+/**
+ * Executor of the asynchronous repository operations of a client. At most {@code maxConcurrency} operations run at
+ * once, so that they cannot exhaust the connection pool of the client, the others waiting in a queue without holding
+ * a thread. The time operations spend queued and running is recorded. An operation rejected by the underlying
+ * executor completes its future exceptionally.
+ */
+public class AsyncExecutor implements AsyncStatistics {
+    private final Executor delegate;
+    private final int maxConcurrency;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final Histogram queueTimes = new Histogram();
+    private final Histogram executionTimes = new Histogram();
+
+    /**
+     * Creates the executor.
+     *
+     * @param delegate       the executor running the operations, typically creating one virtual thread per operation.
+     * @param maxConcurrency the maximum number of operations running at once, strictly positive.
+     */
+    public AsyncExecutor(Executor delegate, int maxConcurrency) {
+        checkArgument(maxConcurrency > 0, "The maximum concurrency must be strictly positive");
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Runs an operation asynchronously.
+     *
+     * @param operation the operation.
+     * @param <T>       the type of the result.
+     * @return the future result of the operation.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long submitTime = System.nanoTime();
+        queue.add(new Task(future, () -> {
+            long startTime = System.nanoTime();
+            queueTimes.record(startTime - submitTime);
+            try {
+                future.complete(operation.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                executionTimes.record(System.nanoTime() - startTime);
+            }
+        }));
+        drain();
+        return future;
+    }
+
+    @Override
+    public Histogram getQueueTimes() {
+        return queueTimes;
+    }
+
+    @Override
+    public Histogram getExecutionTimes() {
+        return executionTimes;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public int getRunningCount() {
+        return runningCount.get();
+    }
+
+    @Override
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int running = runningCount.get();
+            if (running >= maxConcurrency) {
+                // a running operation drains the queue when it completes
+                return;
+            }
+            if (runningCount.compareAndSet(running, running + 1)) {
+                Task task = queue.poll();
+                if (task == null) {
+                    runningCount.decrementAndGet();
+                } else {
+                    start(task);
+                }
+            }
+        }
+    }
+
+    private void start(Task task) {
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.operation.run();
+                } finally {
+                    runningCount.decrementAndGet();
+                    drain();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the task may belong to another caller, so it is failed instead of rethrowing
+            runningCount.decrementAndGet();
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    private static class Task {
+        private final CompletableFuture<?> future;
+        private final Runnable operation;
+
+        private Task(CompletableFuture<?> future, Runnable operation) {
+            this.future = future;
+            this.operation = operation;
+        }
+    }
+}
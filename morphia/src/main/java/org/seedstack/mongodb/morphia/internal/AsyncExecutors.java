@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.seedstack.mongodb.morphia.MorphiaConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors of the asynchronous repository operations, one per client. Operations run on virtual threads when the
+ * runtime provides them (Java 21 or later) and on the query executor otherwise.
+ */
+@Singleton
+public class AsyncExecutors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncExecutors.class);
+    private final MorphiaConfig.AsyncConfig asyncConfig;
+    private final ExecutorService virtualThreadExecutor;
+    private final Executor executor;
+    private final Map<String, AsyncExecutor> asyncExecutors = new ConcurrentHashMap<>();
+
+    @Inject
+    AsyncExecutors(MorphiaConfig morphiaConfig, QueryExecutor queryExecutor) {
+        this.asyncConfig = morphiaConfig.getAsync();
+        this.virtualThreadExecutor = createVirtualThreadExecutor();
+        this.executor = virtualThreadExecutor != null ? virtualThreadExecutor : queryExecutor;
+    }
+
+    /**
+     * Returns the executor of the asynchronous operations of a client, creating it on first call. The maximum
+     * concurrency of the client is checked when the executor is created.
+     *
+     * @param clientName the name of the client.
+     * @return the executor.
+     */
+    public AsyncExecutor getAsyncExecutor(String clientName) {
+        return asyncExecutors.computeIfAbsent(clientName, k -> {
+            String property = asyncConfig.getClients().containsKey(clientName)
+                    ? "mongoDb.morphia.async.clients." + clientName
+                    : "mongoDb.morphia.async.maxConcurrency";
+            return new AsyncExecutor(executor,
+                    MorphiaUtils.checkPositive(property, asyncConfig.getMaxConcurrency(clientName)));
+        });
+    }
+
+    /**
+     * Returns the executors created so far.
+     *
+     * @return the executors by client name.
+     */
+    public Map<String, AsyncExecutor> getAsyncExecutors() {
+        return Collections.unmodifiableMap(asyncExecutors);
+    }
+
+    void shutdown() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            // looked up reflectively as the sources target Java 8
+            ExecutorService executorService = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            LOGGER.debug("Asynchronous repository operations run on virtual threads");
+            return executorService;
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Asynchronous repository operations run on platform threads");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.time.Duration;
+
+import org.seedstack.mongodb.morphia.CountStatistics;
+
+/**
+ * Snapshot of the latency of the count commands issued for an aggregate root class.
+ */
+public class CountLatency implements CountStatistics {
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    CountLatency(long count, long totalNanos, long maxNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public Duration getTotalTime() {
+        return Duration.ofNanos(totalNanos);
+    }
+
+    @Override
+    public Duration getMeanTime() {
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / count);
+    }
+
+    @Override
+    public Duration getMaxTime() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    @Override
+    public String toString() {
+        return count + " counts, mean " + getMeanTime() + ", max " + getMaxTime();
+    }
+}
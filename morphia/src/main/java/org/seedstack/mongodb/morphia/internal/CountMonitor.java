@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.seedstack.mongodb.morphia.CountEstimate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the latency of the count commands per aggregate root class and holds the last size estimate of each
+ * aggregate root class, shared by all the repositories of the class.
+ */
+public class CountMonitor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CountMonitor.class);
+    private final Map<Class<?>, AggregateCounts> aggregateCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Issues a count command and records its latency.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param command            the count command.
+     * @return the result of the command.
+     */
+    public long time(Class<?> aggregateRootClass, LongSupplier command) {
+        long start = System.nanoTime();
+        try {
+            return command.getAsLong();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            getCounts(aggregateRootClass).record(elapsed);
+            LOGGER.trace("Counted {} in {} ms", aggregateRootClass.getName(), elapsed / 1_000_000d);
+        }
+    }
+
+    /**
+     * Returns the last estimate of the size of an aggregate root class if it is not older than the given staleness,
+     * otherwise takes a new estimate. Concurrent callers needing a new estimate wait for a single estimation.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param maxStaleness       the maximum age of the returned estimate.
+     * @param estimation         the estimation command, whose latency is recorded.
+     * @return the estimate.
+     */
+    public CountEstimate estimate(Class<?> aggregateRootClass, Duration maxStaleness, LongSupplier estimation) {
+        AggregateCounts counts = getCounts(aggregateRootClass);
+        CountEstimate estimate = counts.estimate;
+        if (estimate != null && estimate.getStaleness().compareTo(maxStaleness) <= 0) {
+            return estimate;
+        }
+        synchronized (counts) {
+            estimate = counts.estimate;
+            if (estimate == null || estimate.getStaleness().compareTo(maxStaleness) > 0) {
+                Instant timestamp = Instant.now();
+                estimate = new CountEstimate(time(aggregateRootClass, estimation), timestamp);
+                counts.estimate = estimate;
+            }
+            return estimate;
+        }
+    }
+
+    /**
+     * Returns the latency of the count commands issued for an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the latency snapshot.
+     */
+    public CountLatency getLatency(Class<?> aggregateRootClass) {
+        AggregateCounts counts = aggregateCounts.get(aggregateRootClass);
+        if (counts == null) {
+            return new CountLatency(0, 0, 0);
+        }
+        return new CountLatency(counts.count.sum(), counts.totalNanos.sum(), counts.maxNanos.get());
+    }
+
+    Set<Class<?>> getAggregateRootClasses() {
+        return Collections.unmodifiableSet(aggregateCounts.keySet());
+    }
+
+    private AggregateCounts getCounts(Class<?> aggregateRootClass) {
+        return aggregateCounts.computeIfAbsent(aggregateRootClass, k -> new AggregateCounts());
+    }
+
+    private static class AggregateCounts {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private volatile CountEstimate estimate;
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+}
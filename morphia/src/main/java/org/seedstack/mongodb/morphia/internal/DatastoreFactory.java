@@ -10,10 +10,19 @@ package org.seedstack.mongodb.morphia.internal;
 import static org.seedstack.mongodb.morphia.internal.MorphiaUtils.createDatastoreAnnotation;
 import static org.seedstack.mongodb.morphia.internal.MorphiaUtils.getMongoClientConfig;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.inject.Inject;
 
 import org.seedstack.mongodb.morphia.MorphiaDatastore;
 import org.seedstack.seed.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -23,10 +32,20 @@ import com.mongodb.client.MongoClient;
 import dev.morphia.Datastore;
 import dev.morphia.Morphia;
 
+/**
+ * Registry of Morphia datastores. A single mapped datastore is built for each (client, database) pair and is shared
+ * by all repositories and {@link MorphiaDatastore} injection points referring to it, whether they use the database
+ * name or one of its aliases.
+ */
 public class DatastoreFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatastoreFactory.class);
     private final Application application;
     private final Injector injector;
     private final SeedEntityListener seedEntityListener;
+    private final ConcurrentMap<Class<?>, MorphiaDatastore> datastoreAnnotations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MorphiaDatastore, Datastore> datastoresByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MorphiaDatastore, Datastore> datastores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MorphiaDatastore, Duration> creationTimes = new ConcurrentHashMap<>();
 
     @Inject
     DatastoreFactory(Application application, Injector injector, SeedEntityListener seedEntityListener) {
@@ -36,17 +55,58 @@ public class DatastoreFactory {
     }
 
     public Datastore createDatastore(Class<?> morphiaClass) {
-        return createDatastore(createDatastoreAnnotation(application, morphiaClass));
+        return createDatastore(datastoreAnnotations.computeIfAbsent(morphiaClass,
+                c -> createDatastoreAnnotation(application, c)));
     }
 
     public Datastore createDatastore(MorphiaDatastore datastoreAnnotation) {
         return createDatastore(datastoreAnnotation.clientName(), datastoreAnnotation.dbName());
     }
 
+    /**
+     * Returns the datastore of the specified database, building it on first access only.
+     *
+     * @param clientName the name of the configured MongoDb client.
+     * @param dbName     the name or the alias of the database.
+     * @return the shared datastore.
+     */
     public Datastore createDatastore(String clientName, String dbName) {
-        MongoClient client = injector.getInstance(Key.get(MongoClient.class, Names.named(clientName)));
-        String dbAlias = MorphiaUtils.resolveDatabaseAlias(getMongoClientConfig(application, clientName), dbName);
+        return datastoresByName.computeIfAbsent(new DatastoreImpl(clientName, dbName), this::resolveDatastore);
+    }
+
+    /**
+     * Returns the number of datastores built so far.
+     *
+     * @return the number of built datastores.
+     */
+    public int getDatastoreCount() {
+        return datastores.size();
+    }
+
+    /**
+     * Returns the time it took to build each datastore, keyed by client and (alias-resolved) database name.
+     *
+     * @return an immutable snapshot of the build times.
+     */
+    public Map<MorphiaDatastore, Duration> getDatastoreCreationTimes() {
+        return Collections.unmodifiableMap(new HashMap<>(creationTimes));
+    }
+
+    private Datastore resolveDatastore(MorphiaDatastore requested) {
+        String clientName = requested.clientName();
+        String dbName = MorphiaUtils.resolveDatabaseAlias(getMongoClientConfig(application, clientName),
+                requested.dbName());
+        return datastores.computeIfAbsent(new DatastoreImpl(clientName, dbName), this::buildDatastore);
+    }
 
-        return new DatastoreWrapper(Morphia.createDatastore(client, dbAlias), seedEntityListener);
+    private Datastore buildDatastore(MorphiaDatastore key) {
+        long startTime = System.nanoTime();
+        MongoClient client = injector.getInstance(Key.get(MongoClient.class, Names.named(key.clientName())));
+        Datastore datastore = new DatastoreWrapper(Morphia.createDatastore(client, key.dbName()), seedEntityListener);
+        Duration creationTime = Duration.ofNanos(System.nanoTime() - startTime);
+        creationTimes.put(key, creationTime);
+        LOGGER.debug("Built Morphia datastore for database {} of client {} in {} ms", key.dbName(),
+                key.clientName(), creationTime.toMillis());
+        return datastore;
     }
 }
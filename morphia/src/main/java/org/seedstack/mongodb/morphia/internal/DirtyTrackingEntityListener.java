@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.bson.Document;
+import org.seedstack.mongodb.morphia.BaseEntityListener;
+import org.seedstack.seed.Application;
+
+import com.google.common.collect.MapMaker;
+
+import dev.morphia.Datastore;
+
+/**
+ * Keeps the document each entity was loaded from, for the classes whose {@code dirtyTracking} class configuration
+ * option is enabled, so that updates can be limited to the changed fields. Snapshots are weakly attached to the entity
+ * instances and vanish with them.
+ */
+@Singleton
+public class DirtyTrackingEntityListener extends BaseEntityListener<Object> {
+    static final String DIRTY_TRACKING_OPTION = "dirtyTracking";
+    private final ClassValue<Boolean> trackedClasses;
+    private final ConcurrentMap<Object, Document> snapshots = new MapMaker().weakKeys().makeMap();
+
+    @Inject
+    DirtyTrackingEntityListener(Application application) {
+        this.trackedClasses = new ClassValue<Boolean>() {
+            @Override
+            protected Boolean computeValue(Class<?> entityClass) {
+                return Boolean.parseBoolean(application.getConfiguration(entityClass).get(DIRTY_TRACKING_OPTION));
+            }
+        };
+    }
+
+    @Override
+    public void postLoad(Object entity, Document document, Datastore datastore) {
+        if (isTracked(entity.getClass())) {
+            snapshots.put(entity, document);
+        }
+    }
+
+    /**
+     * Indicates if dirty tracking is enabled for the specified entity class.
+     *
+     * @param entityClass the entity class.
+     * @return true if loaded documents of this class are kept, false otherwise.
+     */
+    public boolean isTracked(Class<?> entityClass) {
+        return trackedClasses.get(entityClass);
+    }
+
+    /**
+     * Returns the last known persistent state of the entity.
+     *
+     * @param entity the entity instance.
+     * @return the document the entity was loaded from or last written as, null if unknown.
+     */
+    public Document getSnapshot(Object entity) {
+        return snapshots.get(entity);
+    }
+
+    /**
+     * Records the persistent state of the entity after a successful write.
+     *
+     * @param entity   the entity instance.
+     * @param document the written document.
+     */
+    public void updateSnapshot(Object entity, Document document) {
+        if (isTracked(entity.getClass())) {
+            snapshots.put(entity, document);
+        }
+    }
+
+    /**
+     * Forgets the persistent state of the entity after it has been written as a whole, by a save that does not report
+     * the written document, so that its next update replaces the whole document.
+     *
+     * @param entity the entity instance.
+     */
+    public void discardSnapshot(Object entity) {
+        snapshots.remove(entity);
+    }
+}
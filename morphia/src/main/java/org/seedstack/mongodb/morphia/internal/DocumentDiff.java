@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bson.Document;
+
+/**
+ * Computes the minimal update turning a document into another. Embedded documents are compared field by field, arrays
+ * only grown at their end become a {@code $push} of the new elements and any other change is a {@code $set} or an
+ * {@code $unset} of the whole value.
+ */
+public final class DocumentDiff {
+    private DocumentDiff() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Computes the update operators turning the {@code before} document into the {@code after} document.
+     *
+     * @param before the persisted document.
+     * @param after  the new document.
+     * @return the update document, empty if both documents are equal.
+     */
+    public static Document compute(Document before, Document after) {
+        Document set = new Document();
+        Document unset = new Document();
+        Document push = new Document();
+        diff("", before, after, set, unset, push);
+        Document update = new Document();
+        if (!set.isEmpty()) {
+            update.put("$set", set);
+        }
+        if (!unset.isEmpty()) {
+            update.put("$unset", unset);
+        }
+        if (!push.isEmpty()) {
+            update.put("$push", push);
+        }
+        return update;
+    }
+
+    private static void diff(String prefix, Map<String, Object> before, Map<String, Object> after, Document set,
+            Document unset, Document push) {
+        for (Map.Entry<String, Object> entry : after.entrySet()) {
+            String path = prefix + entry.getKey();
+            Object oldValue = before.get(entry.getKey());
+            Object newValue = entry.getValue();
+            if (!before.containsKey(entry.getKey())) {
+                set.put(path, newValue);
+            } else if (oldValue instanceof Document && newValue instanceof Document) {
+                diff(path + ".", (Document) oldValue, (Document) newValue, set, unset, push);
+            } else if (oldValue instanceof List && newValue instanceof List) {
+                diffList(path, (List<?>) oldValue, (List<?>) newValue, set, push);
+            } else if (!Objects.equals(oldValue, newValue)) {
+                set.put(path, newValue);
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                unset.put(prefix + key, "");
+            }
+        }
+    }
+
+    private static void diffList(String path, List<?> oldList, List<?> newList, Document set, Document push) {
+        if (newList.size() > oldList.size() && newList.subList(0, oldList.size()).equals(oldList)) {
+            push.put(path, new Document("$each", newList.subList(oldList.size(), newList.size())));
+        } else if (!oldList.equals(newList)) {
+            set.put(path, newList);
+        }
+    }
+}
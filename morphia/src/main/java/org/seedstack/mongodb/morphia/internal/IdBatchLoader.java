@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.seedstack.mongodb.Histogram;
+import org.seedstack.mongodb.morphia.IdBatchStatistics;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Coalesces the concurrent lookups of documents by identifier into batches loaded with a single {@code $in} query.
+ * The first caller of a batch waits for the coalescing window (or for the batch to be full) then loads the batch for
+ * all its callers, which wait for their own document. Callers of a same identifier share the same document.
+ */
+public class IdBatchLoader implements IdBatchStatistics {
+    private static final String ID_KEY = "_id";
+    private final MongoCollection<RawBsonDocument> collection;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram waitTimes = new Histogram();
+    private Batch pending;
+
+    IdBatchLoader(MongoCollection<RawBsonDocument> collection, long windowNanos, int maxBatchSize) {
+        this.collection = collection;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Loads the document of an identifier along with the identifiers requested concurrently.
+     *
+     * @param id the BSON identifier.
+     * @return the document, null if it doesn't exist.
+     */
+    public RawBsonDocument load(BsonValue id) {
+        long start = System.nanoTime();
+        Batch batch;
+        CompletableFuture<RawBsonDocument> future;
+        boolean leader = false;
+        synchronized (this) {
+            if (pending == null) {
+                pending = new Batch(Thread.currentThread());
+                leader = true;
+            }
+            batch = pending;
+            future = batch.futures.computeIfAbsent(id, k -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                pending = null;
+                LockSupport.unpark(batch.leader);
+            }
+        }
+        try {
+            if (leader) {
+                awaitBatch(batch, start + windowNanos);
+                execute(batch);
+            }
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            waitTimes.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Histogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    @Override
+    public Histogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    private void awaitBatch(Batch batch, long deadline) {
+        while (true) {
+            synchronized (this) {
+                if (pending != batch) {
+                    return;
+                }
+                if (deadline - System.nanoTime() <= 0) {
+                    pending = null;
+                    return;
+                }
+            }
+            LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+    }
+
+    private void execute(Batch batch) {
+        // the batch is closed: its futures are not modified anymore
+        Map<BsonValue, CompletableFuture<RawBsonDocument>> futures = batch.futures;
+        batchSizes.record(futures.size());
+        try {
+            for (RawBsonDocument document : collection.find(Filters.in(ID_KEY, futures.keySet()))) {
+                CompletableFuture<RawBsonDocument> future = futures.get(document.get(ID_KEY));
+                if (future != null) {
+                    future.complete(document);
+                }
+            }
+            futures.values().forEach(future -> future.complete(null));
+        } catch (RuntimeException | Error e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private static class Batch {
+        private final Thread leader;
+        private final Map<BsonValue, CompletableFuture<RawBsonDocument>> futures = new LinkedHashMap<>();
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+}
@@ -10,10 +10,12 @@ package org.seedstack.mongodb.morphia.internal;
 import org.seedstack.shed.exception.ErrorCode;
 
 public enum MorphiaErrorCode implements ErrorCode {
-    ASYNC_CLIENT_NOT_SUPPORTED,
     CLIENT_NAME_NOT_CONFIGURED,
     DATABASE_NOT_CONFIGURED,
+    INVALID_CONFIGURATION,
+    INVALID_QUERY_OPTION,
     PERSISTED_CLASS_NOT_CONFIGURED,
+    REACTIVE_CLIENT_NOT_SUPPORTED,
     UNKNOWN_CLIENT,
     UNKNOWN_DATABASE
 }
@@ -14,7 +14,10 @@ package org.seedstack.mongodb.morphia.internal;
 import java.util.Collection;
 
 import org.seedstack.mongodb.morphia.EntityListener;
+import org.seedstack.mongodb.morphia.MorphiaConfig;
 import org.seedstack.mongodb.morphia.MorphiaDatastore;
+import org.seedstack.mongodb.morphia.MorphiaStatistics;
+import org.seedstack.mongodb.morphia.internal.specification.TranslationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,12 +30,14 @@ import dev.morphia.Datastore;
 
 class MorphiaModule extends AbstractModule {
     private static final Logger LOGGER = LoggerFactory.getLogger(MorphiaModule.class);
+    private final MorphiaConfig config;
     private final Collection<MorphiaDatastore> morphiaDatastoresAnnotation;
     private final Collection<Class<? extends EntityListener<?>>> seedEntityListeners;
 
-    MorphiaModule(Collection<MorphiaDatastore> morphiaDatastoresAnnotation,
+    MorphiaModule(MorphiaConfig config, Collection<MorphiaDatastore> morphiaDatastoresAnnotation,
             Collection<Class<? extends EntityListener<?>>> seedEntityListeners) {
         super();
+        this.config = config;
         this.morphiaDatastoresAnnotation = morphiaDatastoresAnnotation;
         this.seedEntityListeners = seedEntityListeners;
 
@@ -41,7 +46,18 @@ class MorphiaModule extends AbstractModule {
     @SuppressWarnings("rawtypes")
     @Override
     protected void configure() {
-        bind(DatastoreFactory.class);
+        bind(MorphiaConfig.class).toInstance(config);
+        bind(DatastoreFactory.class).in(Scopes.SINGLETON);
+        bind(TranslationCache.class).in(Scopes.SINGLETON);
+        bind(CountMonitor.class).in(Scopes.SINGLETON);
+        bind(AggregateCaches.class).in(Scopes.SINGLETON);
+        bind(QueryCoalescers.class).in(Scopes.SINGLETON);
+        bind(QueryExecutor.class).in(Scopes.SINGLETON);
+        bind(PrefetchMonitor.class).in(Scopes.SINGLETON);
+        bind(AsyncExecutors.class).in(Scopes.SINGLETON);
+        bind(AggregateContexts.class).in(Scopes.SINGLETON);
+        bind(MorphiaMonitor.class).in(Scopes.SINGLETON);
+        bind(MorphiaStatistics.class).to(MorphiaMonitor.class);
 
         if (morphiaDatastoresAnnotation != null && !morphiaDatastoresAnnotation.isEmpty()) {
             for (MorphiaDatastore morphiaDatastore : morphiaDatastoresAnnotation) {
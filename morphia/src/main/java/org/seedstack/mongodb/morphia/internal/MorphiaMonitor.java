@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.seedstack.mongodb.Histogram;
+import org.seedstack.mongodb.morphia.AggregateCacheStatistics;
+import org.seedstack.mongodb.morphia.AsyncStatistics;
+import org.seedstack.mongodb.morphia.CountStatistics;
+import org.seedstack.mongodb.morphia.IdBatchStatistics;
+import org.seedstack.mongodb.morphia.MorphiaStatistics;
+import org.seedstack.mongodb.morphia.PrefetchingStatistics;
+import org.seedstack.mongodb.morphia.SingleFlightStatistics;
+import org.seedstack.seed.diagnostic.spi.DiagnosticInfoCollector;
+
+/**
+ * Statistics of the repositories of all the aggregate root classes, gathered from the monitors shared by their
+ * repositories, and their diagnostic collector.
+ */
+@Singleton
+public class MorphiaMonitor implements MorphiaStatistics, DiagnosticInfoCollector {
+    private final CountMonitor countMonitor;
+    private final AggregateCaches aggregateCaches;
+    private final QueryCoalescers queryCoalescers;
+    private final PrefetchMonitor prefetchMonitor;
+    private final AsyncExecutors asyncExecutors;
+
+    @Inject
+    MorphiaMonitor(CountMonitor countMonitor, AggregateCaches aggregateCaches, QueryCoalescers queryCoalescers,
+            PrefetchMonitor prefetchMonitor, AsyncExecutors asyncExecutors) {
+        this.countMonitor = countMonitor;
+        this.aggregateCaches = aggregateCaches;
+        this.queryCoalescers = queryCoalescers;
+        this.prefetchMonitor = prefetchMonitor;
+        this.asyncExecutors = asyncExecutors;
+    }
+
+    @Override
+    public CountStatistics getCounts(Class<?> aggregateRootClass) {
+        return countMonitor.getLatency(aggregateRootClass);
+    }
+
+    @Override
+    public Optional<AggregateCacheStatistics> getCache(Class<?> aggregateRootClass) {
+        return aggregateCaches.get(aggregateRootClass).map(AggregateCacheStatistics.class::cast);
+    }
+
+    @Override
+    public Optional<IdBatchStatistics> getIdBatches(Class<?> aggregateRootClass) {
+        return queryCoalescers.getIdBatchLoader(aggregateRootClass).map(IdBatchStatistics.class::cast);
+    }
+
+    @Override
+    public Optional<SingleFlightStatistics> getSingleFlight(Class<?> aggregateRootClass) {
+        return queryCoalescers.findSingleFlight(aggregateRootClass).map(SingleFlightStatistics.class::cast);
+    }
+
+    @Override
+    public Optional<PrefetchingStatistics> getPrefetching(Class<?> aggregateRootClass) {
+        return prefetchMonitor.findStatistics(aggregateRootClass).map(PrefetchingStatistics.class::cast);
+    }
+
+    @Override
+    public Map<String, AsyncStatistics> getAsyncOperations() {
+        return Collections.unmodifiableMap(new TreeMap<>(asyncExecutors.getAsyncExecutors()));
+    }
+
+    @Override
+    public Object collect() {
+        Set<Class<?>> aggregateRootClasses = new TreeSet<>(Comparator.comparing(Class::getName));
+        aggregateRootClasses.addAll(countMonitor.getAggregateRootClasses());
+        aggregateRootClasses.addAll(aggregateCaches.getAggregateRootClasses());
+        aggregateRootClasses.addAll(queryCoalescers.getAggregateRootClasses());
+        aggregateRootClasses.addAll(prefetchMonitor.getAggregateRootClasses());
+        Map<String, Object> aggregatesInfo = new LinkedHashMap<>();
+        for (Class<?> aggregateRootClass : aggregateRootClasses) {
+            aggregatesInfo.put(aggregateRootClass.getName(), collectAggregate(aggregateRootClass));
+        }
+        Map<String, Object> asyncInfo = new LinkedHashMap<>();
+        getAsyncOperations().forEach((clientName, async) -> {
+            Map<String, Object> clientInfo = new LinkedHashMap<>();
+            clientInfo.put("maxConcurrency", async.getMaxConcurrency());
+            clientInfo.put("running", async.getRunningCount());
+            clientInfo.put("queued", async.getQueuedCount());
+            clientInfo.put("queueTimeMicros", toMicros(async.getQueueTimes()));
+            clientInfo.put("executionTimeMicros", toMicros(async.getExecutionTimes()));
+            asyncInfo.put(clientName, clientInfo);
+        });
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("aggregates", aggregatesInfo);
+        info.put("async", asyncInfo);
+        return info;
+    }
+
+    private Map<String, Object> collectAggregate(Class<?> aggregateRootClass) {
+        Map<String, Object> aggregateInfo = new LinkedHashMap<>();
+        CountStatistics counts = getCounts(aggregateRootClass);
+        if (counts.getCount() > 0) {
+            Map<String, Object> countsInfo = new LinkedHashMap<>();
+            countsInfo.put("count", counts.getCount());
+            countsInfo.put("meanMicros", TimeUnit.NANOSECONDS.toMicros(counts.getMeanTime().toNanos()));
+            countsInfo.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(counts.getMaxTime().toNanos()));
+            aggregateInfo.put("counts", countsInfo);
+        }
+        getCache(aggregateRootClass).ifPresent(cache -> {
+            Map<String, Object> cacheInfo = new LinkedHashMap<>();
+            cacheInfo.put("size", cache.getSize());
+            cacheInfo.put("hitRatio", cache.getHitRatio());
+            cacheInfo.put("loads", cache.getLoadCount());
+            cacheInfo.put("meanLoadMicros", TimeUnit.NANOSECONDS.toMicros(cache.getAverageLoadTime().toNanos()));
+            cacheInfo.put("evictions", cache.getEvictionCount());
+            aggregateInfo.put("cache", cacheInfo);
+        });
+        getIdBatches(aggregateRootClass).ifPresent(idBatches -> {
+            Map<String, Object> idBatchesInfo = new LinkedHashMap<>();
+            idBatchesInfo.put("batchSizes", summarize(idBatches.getBatchSizes()));
+            idBatchesInfo.put("waitTimeMicros", toMicros(idBatches.getWaitTimes()));
+            aggregateInfo.put("idBatches", idBatchesInfo);
+        });
+        getSingleFlight(aggregateRootClass).ifPresent(singleFlight -> {
+            Map<String, Object> singleFlightInfo = new LinkedHashMap<>();
+            singleFlightInfo.put("executed", singleFlight.getExecutedCount());
+            singleFlightInfo.put("shared", singleFlight.getSharedCount());
+            aggregateInfo.put("singleFlight", singleFlightInfo);
+        });
+        getPrefetching(aggregateRootClass).ifPresent(prefetching -> {
+            Map<String, Object> prefetchingInfo = new LinkedHashMap<>();
+            prefetchingInfo.put("depths", summarize(prefetching.getPrefetchDepths()));
+            prefetchingInfo.put("stallTimeMicros", toMicros(prefetching.getStallTimes()));
+            prefetchingInfo.put("stallRatio", prefetching.getStallRatio());
+            prefetchingInfo.put("meanDocumentSize", prefetching.getMeanDocumentSize());
+            aggregateInfo.put("prefetching", prefetchingInfo);
+        });
+        return aggregateInfo;
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("count", histogram.getCount());
+        info.put("mean", histogram.getMean());
+        info.put("p50", histogram.getPercentile(50));
+        info.put("p99", histogram.getPercentile(99));
+        info.put("max", histogram.getMax());
+        return info;
+    }
+
+    private static Map<String, Object> toMicros(Histogram histogram) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("count", histogram.getCount());
+        info.put("mean", TimeUnit.NANOSECONDS.toMicros((long) histogram.getMean()));
+        info.put("p50", TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(50)));
+        info.put("p99", TimeUnit.NANOSECONDS.toMicros(histogram.getPercentile(99)));
+        info.put("max", TimeUnit.NANOSECONDS.toMicros(histogram.getMax()));
+        return info;
+    }
+}
@@ -8,6 +8,7 @@
 package org.seedstack.mongodb.morphia.internal;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 
 import javax.inject.Inject;
@@ -17,6 +18,7 @@ import org.seedstack.mongodb.morphia.EntityListener;
 import org.seedstack.mongodb.morphia.MorphiaConfig;
 import org.seedstack.mongodb.morphia.MorphiaDatastore;
 import org.seedstack.seed.Application;
+import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.AbstractSeedPlugin;
 import org.seedstack.seed.core.internal.init.ValidationManager;
 import org.seedstack.seed.core.internal.validation.ValidationPlugin;
@@ -41,6 +43,14 @@ public class MorphiaPlugin extends AbstractSeedPlugin {
     private MorphiaConfig config;
     @Inject
     private DatastoreFactory datastoreFactory;
+    @Inject
+    private AggregateCaches aggregateCaches;
+    @Inject
+    private QueryExecutor queryExecutor;
+    @Inject
+    private AsyncExecutors asyncExecutors;
+    @Inject
+    private MorphiaMonitor morphiaMonitor;
 
     @Override
     public String name() {
@@ -66,6 +76,20 @@ public class MorphiaPlugin extends AbstractSeedPlugin {
     public InitState initialize(InitContext initContext) {
         Application application = getApplication();
         config = application.getConfiguration().get(MorphiaConfig.class);
+        double sampleRate = config.getValidation().getSampleRate();
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw SeedException.createNew(MorphiaErrorCode.INVALID_CONFIGURATION)
+                    .put("property", "mongoDb.morphia.validation.sampleRate")
+                    .put("value", sampleRate)
+                    .put("expected", "a sampling rate between 0 and 1");
+        }
+        MorphiaUtils.checkPositive("mongoDb.morphia.bulkWriteBatchSize", config.getBulkWriteBatchSize());
+        MorphiaUtils.checkPositive("mongoDb.morphia.getAllBatchSize", config.getGetAllBatchSize());
+        MorphiaUtils.checkPositive("mongoDb.morphia.getAllParallelism", config.getGetAllParallelism());
+
+        // the monitor is injected once the injector is created
+        getSeedRuntime().registerDiagnosticCollector("org.seedstack.mongodb.morphia",
+                () -> morphiaMonitor == null ? Collections.emptyMap() : morphiaMonitor.collect());
 
         boolean isValidationActive = ValidationManager.get()
                 .getValidationLevel() != ValidationManager.ValidationLevel.NONE;
@@ -138,11 +162,25 @@ public class MorphiaPlugin extends AbstractSeedPlugin {
                             morphiaDatastore.ensureCaps();
                         }
                     });
+            LOGGER.info("{} Morphia datastore(s) built", datastoreFactory.getDatastoreCount());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (aggregateCaches != null) {
+            aggregateCaches.close();
+        }
+        if (asyncExecutors != null) {
+            asyncExecutors.shutdown();
+        }
+        if (queryExecutor != null) {
+            queryExecutor.shutdown();
         }
     }
 
     @Override
     public Object nativeUnitModule() {
-        return new MorphiaModule(morphiaDatastores, seedEntityListeners);
+        return new MorphiaModule(config, morphiaDatastores, seedEntityListeners);
     }
 }
@@ -84,6 +84,11 @@ public final class MorphiaUtils {
     }
 
     static void checkMongoClient(MongoDbConfig.ClientConfig clientConfig, Class<?> mappedClass, String clientName, String dbName) {
+        if (clientConfig.isReactive()) {
+            throw SeedException.createNew(MorphiaErrorCode.REACTIVE_CLIENT_NOT_SUPPORTED)
+                    .put("aggregate", mappedClass.getName())
+                    .put("clientName", clientName);
+        }
         boolean found = false;
         for (String nameToCheck : clientConfig.getDatabases().keySet()) {
             if (nameToCheck.equals(resolveDatabaseAlias(clientConfig, dbName))) {
@@ -98,4 +103,21 @@ public final class MorphiaUtils {
                     .put("dbName", dbName);
         }
     }
+
+    /**
+     * Checks that a global configuration property is strictly positive.
+     *
+     * @param property the name of the configuration property.
+     * @param value    its value.
+     * @return the value.
+     */
+    public static int checkPositive(String property, int value) {
+        if (value <= 0) {
+            throw SeedException.createNew(MorphiaErrorCode.INVALID_CONFIGURATION)
+                    .put("property", property)
+                    .put("value", value)
+                    .put("expected", "a strictly positive integer");
+        }
+        return value;
+    }
 }
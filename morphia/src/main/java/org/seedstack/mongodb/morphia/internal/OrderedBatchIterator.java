@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Iterates over the values of a sequence of keys, loaded by batches. Up to {@code parallelism} batches are loaded
+ * ahead on the executor while the current one is consumed, so that the memory used only depends on the batch size
+ * and the parallelism. Values are returned in the order of their keys and keys without a value are reported to a
+ * handler when reached.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class OrderedBatchIterator<K, V> implements Iterator<V>, AutoCloseable {
+    private final Iterator<? extends K> keys;
+    private final int batchSize;
+    private final int parallelism;
+    private final Executor executor;
+    private final Function<List<K>, Map<K, V>> loader;
+    private final Consumer<? super K> missingKeyHandler;
+    private final Deque<Batch<K, V>> batches = new ArrayDeque<>();
+    private Iterator<K> currentKeys = Collections.emptyIterator();
+    private Map<K, V> currentValues = Collections.emptyMap();
+    private V next;
+
+    /**
+     * Creates the iterator.
+     *
+     * @param keys              the keys, consumed lazily.
+     * @param batchSize         the maximum number of keys loaded at once.
+     * @param parallelism       the maximum number of batches loaded concurrently, 1 to load them on the consuming
+     *                          thread when needed.
+     * @param executor          the executor of the batches loaded ahead.
+     * @param loader            the loader of the values of a batch of keys.
+     * @param missingKeyHandler the handler of the keys without value.
+     */
+    public OrderedBatchIterator(Iterator<? extends K> keys, int batchSize, int parallelism, Executor executor,
+            Function<List<K>, Map<K, V>> loader, Consumer<? super K> missingKeyHandler) {
+        this.keys = keys;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.loader = loader;
+        this.missingKeyHandler = missingKeyHandler;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            if (currentKeys.hasNext()) {
+                K key = currentKeys.next();
+                next = currentValues.get(key);
+                if (next == null) {
+                    missingKeyHandler.accept(key);
+                }
+            } else {
+                Batch<K, V> batch = nextBatch();
+                if (batch == null) {
+                    return false;
+                }
+                currentKeys = batch.keys.iterator();
+                currentValues = batch.join();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public V next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        V value = next;
+        next = null;
+        return value;
+    }
+
+    /**
+     * Cancels the batches that have not started loading yet.
+     */
+    @Override
+    public void close() {
+        batches.forEach(batch -> batch.values.cancel(false));
+        batches.clear();
+    }
+
+    private Batch<K, V> nextBatch() {
+        if (parallelism <= 1) {
+            List<K> batchKeys = readKeys();
+            return batchKeys.isEmpty() ? null : new Batch<>(batchKeys,
+                    CompletableFuture.completedFuture(loader.apply(batchKeys)));
+        }
+        while (batches.size() < parallelism) {
+            List<K> batchKeys = readKeys();
+            if (batchKeys.isEmpty()) {
+                break;
+            }
+            batches.add(new Batch<>(batchKeys,
+                    CompletableFuture.supplyAsync(() -> loader.apply(batchKeys), executor)));
+        }
+        return batches.poll();
+    }
+
+    private List<K> readKeys() {
+        List<K> batchKeys = new ArrayList<>(batchSize);
+        while (batchKeys.size() < batchSize && keys.hasNext()) {
+            batchKeys.add(keys.next());
+        }
+        return batchKeys;
+    }
+
+    private static class Batch<K, V> {
+        private final List<K> keys;
+        private final CompletableFuture<Map<K, V>> values;
+
+        private Batch(List<K> keys, CompletableFuture<Map<K, V>> values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private Map<K, V> join() {
+            try {
+                return values.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+import dev.morphia.query.MorphiaCursor;
+
+/**
+ * Spliterator over partitions of a collection, each partition being read through its own cursor. It splits until each
+ * partition has its own spliterator, so that a parallel stream reads the partitions concurrently, and opens the
+ * cursor of a partition only when it is traversed.
+ *
+ * @param <T> the type of the elements.
+ */
+public class PartitionSpliterator<T> implements Spliterator<T>, AutoCloseable {
+    private final List<Document> partitions;
+    private final Function<Document, MorphiaCursor<T>> cursorFactory;
+    private final Set<MorphiaCursor<T>> openCursors;
+    private final int end;
+    private int next;
+    private MorphiaCursor<T> cursor;
+
+    /**
+     * Creates a spliterator over partitions.
+     *
+     * @param partitions    the filters of the partitions.
+     * @param cursorFactory the factory of the cursor reading a partition, given its filter.
+     */
+    public PartitionSpliterator(List<Document> partitions, Function<Document, MorphiaCursor<T>> cursorFactory) {
+        this(partitions, cursorFactory, Collections.newSetFromMap(new ConcurrentHashMap<>()), 0, partitions.size());
+    }
+
+    private PartitionSpliterator(List<Document> partitions, Function<Document, MorphiaCursor<T>> cursorFactory,
+            Set<MorphiaCursor<T>> openCursors, int next, int end) {
+        this.partitions = partitions;
+        this.cursorFactory = cursorFactory;
+        this.openCursors = openCursors;
+        this.next = next;
+        this.end = end;
+    }
+
+    /**
+     * Builds the filters of the partitions delimited by boundaries of a field. The first partition holds the values
+     * lower than the first boundary as well as the values of other types and the missing values, so that every
+     * document belongs to exactly one partition.
+     *
+     * @param field      the partitioning field, which must not hold arrays.
+     * @param boundaries the ascending and distinct boundaries, all of the same type.
+     * @return the filters of the partitions, a single empty filter if there is no boundary.
+     */
+    public static List<Document> rangeFilters(String field, List<BsonValue> boundaries) {
+        List<Document> filters = new ArrayList<>(boundaries.size() + 1);
+        if (boundaries.isEmpty()) {
+            filters.add(new Document());
+            return filters;
+        }
+        filters.add(new Document(field, new Document("$not", new Document("$gte", boundaries.get(0)))));
+        for (int i = 1; i < boundaries.size(); i++) {
+            filters.add(new Document(field, new Document("$gte", boundaries.get(i - 1))
+                    .append("$lt", boundaries.get(i))));
+        }
+        filters.add(new Document(field, new Document("$gte", boundaries.get(boundaries.size() - 1))));
+        return filters;
+    }
+
+    /**
+     * Selects the boundaries splitting sorted samples of a field into partitions of similar sizes. Samples of
+     * different types cannot delimit ranges, in which case no boundary is returned.
+     *
+     * @param sortedSamples the samples, in ascending order.
+     * @param partitions    the desired number of partitions.
+     * @return the distinct boundaries, possibly fewer than the number of partitions minus one.
+     */
+    public static List<BsonValue> selectBoundaries(List<BsonValue> sortedSamples, int partitions) {
+        List<BsonValue> boundaries = new ArrayList<>();
+        if (sortedSamples.isEmpty() || sortedSamples.stream().map(PartitionSpliterator::typeClass).distinct()
+                .count() > 1) {
+            return boundaries;
+        }
+        for (int i = 1; i < partitions; i++) {
+            BsonValue boundary = sortedSamples.get(i * sortedSamples.size() / partitions);
+            if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    private static BsonType typeClass(BsonValue value) {
+        // numbers of all types are compared with each other
+        return value.isNumber() || value.isDecimal128() ? BsonType.DOUBLE : value.getBsonType();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (true) {
+            if (cursor == null) {
+                if (next >= end) {
+                    return false;
+                }
+                cursor = cursorFactory.apply(partitions.get(next++));
+                openCursors.add(cursor);
+            }
+            if (cursor.hasNext()) {
+                action.accept(cursor.next());
+                return true;
+            }
+            closeCursor();
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (cursor != null || end - next < 2) {
+            return null;
+        }
+        int middle = (next + end) >>> 1;
+        PartitionSpliterator<T> prefix = new PartitionSpliterator<>(partitions, cursorFactory, openCursors, next,
+                middle);
+        next = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        // unknown, so that splitting goes on until each partition has its own spliterator
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+
+    /**
+     * Closes the cursors left open by all the spliterators split from this one.
+     */
+    @Override
+    public void close() {
+        for (MorphiaCursor<T> openCursor : openCursors) {
+            openCursor.close();
+        }
+        openCursors.clear();
+    }
+
+    private void closeCursor() {
+        openCursors.remove(cursor);
+        cursor.close();
+        cursor = null;
+    }
+}
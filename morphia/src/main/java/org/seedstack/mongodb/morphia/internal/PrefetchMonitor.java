@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Singleton;
+
+/**
+ * Holds the statistics of the prefetching cursors of each aggregate root class, shared by all its repositories.
+ */
+@Singleton
+public class PrefetchMonitor {
+    private final Map<Class<?>, PrefetchStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the statistics of the prefetching cursors of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the statistics.
+     */
+    public PrefetchStatistics getStatistics(Class<?> aggregateRootClass) {
+        return statistics.computeIfAbsent(aggregateRootClass, k -> new PrefetchStatistics());
+    }
+
+    Optional<PrefetchStatistics> findStatistics(Class<?> aggregateRootClass) {
+        return Optional.ofNullable(statistics.get(aggregateRootClass));
+    }
+
+    Set<Class<?>> getAggregateRootClasses() {
+        return Collections.unmodifiableSet(statistics.keySet());
+    }
+}
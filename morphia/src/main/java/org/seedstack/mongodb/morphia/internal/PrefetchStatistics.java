@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.seedstack.mongodb.Histogram;
+import org.seedstack.mongodb.morphia.PrefetchingStatistics;
+
+/**
+ * Statistics of the prefetching cursors of an aggregate root class, from which the batch size of the next cursors is
+ * derived.
+ */
+public class PrefetchStatistics implements PrefetchingStatistics {
+    private static final int MIN_BATCH_SIZE = 16;
+    private static final int MAX_BATCH_SIZE = 16_000;
+    private static final int DEFAULT_BATCH_SIZE = 101;
+    private final Histogram stallTimes = new Histogram();
+    private final Histogram prefetchDepths = new Histogram();
+    private final LongAdder documentCount = new LongAdder();
+    private final LongAdder documentBytes = new LongAdder();
+    private volatile double stallRatio = 1;
+
+    @Override
+    public Histogram getStallTimes() {
+        return stallTimes;
+    }
+
+    @Override
+    public Histogram getPrefetchDepths() {
+        return prefetchDepths;
+    }
+
+    @Override
+    public long getMeanDocumentSize() {
+        long count = documentCount.sum();
+        return count == 0 ? 0 : documentBytes.sum() / count;
+    }
+
+    @Override
+    public double getStallRatio() {
+        return stallRatio;
+    }
+
+    /**
+     * Returns the batch size of a new cursor: the buffer holds two batches when the consumers always wait, as fetching
+     * is the bottleneck, and four batches when they never wait, as smaller batches then suffice.
+     *
+     * @param maxBufferedBytes the size of the buffer of the cursor.
+     * @return the batch size.
+     */
+    public int nextBatchSize(long maxBufferedBytes) {
+        long meanDocumentSize = getMeanDocumentSize();
+        if (meanDocumentSize == 0) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        double targetBytes = maxBufferedBytes * (0.25 + 0.25 * stallRatio);
+        return (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, targetBytes / meanDocumentSize));
+    }
+
+    void recordDocument(long bytes) {
+        documentCount.increment();
+        documentBytes.add(bytes);
+    }
+
+    void recordTake(long stallNanos, int depth) {
+        if (stallNanos > 0) {
+            stallTimes.record(stallNanos);
+        }
+        prefetchDepths.record(depth);
+    }
+
+    void recordCursor(long takeCount, long stallCount) {
+        if (takeCount > 0) {
+            stallRatio = (double) stallCount / takeCount;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.bson.RawBsonDocument;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+
+/**
+ * Iterator reading the documents of a query ahead on a background thread. The documents read ahead are buffered up to
+ * a number of bytes, a document larger than the whole buffer being buffered alone, and decoded by the consuming
+ * thread. The reading stops when the iterator is closed, or when the buffer stays full longer than the idle timeout
+ * of server cursors, which means that the iterator has been abandoned without being closed. A consumer resuming after
+ * the abandonment gets an {@link IllegalStateException} once the buffered documents are consumed.
+ *
+ * @param <T> the type of the decoded documents.
+ */
+public class PrefetchingIterator<T> implements Iterator<T>, AutoCloseable {
+    private static final long ABANDON_TIMEOUT = TimeUnit.MINUTES.toNanos(10);
+    private static final Object END = new Object();
+    private final BlockingQueue<Object> buffer = new LinkedBlockingQueue<>();
+    private final Semaphore freeBytes;
+    private final int maxPermits;
+    private final Function<RawBsonDocument, T> decoder;
+    private final PrefetchStatistics statistics;
+    private volatile boolean closed;
+    private Object next;
+    private long takeCount;
+    private long stallCount;
+
+    /**
+     * Starts reading the documents ahead.
+     *
+     * @param findIterable     the query.
+     * @param maxBufferedBytes the maximum size of the documents read ahead.
+     * @param executor         the executor of the background reading.
+     * @param decoder          the decoder of the documents.
+     * @param statistics       the statistics of the prefetching cursors of the queried class.
+     */
+    public PrefetchingIterator(FindIterable<RawBsonDocument> findIterable, long maxBufferedBytes, Executor executor,
+            Function<RawBsonDocument, T> decoder, PrefetchStatistics statistics) {
+        this.maxPermits = (int) Math.min(maxBufferedBytes, Integer.MAX_VALUE);
+        this.freeBytes = new Semaphore(maxPermits);
+        this.decoder = decoder;
+        this.statistics = statistics;
+        executor.execute(() -> read(findIterable));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = closed ? END : take();
+        }
+        if (next == END) {
+            return false;
+        } else if (next instanceof RuntimeException) {
+            RuntimeException exception = (RuntimeException) next;
+            next = END;
+            throw exception;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RawBsonDocument document = (RawBsonDocument) next;
+        next = null;
+        freeBytes.release(permits(document));
+        return decoder.apply(document);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            statistics.recordCursor(takeCount, stallCount);
+        }
+    }
+
+    private Object take() {
+        int depth = buffer.size();
+        Object element = buffer.poll();
+        long stallNanos = 0;
+        if (element == null) {
+            long start = System.nanoTime();
+            try {
+                element = buffer.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for prefetched documents", e);
+            }
+            stallNanos = System.nanoTime() - start;
+        }
+        if (element instanceof RawBsonDocument) {
+            takeCount++;
+            if (stallNanos > 0) {
+                stallCount++;
+            }
+            statistics.recordTake(stallNanos, depth);
+        } else {
+            close();
+        }
+        return element;
+    }
+
+    private void read(FindIterable<RawBsonDocument> findIterable) {
+        try (MongoCursor<RawBsonDocument> cursor = findIterable.cursor()) {
+            while (!closed && cursor.hasNext()) {
+                RawBsonDocument document = cursor.next();
+                statistics.recordDocument(document.getByteBuffer().remaining());
+                if (!acquire(permits(document))) {
+                    return;
+                }
+                buffer.add(document);
+            }
+            buffer.add(END);
+        } catch (RuntimeException e) {
+            buffer.add(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            buffer.add(new IllegalStateException("Interrupted while prefetching documents", e));
+        }
+    }
+
+    private boolean acquire(int permits) throws InterruptedException {
+        long start = System.nanoTime();
+        while (!closed) {
+            if (freeBytes.tryAcquire(permits, 100, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            if (System.nanoTime() - start > ABANDON_TIMEOUT) {
+                // the consumer is told why the documents end instead of seeing a truncated result
+                buffer.add(new IllegalStateException("Prefetching abandoned as no document was consumed for "
+                        + TimeUnit.NANOSECONDS.toMinutes(ABANDON_TIMEOUT) + " minutes"));
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private int permits(RawBsonDocument document) {
+        return Math.min(document.getByteBuffer().remaining(), maxPermits);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.bson.RawBsonDocument;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+
+import com.mongodb.client.MongoCollection;
+
+/**
+ * Coalescing of the queries of the aggregate root classes, shared by all their repositories. Lookups by identifier
+ * are batched when the {@code coalescingWindowMicros} class configuration option is set, up to
+ * {@code coalescingMaxBatchSize} identifiers per batch (100 by default). Identical counts and existence checks in
+ * flight are deduplicated when the {@code singleFlight} class configuration option is enabled.
+ */
+@Singleton
+public class QueryCoalescers {
+    static final String COALESCING_WINDOW_OPTION = "coalescingWindowMicros";
+    static final String COALESCING_MAX_BATCH_SIZE_OPTION = "coalescingMaxBatchSize";
+    static final String SINGLE_FLIGHT_OPTION = "singleFlight";
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private final Application application;
+    private final Map<Class<?>, Optional<IdBatchLoader>> idBatchLoaders = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Optional<SingleFlight>> singleFlights = new ConcurrentHashMap<>();
+
+    @Inject
+    QueryCoalescers(Application application) {
+        this.application = application;
+    }
+
+    /**
+     * Returns the identifier batch loader of an aggregate root class, creating it on first call.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param collection         the collection of the aggregate root class.
+     * @return the batch loader, null if lookups by identifier are not coalesced for this class.
+     */
+    public IdBatchLoader getIdBatchLoader(Class<?> aggregateRootClass, MongoCollection<RawBsonDocument> collection) {
+        return idBatchLoaders.computeIfAbsent(aggregateRootClass, k -> {
+            ClassConfiguration<?> configuration = application.getConfiguration(aggregateRootClass);
+            String window = configuration.get(COALESCING_WINDOW_OPTION);
+            if (window == null) {
+                return Optional.empty();
+            }
+            String maxBatchSize = configuration.get(COALESCING_MAX_BATCH_SIZE_OPTION);
+            return Optional.of(new IdBatchLoader(collection,
+                    TimeUnit.MICROSECONDS.toNanos(
+                            QuerySettings.parsePositive(aggregateRootClass, COALESCING_WINDOW_OPTION, window)),
+                    maxBatchSize == null ? DEFAULT_MAX_BATCH_SIZE : QuerySettings.parsePositive(aggregateRootClass,
+                            COALESCING_MAX_BATCH_SIZE_OPTION, maxBatchSize)));
+        }).orElse(null);
+    }
+
+    /**
+     * Returns the identifier batch loader of an aggregate root class if it has been created.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the batch loader, if any.
+     */
+    public Optional<IdBatchLoader> getIdBatchLoader(Class<?> aggregateRootClass) {
+        return idBatchLoaders.getOrDefault(aggregateRootClass, Optional.empty());
+    }
+
+    /**
+     * Returns the single-flight deduplication of an aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the single-flight deduplication, if enabled for this class.
+     */
+    public Optional<SingleFlight> getSingleFlight(Class<?> aggregateRootClass) {
+        return singleFlights.computeIfAbsent(aggregateRootClass, k -> Boolean.parseBoolean(application
+                .getConfiguration(aggregateRootClass).get(SINGLE_FLIGHT_OPTION))
+                ? Optional.of(new SingleFlight()) : Optional.empty());
+    }
+
+    Optional<SingleFlight> findSingleFlight(Class<?> aggregateRootClass) {
+        return singleFlights.getOrDefault(aggregateRootClass, Optional.empty());
+    }
+
+    Set<Class<?>> getAggregateRootClasses() {
+        Set<Class<?>> aggregateRootClasses = new HashSet<>(idBatchLoaders.keySet());
+        aggregateRootClasses.addAll(singleFlights.keySet());
+        return aggregateRootClasses;
+    }
+}
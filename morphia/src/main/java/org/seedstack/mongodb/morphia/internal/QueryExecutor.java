@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+/**
+ * Executor of the queries that repositories run in parallel. Threads are created on demand and released when idle,
+ * the number of concurrent queries being bounded by the callers and by the connection pool of the client.
+ */
+@Singleton
+public class QueryExecutor implements Executor {
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final ExecutorService executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "morphia-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    @Override
+    public void execute(Runnable command) {
+        executorService.execute(command);
+    }
+
+    void shutdown() {
+        executorService.shutdownNow();
+    }
+}
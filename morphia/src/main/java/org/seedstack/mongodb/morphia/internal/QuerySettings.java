@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.seedstack.business.domain.Repository;
+import org.seedstack.mongodb.morphia.AllowDiskUseOption;
+import org.seedstack.mongodb.morphia.BatchSizeOption;
+import org.seedstack.mongodb.morphia.CollationOption;
+import org.seedstack.mongodb.morphia.CommentOption;
+import org.seedstack.mongodb.morphia.HintOption;
+import org.seedstack.mongodb.morphia.MaxTimeOption;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.EstimatedDocumentCountOptions;
+
+import dev.morphia.DeleteOptions;
+import dev.morphia.query.CountOptions;
+import dev.morphia.query.FindOptions;
+
+/**
+ * Cursor and execution settings of the queries of an aggregate root: the defaults given by its class configuration
+ * ({@code batchSize}, {@code maxTimeMS}, {@code hint}, {@code comment} and {@code allowDiskUse}), overridden by the
+ * repository options of each query. Unset settings are left to the driver and the server. The {@code estimatedSize}
+ * class configuration option selects how the size of the collection is computed.
+ */
+public final class QuerySettings {
+    static final String BATCH_SIZE_OPTION = "batchSize";
+    static final String MAX_TIME_OPTION = "maxTimeMS";
+    static final String HINT_OPTION = "hint";
+    static final String COMMENT_OPTION = "comment";
+    static final String ALLOW_DISK_USE_OPTION = "allowDiskUse";
+    static final String ESTIMATED_SIZE_OPTION = "estimatedSize";
+    private Integer batchSize;
+    private Duration maxTime;
+    private String hint;
+    private String comment;
+    private Boolean allowDiskUse;
+    private Collation collation;
+    private boolean estimatedSize;
+
+    private QuerySettings() {
+    }
+
+    private QuerySettings(QuerySettings source) {
+        this.batchSize = source.batchSize;
+        this.maxTime = source.maxTime;
+        this.hint = source.hint;
+        this.comment = source.comment;
+        this.allowDiskUse = source.allowDiskUse;
+        this.collation = source.collation;
+        this.estimatedSize = source.estimatedSize;
+    }
+
+    /**
+     * Reads the default settings of an aggregate root from its class configuration.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param configuration      the class configuration of the aggregate root.
+     * @return the default settings.
+     */
+    public static QuerySettings of(Class<?> aggregateRootClass, ClassConfiguration<?> configuration) {
+        QuerySettings settings = new QuerySettings();
+        String batchSize = configuration.get(BATCH_SIZE_OPTION);
+        if (batchSize != null) {
+            settings.batchSize = parsePositive(aggregateRootClass, BATCH_SIZE_OPTION, batchSize);
+        }
+        String maxTime = configuration.get(MAX_TIME_OPTION);
+        if (maxTime != null) {
+            settings.maxTime = Duration.ofMillis(parsePositive(aggregateRootClass, MAX_TIME_OPTION, maxTime));
+        }
+        settings.hint = configuration.get(HINT_OPTION);
+        settings.comment = configuration.get(COMMENT_OPTION);
+        String allowDiskUse = configuration.get(ALLOW_DISK_USE_OPTION);
+        if (allowDiskUse != null) {
+            settings.allowDiskUse = Boolean.parseBoolean(allowDiskUse);
+        }
+        settings.estimatedSize = Boolean.parseBoolean(configuration.get(ESTIMATED_SIZE_OPTION));
+        return settings;
+    }
+
+    static int parsePositive(Class<?> aggregateRootClass, String option, String value) {
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw SeedException.createNew(MorphiaErrorCode.INVALID_QUERY_OPTION)
+                .put("aggregate", aggregateRootClass.getName())
+                .put("option", option)
+                .put("value", value);
+    }
+
+    /**
+     * Returns the settings overridden by the options of a query.
+     *
+     * @param options the repository options of the query.
+     * @return the settings of the query.
+     */
+    public QuerySettings with(Repository.Option... options) {
+        QuerySettings settings = new QuerySettings(this);
+        for (Repository.Option option : options) {
+            if (option instanceof BatchSizeOption) {
+                settings.batchSize = ((BatchSizeOption) option).getBatchSize();
+            } else if (option instanceof MaxTimeOption) {
+                settings.maxTime = ((MaxTimeOption) option).getMaxTime();
+            } else if (option instanceof HintOption) {
+                settings.hint = ((HintOption) option).getIndexName();
+            } else if (option instanceof CommentOption) {
+                settings.comment = ((CommentOption) option).getComment();
+            } else if (option instanceof AllowDiskUseOption) {
+                settings.allowDiskUse = ((AllowDiskUseOption) option).isAllowDiskUse();
+            } else if (option instanceof CollationOption) {
+                settings.collation = ((CollationOption) option).getCollation();
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Returns the settings without index hint, for the identifier lookups which are always best served by the
+     * {@code _id} index.
+     *
+     * @return the settings without hint.
+     */
+    public QuerySettings withoutHint() {
+        QuerySettings settings = new QuerySettings(this);
+        settings.hint = null;
+        return settings;
+    }
+
+    /**
+     * Returns the collation explicitly requested for the query.
+     *
+     * @return the collation, null if none was requested.
+     */
+    public Collation getCollation() {
+        return collation;
+    }
+
+    /**
+     * Returns the batch size of the cursors of the query.
+     *
+     * @return the batch size, null if left to the driver.
+     */
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns if the size of the collection is estimated from its metadata instead of counted, as given by the
+     * {@code estimatedSize} class configuration option.
+     *
+     * @return true if the size is estimated, false if it is counted.
+     */
+    public boolean isEstimatedSize() {
+        return estimatedSize;
+    }
+
+    public FindOptions apply(FindOptions findOptions) {
+        if (batchSize != null) {
+            findOptions.batchSize(batchSize);
+        }
+        if (maxTime != null) {
+            findOptions.maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (hint != null) {
+            findOptions.hintString(hint);
+        }
+        if (comment != null) {
+            findOptions.comment(comment);
+        }
+        if (allowDiskUse != null) {
+            findOptions.allowDiskUse(allowDiskUse);
+        }
+        return findOptions;
+    }
+
+    public CountOptions apply(CountOptions countOptions) {
+        if (maxTime != null) {
+            countOptions.maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (hint != null) {
+            countOptions.hintString(hint);
+        }
+        if (comment != null) {
+            countOptions.comment(comment);
+        }
+        return countOptions;
+    }
+
+    public EstimatedDocumentCountOptions apply(EstimatedDocumentCountOptions estimatedDocumentCountOptions) {
+        if (maxTime != null) {
+            estimatedDocumentCountOptions.maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (comment != null) {
+            estimatedDocumentCountOptions.comment(comment);
+        }
+        return estimatedDocumentCountOptions;
+    }
+
+    public DeleteOptions apply(DeleteOptions deleteOptions) {
+        if (hint != null) {
+            deleteOptions.hintString(hint);
+        }
+        if (comment != null) {
+            deleteOptions.comment(comment);
+        }
+        return deleteOptions;
+    }
+
+    public <T> FindIterable<T> apply(FindIterable<T> findIterable) {
+        if (maxTime != null) {
+            findIterable.maxTime(maxTime.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (hint != null) {
+            findIterable.hintString(hint);
+        }
+        if (comment != null) {
+            findIterable.comment(comment);
+        }
+        if (allowDiskUse != null) {
+            findIterable.allowDiskUse(allowDiskUse);
+        }
+        return findIterable;
+    }
+
+    @Override
+    public String toString() {
+        return "QuerySettings{batchSize=" + batchSize + ", maxTime=" + maxTime + ", hint=" + hint + ", comment="
+                + comment + ", allowDiskUse=" + allowDiskUse + ", collation=" + collation + "}";
+    }
+}
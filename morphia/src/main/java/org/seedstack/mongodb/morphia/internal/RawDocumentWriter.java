@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.bson.BsonBinaryReader;
+import org.bson.RawBsonDocument;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriter;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * Writes raw documents to a channel without decoding them into objects. BSON documents are written as is, and JSON
+ * documents are encoded straight from their BSON bytes, one per line, into a buffer reused across documents.
+ */
+public class RawDocumentWriter {
+    private final WritableByteChannel channel;
+    private final JsonWriterSettings jsonWriterSettings;
+    private final ReusableBuffer jsonBuffer;
+    private final Writer jsonCharWriter;
+
+    /**
+     * Creates a writer of BSON documents.
+     *
+     * @param channel the channel to write to.
+     */
+    public RawDocumentWriter(WritableByteChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * Creates a writer of JSON documents, or of BSON documents if no JSON mode is given.
+     *
+     * @param channel  the channel to write to.
+     * @param jsonMode the JSON mode, null to write BSON.
+     */
+    public RawDocumentWriter(WritableByteChannel channel, JsonMode jsonMode) {
+        this.channel = channel;
+        if (jsonMode == null) {
+            this.jsonWriterSettings = null;
+            this.jsonBuffer = null;
+            this.jsonCharWriter = null;
+        } else {
+            this.jsonWriterSettings = JsonWriterSettings.builder().outputMode(jsonMode).build();
+            this.jsonBuffer = new ReusableBuffer();
+            this.jsonCharWriter = new OutputStreamWriter(jsonBuffer, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes a document.
+     *
+     * @param document the document.
+     * @return the number of bytes written.
+     * @throws IOException if the channel cannot be written to.
+     */
+    public int write(RawBsonDocument document) throws IOException {
+        if (jsonWriterSettings == null) {
+            return writeFully(document.getByteBuffer().asNIO());
+        }
+        jsonBuffer.reset();
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            new JsonWriter(jsonCharWriter, jsonWriterSettings).pipe(reader);
+        }
+        jsonCharWriter.write('\n');
+        jsonCharWriter.flush();
+        return writeFully(jsonBuffer.toByteBuffer());
+    }
+
+    private int writeFully(ByteBuffer byteBuffer) throws IOException {
+        int length = byteBuffer.remaining();
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+        return length;
+    }
+
+    private static class ReusableBuffer extends ByteArrayOutputStream {
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
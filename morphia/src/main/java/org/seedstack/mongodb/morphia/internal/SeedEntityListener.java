@@ -8,8 +8,8 @@
 package org.seedstack.mongodb.morphia.internal;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -22,13 +22,27 @@ import dev.morphia.annotations.PostPersist;
 import dev.morphia.annotations.PreLoad;
 import dev.morphia.annotations.PrePersist;
 
+/**
+ * Global Morphia interceptor dispatching lifecycle events to Seed {@link EntityListener}s. The listeners applicable to
+ * an entity class are resolved once per class, in binding order, so dispatching an event does not allocate.
+ */
 @SuppressWarnings("rawtypes")
 class SeedEntityListener implements dev.morphia.EntityListener<Object> {
-    private final Set<EntityListener> listeners;
+    private static final EntityListener[] NO_LISTENERS = new EntityListener[0];
+    private final ClassValue<EntityListener[]> affectedListeners;
 
     @Inject
     SeedEntityListener(Set<EntityListener> listeners) {
-        this.listeners = listeners;
+        EntityListener[] allListeners = listeners.toArray(NO_LISTENERS);
+        this.affectedListeners = new ClassValue<EntityListener[]>() {
+            @Override
+            protected EntityListener[] computeValue(Class<?> entityClass) {
+                EntityListener[] result = Arrays.stream(allListeners)
+                        .filter(listener -> listener.getListenerClass().isAssignableFrom(entityClass))
+                        .toArray(EntityListener[]::new);
+                return result.length == 0 ? NO_LISTENERS : result;
+            }
+        };
     }
 
     @Override
@@ -40,8 +54,7 @@ class SeedEntityListener implements dev.morphia.EntityListener<Object> {
     @Override
     @PostLoad
     public void postLoad(Object entity, Document document, Datastore datastore) {
-        Set<EntityListener> affectedListeners = getAffectedListeners(entity);
-        for (EntityListener listener : affectedListeners) {
+        for (EntityListener listener : getAffectedListeners(entity)) {
             listener.postLoad(entity, document, datastore);
         }
     }
@@ -50,8 +63,7 @@ class SeedEntityListener implements dev.morphia.EntityListener<Object> {
     @Override
     @PostPersist
     public void postPersist(Object entity, Document document, Datastore datastore) {
-        Set<EntityListener> affectedListeners = getAffectedListeners(entity);
-        for (EntityListener listener : affectedListeners) {
+        for (EntityListener listener : getAffectedListeners(entity)) {
             listener.postPersist(entity, document, datastore);
         }
     }
@@ -60,31 +72,21 @@ class SeedEntityListener implements dev.morphia.EntityListener<Object> {
     @Override
     @PreLoad
     public void preLoad(Object entity, Document document, Datastore datastore) {
-        Set<EntityListener> affectedListeners = getAffectedListeners(entity);
-        for (EntityListener listener : affectedListeners) {
+        for (EntityListener listener : getAffectedListeners(entity)) {
             listener.preLoad(entity, document, datastore);
         }
-
     }
 
     @SuppressWarnings("unchecked")
     @Override
     @PrePersist
     public void prePersist(Object entity, Document document, Datastore datastore) {
-        Set<EntityListener> affectedListeners = getAffectedListeners(entity);
-        for (EntityListener listener : affectedListeners) {
+        for (EntityListener listener : getAffectedListeners(entity)) {
             listener.prePersist(entity, document, datastore);
         }
     }
 
-    private boolean checkEntityType(Object entity, EntityListener<?> x) {
-        return x.getListenerClass().isAssignableFrom(entity.getClass());
-    }
-
-    private Set<EntityListener> getAffectedListeners(Object entity) {
-        return listeners.stream().filter(x -> checkEntityType(entity, x))
-                .collect(Collectors.toSet());
-
+    private EntityListener[] getAffectedListeners(Object entity) {
+        return affectedListeners.get(entity.getClass());
     }
-
 }
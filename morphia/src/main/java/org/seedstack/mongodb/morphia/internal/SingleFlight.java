@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.seedstack.mongodb.morphia.SingleFlightStatistics;
+
+/**
+ * Deduplicates identical queries in flight: a query issued while an identical one is running waits for the result of
+ * the latter instead of reaching the server. Queries are identified by a key describing the command, its filter and
+ * its options.
+ */
+public class SingleFlight implements SingleFlightStatistics {
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder sharedCount = new LongAdder();
+
+    /**
+     * Executes a query unless an identical one is in flight, in which case its result is returned.
+     *
+     * @param key   the key of the query.
+     * @param query the query.
+     * @param <V>   the type of the result, which must be immutable as it is shared.
+     * @return the result of the query.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String key, Supplier<V> query) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            sharedCount.increment();
+            try {
+                return (V) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        executedCount.increment();
+        try {
+            V result = query.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @Override
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    @Override
+    public long getSharedCount() {
+        return sharedCount.sum();
+    }
+}
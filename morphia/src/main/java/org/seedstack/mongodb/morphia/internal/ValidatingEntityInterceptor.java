@@ -7,30 +7,111 @@
  */
 package org.seedstack.mongodb.morphia.internal;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
 
 import org.bson.Document;
 import org.seedstack.mongodb.morphia.BaseEntityListener;
+import org.seedstack.mongodb.morphia.MorphiaConfig;
 import org.seedstack.seed.core.internal.validation.VerboseConstraintViolationException;
 
+import com.google.common.collect.MapMaker;
+
 import dev.morphia.Datastore;
 
-class ValidatingEntityInterceptor extends BaseEntityListener<Object> {
+/**
+ * Validates entities before they are written. Classes without any constraint are skipped altogether and, depending on
+ * the configured {@link MorphiaConfig.ValidationMode}, only a sample or only the changed entities are validated.
+ */
+@Singleton
+public class ValidatingEntityInterceptor extends BaseEntityListener<Object> {
+    private final Validator validator;
+    private final MorphiaConfig.ValidationConfig validationConfig;
+    private final ClassValue<Boolean> constrainedClasses = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> entityClass) {
+            return validator.getConstraintsForClass(entityClass).isBeanConstrained();
+        }
+    };
+    private final ConcurrentMap<Class<?>, TimingStatistics> statistics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Document> loadedStates = new MapMaker().weakKeys().makeMap();
 
     @Inject
-    private ValidatorFactory validatorFactory;
+    ValidatingEntityInterceptor(ValidatorFactory validatorFactory, MorphiaConfig morphiaConfig) {
+        this.validator = validatorFactory.getValidator();
+        this.validationConfig = morphiaConfig.getValidation();
+    }
+
+    @Override
+    public void postLoad(Object entity, Document document, Datastore datastore) {
+        if (validationConfig.getMode() == MorphiaConfig.ValidationMode.CHANGED && isConstrained(entity)) {
+            loadedStates.put(entity, document);
+        }
+    }
 
     @Override
     public void prePersist(Object entity, Document document, Datastore datastore) {
-        Set<ConstraintViolation<Object>> result = validatorFactory.getValidator().validate(entity);
-        if (!result.isEmpty()) {
-            throw new VerboseConstraintViolationException(result);
+        switch (validationConfig.getMode()) {
+        case FULL:
+            validate(entity);
+            break;
+        case SAMPLED:
+            if (ThreadLocalRandom.current().nextDouble() < validationConfig.getSampleRate()) {
+                validate(entity);
+            }
+            break;
+        default:
+            // changes can only be detected on the encoded document, see postPersist()
+            break;
         }
+    }
 
+    @Override
+    public void postPersist(Object entity, Document document, Datastore datastore) {
+        // Morphia invokes this callback once the entity is encoded but before the document is written, so a
+        // violation still prevents the write
+        if (validationConfig.getMode() == MorphiaConfig.ValidationMode.CHANGED && isConstrained(entity)) {
+            // documents are compared in full as hashes of different states can collide
+            if (!document.equals(loadedStates.get(entity))) {
+                validate(entity);
+                loadedStates.put(entity, document);
+            }
+        }
+    }
+
+    /**
+     * Returns the validation time of each entity class validated so far.
+     *
+     * @return an immutable snapshot of the validation statistics, keyed by entity class.
+     */
+    public Map<Class<?>, TimingStatistics> getStatistics() {
+        return Collections.unmodifiableMap(new HashMap<>(statistics));
     }
 
+    private boolean isConstrained(Object entity) {
+        return constrainedClasses.get(entity.getClass());
+    }
+
+    private void validate(Object entity) {
+        if (isConstrained(entity)) {
+            long startTime = System.nanoTime();
+            Set<ConstraintViolation<Object>> result = validator.validate(entity);
+            statistics.computeIfAbsent(entity.getClass(), c -> new TimingStatistics())
+                    .record(System.nanoTime() - startTime);
+            if (!result.isEmpty()) {
+                throw new VerboseConstraintViolationException(result);
+            }
+        }
+    }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.spi.SpecificationConverter;
+import org.seedstack.business.spi.SpecificationTranslator;
+
+class BsonAndConverter implements SpecificationConverter<AndSpecification<?>, BsonTranslationContext, Bson> {
+    @Override
+    public Bson convert(AndSpecification<?> specification, BsonTranslationContext context,
+            SpecificationTranslator<BsonTranslationContext, Bson> translator) {
+        List<Bson> operands = new ArrayList<>();
+        for (Specification<?> operand : specification.getSpecifications()) {
+            operands.add(translator.translate(operand, new BsonTranslationContext(context)));
+        }
+        return new Document("$and", operands);
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.FalseSpecification;
+import org.seedstack.business.spi.SpecificationConverter;
+import org.seedstack.business.spi.SpecificationTranslator;
+import org.seedstack.mongodb.morphia.BaseMorphiaRepository;
+
+class BsonFalseConverter implements SpecificationConverter<FalseSpecification<?>, BsonTranslationContext, Bson> {
+    @Override
+    public Bson convert(FalseSpecification<?> specification, BsonTranslationContext context,
+            SpecificationTranslator<BsonTranslationContext, Bson> translator) {
+        // Always false
+        return new Document(BaseMorphiaRepository.ID_KEY, new Document("$exists", false));
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.spi.SpecificationConverter;
+import org.seedstack.business.spi.SpecificationTranslator;
+
+class BsonLessThanConverter<V extends Comparable<? super V>>
+        implements SpecificationConverter<LessThanSpecification<V>, BsonTranslationContext, Bson> {
+    @Override
+    public Bson convert(LessThanSpecification<V> specification, BsonTranslationContext context,
+            SpecificationTranslator<BsonTranslationContext, Bson> translator) {
+        return new Document(context.getProperty(), new Document("$lt",
+                context.encode(specification.getExpectedValue())));
+    }
+}
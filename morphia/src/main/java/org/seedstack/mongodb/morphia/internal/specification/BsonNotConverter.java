@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.spi.SpecificationConverter;
+import org.seedstack.business.spi.SpecificationTranslator;
+
+class BsonNotConverter implements SpecificationConverter<NotSpecification<?>, BsonTranslationContext, Bson> {
+    @Override
+    public Bson convert(NotSpecification<?> specification, BsonTranslationContext context,
+            SpecificationTranslator<BsonTranslationContext, Bson> translator) {
+        Bson filter = translator.translate(specification.getSpecification(), context);
+        if (isFieldCondition(filter)) {
+            // negating the operators of the field keeps the condition usable by an index
+            Map.Entry<String, Object> condition = ((Document) filter).entrySet().iterator().next();
+            return new Document(condition.getKey(), new Document("$not", condition.getValue()));
+        }
+        return new Document("$nor", Collections.singletonList(filter));
+    }
+
+    private boolean isFieldCondition(Bson filter) {
+        if (!(filter instanceof Document) || ((Document) filter).size() != 1) {
+            return false;
+        }
+        Map.Entry<String, Object> condition = ((Document) filter).entrySet().iterator().next();
+        if (condition.getKey().startsWith("$") || !(condition.getValue() instanceof Document)) {
+            return false;
+        }
+        for (String operator : ((Document) condition.getValue()).keySet()) {
+            if (!operator.startsWith("$")) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.spi.BaseSpecificationTranslator;
+
+/**
+ * Translates specifications directly into driver-level filter documents, without building Morphia filters that
+ * would be mapped again on each query. Attribute paths are mapped once per aggregate class by {@link MappedPaths}.
+ */
+class BsonSpecificationTranslator extends BaseSpecificationTranslator<BsonTranslationContext, Bson> {
+    @Override
+    public <S extends Specification<?>> Bson translate(S specification, BsonTranslationContext context) {
+        return convert(specification, context);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.seedstack.business.specification.StringSpecification;
+import org.seedstack.business.spi.SpecificationConverter;
+import org.seedstack.business.spi.SpecificationTranslator;
+
+/**
+ * Translates string specifications like {@link MorphiaStringConverter}, whose patterns and literal prefixes it reuses.
+ */
+abstract class BsonStringConverter<S extends StringSpecification>
+        implements SpecificationConverter<S, BsonTranslationContext, Bson> {
+    private final MorphiaStringConverter<S> patterns;
+
+    BsonStringConverter(MorphiaStringConverter<S> patterns) {
+        this.patterns = patterns;
+    }
+
+    @Override
+    public Bson convert(S specification, BsonTranslationContext context,
+            SpecificationTranslator<BsonTranslationContext, Bson> translator) {
+        String property = context.getProperty();
+        String expectedString = specification.getExpectedString();
+        StringSpecification.Options options = specification.getOptions();
+        if (expectedString == null) {
+            return new Document(property, new Document("$exists", false));
+        } else if (MorphiaStringConverter.hasNoOption(options) && !patterns.isRegex()) {
+            return new Document(property, new Document("$eq", expectedString));
+        } else if (MorphiaStringConverter.isCaseInsensitive(context.getCollation()) && !patterns.isRegex()
+                && MorphiaStringConverter.isCollationEquality(options)) {
+            return new Document(property, new Document("$eq", expectedString));
+        } else {
+            Pattern pattern = patterns.buildRegex(options, expectedString);
+            String prefix = patterns.getLiteralPrefix(options, expectedString);
+            Document operators = new Document();
+            if (context.getCollation() == null && !prefix.isEmpty()) {
+                operators.append("$gte", prefix);
+                String upperBound = MorphiaStringConverter.getPrefixUpperBound(prefix);
+                if (upperBound != null) {
+                    operators.append("$lt", upperBound);
+                }
+            }
+            operators.append("$regex", pattern.pattern());
+            if (options.isIgnoringCase()) {
+                operators.append("$options", "i");
+            }
+            return new Document(property, operators);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Collection;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import com.mongodb.client.model.Collation;
+
+/**
+ * Context of the translation of a specification into a driver-level filter document, holding the field path the
+ * current specification applies to. Values are encoded through the codec registry of the datastore, so that they are
+ * mapped like the values of Morphia filters (enums, embedded entities, custom codecs).
+ */
+public class BsonTranslationContext {
+    private static final String VALUE_KEY = "v";
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private final MappedPaths mappedPaths;
+    private final CodecRegistry codecRegistry;
+    private final Collation collation;
+    private String property;
+
+    /**
+     * Creates a translation context for a query running with the specified collation.
+     *
+     * @param mappedPaths    the field paths of the attributes of the queried class.
+     * @param codecRegistry the codec registry of the datastore, used to encode the values.
+     * @param collation     the collation of the query, null for simple binary comparison.
+     */
+    public BsonTranslationContext(MappedPaths mappedPaths, CodecRegistry codecRegistry, Collation collation) {
+        this.mappedPaths = mappedPaths;
+        this.codecRegistry = codecRegistry;
+        this.collation = collation;
+    }
+
+    public BsonTranslationContext(BsonTranslationContext source) {
+        this.mappedPaths = source.mappedPaths;
+        this.codecRegistry = source.codecRegistry;
+        this.collation = source.collation;
+        this.property = source.property;
+    }
+
+    /**
+     * Returns the document field path the current specification applies to.
+     *
+     * @return the mapped field path.
+     */
+    public String getProperty() {
+        checkState(this.property != null, "No field has been set");
+        return property;
+    }
+
+    /**
+     * Sets the attribute the current specification applies to.
+     *
+     * @param path the attribute path, mapped to its document field path.
+     */
+    public void setProperty(String path) {
+        checkState(this.property == null, "A field is already set");
+        this.property = mappedPaths.get(path);
+    }
+
+    public Collation getCollation() {
+        return collation;
+    }
+
+    /**
+     * Encodes a value of a specification with the codec of its class.
+     *
+     * @param value the value, possibly null.
+     * @return the BSON value.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public BsonValue encode(Object value) {
+        if (value == null) {
+            return BsonNull.VALUE;
+        } else if (value instanceof BsonValue) {
+            return (BsonValue) value;
+        }
+        BsonDocument document = new BsonDocument();
+        BsonDocumentWriter writer = new BsonDocumentWriter(document);
+        writer.writeStartDocument();
+        writer.writeName(VALUE_KEY);
+        Codec codec = codecRegistry.get(value.getClass());
+        ENCODER_CONTEXT.encodeWithChildContext(codec, writer, value);
+        writer.writeEndDocument();
+        return document.get(VALUE_KEY);
+    }
+
+    /**
+     * Encodes the values of a specification, each with the codec of its class.
+     *
+     * @param values the values.
+     * @return the BSON array of the values.
+     */
+    public BsonArray encodeAll(Collection<?> values) {
+        BsonArray array = new BsonArray();
+        for (Object value : values) {
+            array.add(encode(value));
+        }
+        return array;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.ComparableSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.FalseSpecification;
+import org.seedstack.business.specification.IdentitySpecification;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.specification.OrSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.StringEqualSpecification;
+import org.seedstack.business.specification.StringSpecification;
+import org.seedstack.business.specification.TrueSpecification;
+
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationAlternate;
+import com.mongodb.client.model.CollationCaseFirst;
+import com.mongodb.client.model.CollationMaxVariable;
+import com.mongodb.client.model.CollationStrength;
+
+import dev.morphia.Datastore;
+
+/**
+ * Case-insensitive (secondary strength) indexes of an entity collection, used to serve ignore-case equalities with a
+ * collation-aware query instead of a case-insensitive regular expression, which cannot use index bounds. Since a
+ * collation applies to every string comparison of a query, it is only chosen when all the string equalities and ranges
+ * of the specification are ignore-case equalities. Indexes are listed once, on the first ignore-case equality.
+ */
+public class CaseInsensitiveIndexes {
+    private final Datastore datastore;
+    private final Class<?> entityClass;
+    private final MappedPaths mappedPaths;
+    private volatile Map<String, Collation> collationsByField;
+
+    public CaseInsensitiveIndexes(Datastore datastore, Class<?> entityClass, MappedPaths mappedPaths) {
+        this.datastore = datastore;
+        this.entityClass = entityClass;
+        this.mappedPaths = mappedPaths;
+    }
+
+    /**
+     * Returns the collation the query of the specification should run with.
+     *
+     * @param specification the optimized specification.
+     * @return the case-insensitive collation of the index serving the ignore-case equalities of the specification,
+     *         null if the query should use simple binary comparison.
+     */
+    public Collation resolve(Specification<?> specification) {
+        Set<String> paths = new HashSet<>();
+        if (!collectIgnoreCaseEqualities(specification, null, paths) || paths.isEmpty()) {
+            return null;
+        }
+        Map<String, Collation> collations = getCollationsByField();
+        Collation result = null;
+        for (String path : paths) {
+            Collation collation = collations.get(mappedPaths.get(path));
+            if (collation != null) {
+                if (result == null) {
+                    result = collation;
+                } else if (!result.equals(collation)) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the attribute paths of ignore-case equalities.
+     *
+     * @return false if the specification also holds comparisons a collation would alter.
+     */
+    private boolean collectIgnoreCaseEqualities(Specification<?> specification, String path, Set<String> paths) {
+        if (specification instanceof AttributeSpecification) {
+            AttributeSpecification<?, ?> attributeSpecification = (AttributeSpecification<?, ?>) specification;
+            return collectIgnoreCaseEqualities(attributeSpecification.getValueSpecification(),
+                    attributeSpecification.getPath(), paths);
+        } else if (specification instanceof AndSpecification) {
+            return collectIgnoreCaseEqualities(((AndSpecification<?>) specification).getSpecifications(), path, paths);
+        } else if (specification instanceof OrSpecification) {
+            return collectIgnoreCaseEqualities(((OrSpecification<?>) specification).getSpecifications(), path, paths);
+        } else if (specification instanceof NotSpecification) {
+            return collectIgnoreCaseEqualities(((NotSpecification<?>) specification).getSpecification(), path,
+                    paths);
+        } else if (specification instanceof StringSpecification) {
+            StringSpecification stringSpecification = (StringSpecification) specification;
+            if (MorphiaStringConverter.isCollationEquality(stringSpecification)) {
+                paths.add(path);
+                return true;
+            }
+            // regular expressions ignore collation, unlike plain equalities
+            return !(stringSpecification instanceof StringEqualSpecification)
+                    || stringSpecification.getExpectedString() == null;
+        } else if (specification instanceof EqualSpecification) {
+            return !(((EqualSpecification<?>) specification).getExpectedValue() instanceof String);
+        } else if (specification instanceof ComparableSpecification) {
+            return !(((ComparableSpecification<?>) specification).getExpectedValue() instanceof String);
+        } else if (specification instanceof InSpecification) {
+            return ((InSpecification<?>) specification).getExpectedValues().stream()
+                    .noneMatch(String.class::isInstance);
+        } else if (specification instanceof RangeSpecification) {
+            return !(((RangeSpecification<?>) specification).getLowerBound() instanceof String);
+        } else if (specification instanceof IdentitySpecification) {
+            return !(((IdentitySpecification<?, ?>) specification).getExpectedIdentifier() instanceof String);
+        } else {
+            return specification instanceof TrueSpecification || specification instanceof FalseSpecification;
+        }
+    }
+
+    private boolean collectIgnoreCaseEqualities(Specification<?>[] specifications, String path, Set<String> paths) {
+        for (Specification<?> specification : specifications) {
+            if (!collectIgnoreCaseEqualities(specification, path, paths)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Collation> getCollationsByField() {
+        Map<String, Collation> result = collationsByField;
+        if (result == null) {
+            result = new HashMap<>();
+            for (Document index : datastore.getCollection(entityClass).listIndexes()) {
+                Document collation = index.get("collation", Document.class);
+                Collection<String> keys = index.get("key", Document.class).keySet();
+                if (collation != null && !keys.isEmpty() && collation.getInteger("strength", 0)
+                        == CollationStrength.SECONDARY.getIntRepresentation()) {
+                    result.putIfAbsent(keys.iterator().next(), toCollation(collation));
+                }
+            }
+            collationsByField = result;
+        }
+        return result;
+    }
+
+    private Collation toCollation(Document collation) {
+        Collation.Builder builder = Collation.builder()
+                .locale(collation.getString("locale"))
+                .collationStrength(CollationStrength.fromInt(collation.getInteger("strength")))
+                .caseLevel(collation.getBoolean("caseLevel"))
+                .numericOrdering(collation.getBoolean("numericOrdering"))
+                .normalization(collation.getBoolean("normalization"))
+                .backwards(collation.getBoolean("backwards"));
+        if (collation.containsKey("caseFirst")) {
+            builder.collationCaseFirst(CollationCaseFirst.fromString(collation.getString("caseFirst")));
+        }
+        if (collation.containsKey("alternate")) {
+            builder.collationAlternate(CollationAlternate.fromString(collation.getString("alternate")));
+        }
+        if (collation.containsKey("maxVariable")) {
+            builder.collationMaxVariable(CollationMaxVariable.fromString(collation.getString("maxVariable")));
+        }
+        return builder.build();
+    }
+}
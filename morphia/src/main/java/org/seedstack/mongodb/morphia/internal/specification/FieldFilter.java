@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bson.BsonWriter;
+import org.bson.codecs.EncoderContext;
+
+import dev.morphia.Datastore;
+import dev.morphia.query.filters.Filter;
+
+/**
+ * Filter applying several operators to a field in a single criterion (e.g. {@code {field: {$gt: lower, $lt: upper}}})
+ * instead of a conjunction of criteria, so that it can be negated as a whole.
+ */
+class FieldFilter extends Filter {
+    private final Map<String, Object> operators;
+
+    private FieldFilter(String field, Map<String, Object> operators) {
+        super(operators.keySet().iterator().next(), field, operators.values().iterator().next());
+        this.operators = operators;
+    }
+
+    static FieldFilter of(String field, String operator, Object value) {
+        Map<String, Object> operators = new LinkedHashMap<>();
+        operators.put(operator, value);
+        return new FieldFilter(field, operators);
+    }
+
+    static FieldFilter of(String field, String operator1, Object value1, String operator2, Object value2) {
+        Map<String, Object> operators = new LinkedHashMap<>();
+        operators.put(operator1, value1);
+        operators.put(operator2, value2);
+        return new FieldFilter(field, operators);
+    }
+
+    FieldFilter and(String operator, Object value) {
+        Map<String, Object> newOperators = new LinkedHashMap<>(operators);
+        newOperators.put(operator, value);
+        return new FieldFilter(getField(), newOperators);
+    }
+
+    @Override
+    public void encode(Datastore datastore, BsonWriter writer, EncoderContext context) {
+        writer.writeStartDocument(path(datastore.getMapper()));
+        if (isNot()) {
+            writer.writeStartDocument("$not");
+        }
+        Iterator<Map.Entry<String, Object>> iterator = operators.entrySet().iterator();
+        // the first operator holds the value of the filter, which Morphia may have mapped
+        writeNamedValue(iterator.next().getKey(), getValue(datastore), datastore, writer, context);
+        while (iterator.hasNext()) {
+            Map.Entry<String, Object> operator = iterator.next();
+            writeNamedValue(operator.getKey(), operator.getValue(), datastore, writer, context);
+        }
+        if (isNot()) {
+            writer.writeEndDocument();
+        }
+        writer.writeEndDocument();
+    }
+}
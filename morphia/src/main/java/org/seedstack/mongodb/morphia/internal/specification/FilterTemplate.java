@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import com.mongodb.client.model.Collation;
+
+import dev.morphia.query.filters.Filter;
+
+/**
+ * The translation of a {@link SpecificationShape}, building the filter of a specification of that shape from its
+ * values.
+ */
+@FunctionalInterface
+interface FilterTemplate {
+    /**
+     * Builds the filter of a specification.
+     *
+     * @param values    the values of the specification, in the order they are collected by its shape.
+     * @param collation the collation of the query, null for simple binary comparison.
+     * @return the filter.
+     */
+    Filter bind(Object[] values, Collation collation);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.seedstack.business.specification.Specification;
+
+/**
+ * Specification satisfied by any of the expected values, produced by the {@link SpecificationOptimizer} from
+ * disjunctions of equalities.
+ *
+ * @param <V> the type of the values.
+ */
+class InSpecification<V> implements Specification<V> {
+    private final List<V> expectedValues;
+
+    InSpecification(List<V> expectedValues) {
+        this.expectedValues = Collections.unmodifiableList(expectedValues);
+    }
+
+    @Override
+    public boolean isSatisfiedBy(V candidate) {
+        return expectedValues.contains(candidate);
+    }
+
+    List<V> getExpectedValues() {
+        return expectedValues;
+    }
+
+    @Override
+    public String toString() {
+        return "in " + expectedValues;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dev.morphia.mapping.Mapper;
+import dev.morphia.mapping.codec.pojo.EntityModel;
+import dev.morphia.mapping.codec.pojo.PropertyModel;
+
+/**
+ * Document field paths of the attribute paths of an entity class, resolved once through its Morphia mapping. Segments
+ * that are not mapped properties (e.g. array indexes or properties of unmapped types) are kept as is.
+ */
+public class MappedPaths {
+    private final Mapper mapper;
+    private final Class<?> entityClass;
+    private final Map<String, String> fieldPaths = new ConcurrentHashMap<>();
+
+    public MappedPaths(Mapper mapper, Class<?> entityClass) {
+        this.mapper = mapper;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Returns the document field path of an attribute path.
+     *
+     * @param path the dotted attribute path.
+     * @return the dotted field path.
+     */
+    public String get(String path) {
+        return fieldPaths.computeIfAbsent(path, this::resolve);
+    }
+
+    private String resolve(String path) {
+        EntityModel entityModel = mapper.isMappable(entityClass) ? mapper.getEntityModel(entityClass) : null;
+        StringBuilder fieldPath = new StringBuilder();
+        for (String propertyName : path.split("\\.")) {
+            PropertyModel propertyModel = entityModel == null ? null : entityModel.getProperty(propertyName);
+            if (fieldPath.length() > 0) {
+                fieldPath.append('.');
+            }
+            if (propertyModel == null) {
+                fieldPath.append(propertyName);
+                entityModel = null;
+            } else {
+                fieldPath.append(propertyModel.getMappedName());
+                Class<?> propertyType = propertyModel.getNormalizedType();
+                entityModel = mapper.isMappable(propertyType) ? mapper.getEntityModel(propertyType) : null;
+            }
+        }
+        return fieldPath.toString();
+    }
+}
@@ -21,10 +21,14 @@ class MorphiaEqualConverter
     public Filter convert(EqualSpecification<?> specification,
             MorphiaTranslationContext<?> context,
             SpecificationTranslator<MorphiaTranslationContext<?>, Filter> translator) {
-        if (specification.getExpectedValue() == null) {
-            return Filters.exists(context.getProperty()).not();
+        return convert(context.getProperty(), specification.getExpectedValue());
+    }
+
+    static Filter convert(String property, Object expectedValue) {
+        if (expectedValue == null) {
+            return Filters.exists(property).not();
         } else {
-            return Filters.eq(context.getProperty(), specification.getExpectedValue());
+            return Filters.eq(property, expectedValue);
         }
     }
 }
@@ -9,39 +9,119 @@ package org.seedstack.mongodb.morphia.internal.specification;
 
 import java.util.regex.Pattern;
 
+import org.seedstack.business.specification.StringEqualSpecification;
 import org.seedstack.business.specification.StringSpecification;
 import org.seedstack.business.spi.SpecificationConverter;
 import org.seedstack.business.spi.SpecificationTranslator;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+
 import dev.morphia.query.filters.Filter;
 import dev.morphia.query.filters.Filters;
 import dev.morphia.query.filters.RegexFilter;
 
+/**
+ * Translates string specifications into an equality when possible, or into an anchored regular expression. Since a
+ * regular expression only benefits from index bounds when it is case-sensitive, the literal prefix of a case-sensitive
+ * expression is also expressed as a range, and ignore-case equalities become plain equalities when the query runs with
+ * a case-insensitive collation (see {@link CaseInsensitiveIndexes}).
+ */
 abstract class MorphiaStringConverter<S extends StringSpecification>
         implements SpecificationConverter<S, MorphiaTranslationContext<?>, Filter> {
+    private static final int PATTERN_CACHE_SIZE = 1000;
+    private static final Cache<String, Pattern> PATTERNS = CacheBuilder.newBuilder()
+            .maximumSize(PATTERN_CACHE_SIZE)
+            .build();
+
     @Override
     public Filter convert(S specification, MorphiaTranslationContext<?> context,
             SpecificationTranslator<MorphiaTranslationContext<?>, Filter> translator) {
-        if (specification.getExpectedString() == null) {
-            return Filters.exists(context.getProperty()).not();
+        return convert(context.getProperty(), specification.getOptions(), specification.getExpectedString(),
+                context.getCollation());
+    }
+
+    Filter convert(String property, StringSpecification.Options options, String expectedString,
+            Collation collation) {
+        if (expectedString == null) {
+            return Filters.exists(property).not();
+        } else if (hasNoOption(options) && !isRegex()) {
+            return Filters.eq(property, expectedString);
+        } else if (isCaseInsensitive(collation) && !isRegex() && isCollationEquality(options)) {
+            return Filters.eq(property, expectedString);
         } else {
-            StringSpecification.Options options = specification.getOptions();
-            if (hasNoOption(options) && !isRegex()) {
-                return Filters.eq(context.getProperty(), specification.getExpectedString());
-            } else {
-
-                RegexFilter result = Filters.regex(context.getProperty(),
-                        buildRegex(options, specification.getExpectedString()));
-                if (options.isIgnoringCase()) {
-                    result.caseInsensitive();
-                }
-                return result;
+            Pattern pattern = buildRegex(options, expectedString);
+            String prefix = getLiteralPrefix(options, expectedString);
+            if (collation == null && !prefix.isEmpty()) {
+                return buildPrefixFilter(property, prefix, pattern);
+            }
+            RegexFilter result = Filters.regex(property, pattern);
+            if (options.isIgnoringCase()) {
+                result.caseInsensitive();
             }
+            return result;
+        }
+    }
+
+    /**
+     * Indicates if the specification is an ignore-case equality that can be expressed as a plain equality under a
+     * case-insensitive collation.
+     *
+     * @param specification the string specification.
+     * @return true if the specification is an untrimmed ignore-case equality.
+     */
+    static boolean isCollationEquality(StringSpecification specification) {
+        return specification instanceof StringEqualSpecification && specification.getExpectedString() != null
+                && isCollationEquality(specification.getOptions());
+    }
+
+    /**
+     * Indicates if a collation ignores case, i.e. has a primary or secondary strength.
+     *
+     * @param collation the collation of the query, possibly null.
+     * @return true if strings differing only by case are equal under the collation.
+     */
+    static boolean isCaseInsensitive(Collation collation) {
+        return collation != null && collation.getStrength() != null && collation.getStrength()
+                .getIntRepresentation() <= CollationStrength.SECONDARY.getIntRepresentation();
+    }
 
+    static boolean isCollationEquality(StringSpecification.Options options) {
+        return options.isIgnoringCase() && !options.isTrimmed() && !options.isLeadTrimmed()
+                && !options.isTailTrimmed();
+    }
+
+    private Filter buildPrefixFilter(String property, String prefix, Pattern pattern) {
+        String upperBound = getPrefixUpperBound(prefix);
+        if (upperBound == null) {
+            return FieldFilter.of(property, "$gte", prefix, "$regex", pattern);
+        } else {
+            return FieldFilter.of(property, "$gte", prefix, "$lt", upperBound).and("$regex", pattern);
+        }
+    }
+
+    /**
+     * Returns the smallest string greater than all strings starting with the prefix, by incrementing its last
+     * character. Surrogates are left alone since their UTF-16 order differs from the code point order used by MongoDB.
+     */
+    static String getPrefixUpperBound(String prefix) {
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last >= Character.MIN_SURROGATE) {
+            return null;
         }
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
     }
 
-    private Pattern buildRegex(StringSpecification.Options options, String expectedString) {
+    String getLiteralPrefix(StringSpecification.Options options, String expectedString) {
+        if (options.isIgnoringCase() || options.isTrimmed() || options.isLeadTrimmed()) {
+            return "";
+        }
+        return getLiteralPrefix(expectedString);
+    }
+
+    Pattern buildRegex(StringSpecification.Options options, String expectedString) {
         StringBuilder sb = new StringBuilder();
         sb.append("^");
         if (options.isTrimmed() || options.isLeadTrimmed()) {
@@ -52,15 +132,29 @@ abstract class MorphiaStringConverter<S extends StringSpecification>
             sb.append("\\s*");
         }
         sb.append("$");
-        return Pattern.compile(sb.toString());
+        String regex = sb.toString();
+        Pattern pattern = PATTERNS.getIfPresent(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            PATTERNS.put(regex, pattern);
+        }
+        return pattern;
     }
 
-    private boolean hasNoOption(StringSpecification.Options options) {
+    static boolean hasNoOption(StringSpecification.Options options) {
         return !options.isLeadTrimmed() && !options.isTailTrimmed() && !options.isTrimmed()
                 && !options.isIgnoringCase();
     }
 
     abstract String buildRegexMatchingPart(String value);
 
+    /**
+     * Returns the leading part of the value that is matched literally by the regular expression.
+     *
+     * @param value the expected value.
+     * @return the literal prefix, possibly empty.
+     */
+    abstract String getLiteralPrefix(String value);
+
     abstract boolean isRegex();
 }
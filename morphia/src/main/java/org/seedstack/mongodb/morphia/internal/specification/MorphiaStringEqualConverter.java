@@ -17,6 +17,11 @@ class MorphiaStringEqualConverter extends MorphiaStringConverter<StringEqualSpec
         return Pattern.quote(value);
     }
 
+    @Override
+    String getLiteralPrefix(String value) {
+        return value;
+    }
+
     @Override
     boolean isRegex() {
         return false;
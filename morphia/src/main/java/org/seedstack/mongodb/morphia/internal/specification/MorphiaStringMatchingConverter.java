@@ -9,8 +9,10 @@ package org.seedstack.mongodb.morphia.internal.specification;
 
 import org.seedstack.business.specification.StringMatchingSpecification;
 
-
 class MorphiaStringMatchingConverter extends MorphiaStringConverter<StringMatchingSpecification> {
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String REGEX_UNSAFE_CHARACTERS = "|{";
+
     @Override
     String buildRegexMatchingPart(String value) {
         return value
@@ -18,6 +20,23 @@ class MorphiaStringMatchingConverter extends MorphiaStringConverter<StringMatchi
                 .replace(StringMatchingSpecification.MULTI_CHARACTER_WILDCARD, ".*");
     }
 
+    @Override
+    String getLiteralPrefix(String value) {
+        // the expected value is used as a regular expression, so the prefix stops at the first special character and
+        // alternatives or counted repetitions, which may not apply to the whole value, leave no prefix at all
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_UNSAFE_CHARACTERS.indexOf(value.charAt(i)) >= 0) {
+                return "";
+            }
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_SPECIAL_CHARACTERS.indexOf(value.charAt(i)) >= 0) {
+                return value.substring(0, i);
+            }
+        }
+        return value;
+    }
+
     @Override
     boolean isRegex() {
         return true;
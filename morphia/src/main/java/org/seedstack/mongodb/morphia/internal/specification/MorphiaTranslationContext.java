@@ -9,19 +9,34 @@ package org.seedstack.mongodb.morphia.internal.specification;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.mongodb.client.model.Collation;
+
 import dev.morphia.query.Query;
 
 public class MorphiaTranslationContext<T> {
     private final Query<T> query;
+    private final Collation collation;
     private String property;
     private boolean not;
 
     public MorphiaTranslationContext(Query<T> query) {
+        this(query, null);
+    }
+
+    /**
+     * Creates a translation context for a query running with the specified collation.
+     *
+     * @param query     the query.
+     * @param collation the collation of the query, null for simple binary comparison.
+     */
+    public MorphiaTranslationContext(Query<T> query, Collation collation) {
         this.query = query;
+        this.collation = collation;
     }
 
     public MorphiaTranslationContext(MorphiaTranslationContext<T> source) {
         this.query = source.query;
+        this.collation = source.collation;
         this.property = source.property;
         this.not = source.not;
     }
@@ -41,6 +56,10 @@ public class MorphiaTranslationContext<T> {
         return query;
     }
 
+    public Collation getCollation() {
+        return collation;
+    }
+
     private void assertPropertyValue() {
         checkState(this.property != null, "No field has been set");
 
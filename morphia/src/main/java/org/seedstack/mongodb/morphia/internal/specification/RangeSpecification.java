@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import org.seedstack.business.specification.Specification;
+
+/**
+ * Specification satisfied by values strictly between two bounds, produced by the {@link SpecificationOptimizer} from
+ * conjunctions of greater-than and less-than specifications.
+ *
+ * @param <V> the type of the values.
+ */
+class RangeSpecification<V extends Comparable<? super V>> implements Specification<V> {
+    private final V lowerBound;
+    private final V upperBound;
+
+    RangeSpecification(V lowerBound, V upperBound) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(V candidate) {
+        return candidate != null && candidate.compareTo(lowerBound) > 0 && candidate.compareTo(upperBound) < 0;
+    }
+
+    V getLowerBound() {
+        return lowerBound;
+    }
+
+    V getUpperBound() {
+        return upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return "between " + lowerBound + " and " + upperBound;
+    }
+}
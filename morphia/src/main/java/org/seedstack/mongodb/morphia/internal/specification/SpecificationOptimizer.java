@@ -0,0 +1,353 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.ComparableSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.FalseSpecification;
+import org.seedstack.business.specification.GreaterThanSpecification;
+import org.seedstack.business.specification.IdentitySpecification;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.specification.OrSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.TrueSpecification;
+import org.seedstack.mongodb.morphia.BaseMorphiaRepository;
+
+/**
+ * Rewrites specifications before their translation into filters the query planner can serve with tight index bounds:
+ * <ul>
+ * <li>negations are pushed down to the leaves,</li>
+ * <li>nested conjunctions and disjunctions are flattened,</li>
+ * <li>true and false specifications are simplified away, the whole specification being reduced to a
+ * {@link FalseSpecification} when it can never be satisfied,</li>
+ * <li>equalities on the same attribute in a disjunction are folded into a single {@link InSpecification},</li>
+ * <li>greater-than and less-than specifications on the same attribute and of the same type in a conjunction are
+ * merged into the tightest bound or into a single {@link RangeSpecification}, except string bounds.</li>
+ * </ul>
+ * Contradictory bounds are not reduced to false since array attributes can satisfy each bound with a different
+ * element.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class SpecificationOptimizer {
+    private SpecificationOptimizer() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Returns an equivalent specification optimized for translation.
+     *
+     * @param specification the specification to optimize.
+     * @param <T>           the type of the candidates.
+     * @return the optimized specification.
+     */
+    public static <T> Specification<T> optimize(Specification<T> specification) {
+        return (Specification<T>) normalize(specification, false);
+    }
+
+    /**
+     * Indicates if an optimized specification can never be satisfied, in which case no query needs to be issued.
+     *
+     * @param specification the optimized specification.
+     * @return true if the specification is never satisfied.
+     */
+    public static boolean isNeverSatisfied(Specification<?> specification) {
+        return specification instanceof FalseSpecification;
+    }
+
+    /**
+     * Indicates if an optimized specification is always satisfied, in which case no filter needs to be applied.
+     *
+     * @param specification the optimized specification.
+     * @return true if the specification is always satisfied.
+     */
+    public static boolean isAlwaysSatisfied(Specification<?> specification) {
+        return specification instanceof TrueSpecification;
+    }
+
+    private static Specification normalize(Specification specification, boolean negated) {
+        if (specification instanceof TrueSpecification) {
+            return negated ? new FalseSpecification() : specification;
+        } else if (specification instanceof FalseSpecification) {
+            return negated ? new TrueSpecification() : specification;
+        } else if (specification instanceof NotSpecification) {
+            return normalize(((NotSpecification) specification).getSpecification(), !negated);
+        } else if (specification instanceof AndSpecification) {
+            List<Specification> operands = normalizeAll(((AndSpecification) specification).getSpecifications(),
+                    negated);
+            return negated ? or(operands) : and(operands);
+        } else if (specification instanceof OrSpecification) {
+            List<Specification> operands = normalizeAll(((OrSpecification) specification).getSpecifications(),
+                    negated);
+            return negated ? and(operands) : or(operands);
+        } else if (specification instanceof AttributeSpecification) {
+            AttributeSpecification attributeSpecification = (AttributeSpecification) specification;
+            Specification valueSpecification = normalize(attributeSpecification.getValueSpecification(), negated);
+            if (valueSpecification instanceof TrueSpecification || valueSpecification instanceof FalseSpecification) {
+                return valueSpecification;
+            }
+            return new AttributeSpecification(attributeSpecification.getPath(), valueSpecification);
+        } else {
+            return negated ? new NotSpecification(specification) : specification;
+        }
+    }
+
+    private static List<Specification> normalizeAll(Specification[] specifications, boolean negated) {
+        List<Specification> result = new ArrayList<>(specifications.length);
+        for (Specification specification : specifications) {
+            result.add(normalize(specification, negated));
+        }
+        return result;
+    }
+
+    private static Specification and(List<Specification> operands) {
+        List<Specification> flattened = new ArrayList<>();
+        for (Specification operand : operands) {
+            if (operand instanceof FalseSpecification) {
+                return operand;
+            } else if (operand instanceof AndSpecification) {
+                addAll(flattened, ((AndSpecification) operand).getSpecifications());
+            } else if (!(operand instanceof TrueSpecification)) {
+                flattened.add(operand);
+            }
+        }
+        List<Specification> merged = mergeRanges(flattened);
+        if (merged.isEmpty()) {
+            return new TrueSpecification();
+        } else if (merged.size() == 1) {
+            return merged.get(0);
+        } else {
+            return new AndSpecification(merged.toArray(new Specification[0]));
+        }
+    }
+
+    private static Specification or(List<Specification> operands) {
+        List<Specification> flattened = new ArrayList<>();
+        for (Specification operand : operands) {
+            if (operand instanceof TrueSpecification) {
+                return operand;
+            } else if (operand instanceof OrSpecification) {
+                addAll(flattened, ((OrSpecification) operand).getSpecifications());
+            } else if (!(operand instanceof FalseSpecification)) {
+                flattened.add(operand);
+            }
+        }
+        List<Specification> folded = foldEqualities(flattened);
+        if (folded.isEmpty()) {
+            return new FalseSpecification();
+        } else if (folded.size() == 1) {
+            return folded.get(0);
+        } else {
+            return new OrSpecification(folded.toArray(new Specification[0]));
+        }
+    }
+
+    private static void addAll(List<Specification> target, Specification[] specifications) {
+        for (Specification specification : specifications) {
+            target.add(specification);
+        }
+    }
+
+    private static List<Specification> mergeRanges(List<Specification> operands) {
+        Map<List<Object>, Bounds> boundsByPath = new LinkedHashMap<>();
+        List<Object> result = new ArrayList<>();
+        for (Specification operand : operands) {
+            Operand parsed = Operand.of(operand);
+            Specification value = parsed.value;
+            if (isMergeableBound(value)) {
+                // bounds of different types are kept apart as each one only matches values of its own type
+                List<Object> key = Arrays.asList(parsed.pathKey(),
+                        ((ComparableSpecification) value).getExpectedValue().getClass());
+                Bounds bounds = boundsByPath.get(key);
+                if (bounds == null) {
+                    bounds = new Bounds(parsed.path);
+                    boundsByPath.put(key, bounds);
+                    result.add(bounds);
+                }
+                bounds.add(value);
+            } else {
+                result.add(operand);
+            }
+        }
+        return toSpecifications(result);
+    }
+
+    /**
+     * Indicates if a bound can be merged with the bounds of the same type. Strings are never merged as they are
+     * compared according to the collation of the query, which is only resolved after the optimization.
+     */
+    private static boolean isMergeableBound(Specification value) {
+        if (!(value instanceof GreaterThanSpecification) && !(value instanceof LessThanSpecification)) {
+            return false;
+        }
+        Comparable bound = ((ComparableSpecification) value).getExpectedValue();
+        return bound != null && !(bound instanceof CharSequence);
+    }
+
+    private static List<Specification> foldEqualities(List<Specification> operands) {
+        Map<Object, Values> valuesByPath = new LinkedHashMap<>();
+        List<Object> result = new ArrayList<>();
+        for (Specification operand : operands) {
+            Operand parsed = Operand.of(operand);
+            List<Object> expectedValues = parsed.getExpectedValues();
+            if (expectedValues != null) {
+                Values values = valuesByPath.get(parsed.pathKey());
+                if (values == null) {
+                    values = new Values(parsed.path, operand);
+                    valuesByPath.put(parsed.pathKey(), values);
+                    result.add(values);
+                }
+                values.addAll(expectedValues);
+            } else {
+                result.add(operand);
+            }
+        }
+        return toSpecifications(result);
+    }
+
+    private static List<Specification> toSpecifications(List<Object> items) {
+        List<Specification> specifications = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (item instanceof Group) {
+                specifications.add(((Group) item).toSpecification());
+            } else {
+                specifications.add((Specification) item);
+            }
+        }
+        return specifications;
+    }
+
+    /**
+     * An operand decomposed into the attribute path it applies to (null at the value level) and its value
+     * specification.
+     */
+    private static final class Operand {
+        private static final Object VALUE_LEVEL = new Object();
+        private final String path;
+        private final Specification value;
+
+        private Operand(String path, Specification value) {
+            this.path = path;
+            this.value = value;
+        }
+
+        static Operand of(Specification specification) {
+            if (specification instanceof AttributeSpecification) {
+                AttributeSpecification attributeSpecification = (AttributeSpecification) specification;
+                return new Operand(attributeSpecification.getPath(), attributeSpecification.getValueSpecification());
+            } else if (specification instanceof IdentitySpecification) {
+                return new Operand(BaseMorphiaRepository.ID_KEY, new EqualSpecification(
+                        ((IdentitySpecification) specification).getExpectedIdentifier()));
+            } else {
+                return new Operand(null, specification);
+            }
+        }
+
+        Object pathKey() {
+            return path == null ? VALUE_LEVEL : path;
+        }
+
+        List<Object> getExpectedValues() {
+            if (value instanceof EqualSpecification && ((EqualSpecification) value).getExpectedValue() != null) {
+                List<Object> values = new ArrayList<>(1);
+                values.add(((EqualSpecification) value).getExpectedValue());
+                return values;
+            } else if (value instanceof InSpecification) {
+                return ((InSpecification) value).getExpectedValues();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    private abstract static class Group {
+        final String path;
+
+        Group(String path) {
+            this.path = path;
+        }
+
+        Specification toSpecification() {
+            Specification value = toValueSpecification();
+            return path == null ? value : new AttributeSpecification(path, value);
+        }
+
+        abstract Specification toValueSpecification();
+    }
+
+    private static final class Bounds extends Group {
+        private Comparable lowerBound;
+        private Comparable upperBound;
+
+        Bounds(String path) {
+            super(path);
+        }
+
+        void add(Specification value) {
+            Comparable bound = ((ComparableSpecification) value).getExpectedValue();
+            if (value instanceof GreaterThanSpecification) {
+                if (lowerBound == null || bound.compareTo(lowerBound) > 0) {
+                    lowerBound = bound;
+                }
+            } else if (upperBound == null || bound.compareTo(upperBound) < 0) {
+                upperBound = bound;
+            }
+        }
+
+        @Override
+        Specification toValueSpecification() {
+            if (upperBound == null) {
+                return new GreaterThanSpecification(lowerBound);
+            } else if (lowerBound == null) {
+                return new LessThanSpecification(upperBound);
+            } else {
+                return new RangeSpecification(lowerBound, upperBound);
+            }
+        }
+    }
+
+    private static final class Values extends Group {
+        private final Specification original;
+        private final List<Object> expectedValues = new ArrayList<>();
+        private int operandCount;
+
+        Values(String path, Specification original) {
+            super(path);
+            this.original = original;
+        }
+
+        void addAll(List<Object> values) {
+            operandCount++;
+            for (Object value : values) {
+                if (!expectedValues.contains(value)) {
+                    expectedValues.add(value);
+                }
+            }
+        }
+
+        @Override
+        Specification toSpecification() {
+            // a lone equality is kept as is
+            return operandCount == 1 ? original : super.toSpecification();
+        }
+
+        @Override
+        Specification toValueSpecification() {
+            return expectedValues.size() == 1 ? new EqualSpecification(expectedValues.get(0))
+                    : new InSpecification(expectedValues);
+        }
+    }
+}
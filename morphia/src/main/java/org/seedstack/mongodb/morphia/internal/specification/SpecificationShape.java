@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.FalseSpecification;
+import org.seedstack.business.specification.GreaterThanSpecification;
+import org.seedstack.business.specification.IdentitySpecification;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.specification.OrSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.StringEqualSpecification;
+import org.seedstack.business.specification.StringMatchingSpecification;
+import org.seedstack.business.specification.StringSpecification;
+import org.seedstack.business.specification.TrueSpecification;
+import org.seedstack.mongodb.morphia.BaseMorphiaRepository;
+
+import com.mongodb.client.model.Collation;
+
+import dev.morphia.query.filters.Filter;
+import dev.morphia.query.filters.Filters;
+
+/**
+ * The structure of a specification (node types, attribute paths and string options) separated from its literal values,
+ * which are collected depth-first. Specifications of the same shape translate into filters that only differ by their
+ * values, so a shape is compiled once into a {@link FilterTemplate} bound to the values of each specification, once the
+ * {@link TranslationCache} has checked it against the converters. Only the specifications built from the types
+ * translated by this package have a shape.
+ */
+final class SpecificationShape {
+    private static final MorphiaStringConverter<StringEqualSpecification> STRING_EQUAL_CONVERTER =
+            new MorphiaStringEqualConverter();
+    private static final MorphiaStringConverter<StringMatchingSpecification> STRING_MATCHING_CONVERTER =
+            new MorphiaStringMatchingConverter();
+    private final List<Object> key;
+    private final Object[] values;
+
+    private SpecificationShape(List<Object> key, Object[] values) {
+        this.key = key;
+        this.values = values;
+    }
+
+    /**
+     * Computes the shape of a specification.
+     *
+     * @param specification the specification.
+     * @return the shape, null if the specification holds a type unknown to this package or is invalid, in which case
+     *         its translation is left to the converters.
+     */
+    static SpecificationShape of(Specification<?> specification) {
+        List<Object> key = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (describe(specification, false, key, values)) {
+            return new SpecificationShape(key, values.toArray());
+        }
+        return null;
+    }
+
+    /**
+     * Compiles the filter template of the shape of a specification, which must have one.
+     *
+     * @param specification the specification.
+     * @return the template.
+     */
+    static FilterTemplate compile(Specification<?> specification) {
+        return new Compiler().compile(specification, null);
+    }
+
+    /**
+     * Returns the structure of the shape as a list of tokens made of the specification classes, with the operand
+     * counts, attribute paths, string options and null markers, which are compared without being concatenated.
+     *
+     * @return the key of the shape.
+     */
+    List<Object> getKey() {
+        return key;
+    }
+
+    Object[] getValues() {
+        return values;
+    }
+
+    private static boolean describe(Specification<?> specification, boolean inAttribute, List<Object> key,
+            List<Object> values) {
+        Class<?> specificationClass = specification.getClass();
+        key.add(specificationClass);
+        if (specificationClass == AndSpecification.class || specificationClass == OrSpecification.class) {
+            Specification<?>[] operands = specificationClass == AndSpecification.class
+                    ? ((AndSpecification<?>) specification).getSpecifications()
+                    : ((OrSpecification<?>) specification).getSpecifications();
+            // the count makes the key unambiguous as the operands are not delimited
+            key.add(operands.length);
+            for (Specification<?> operand : operands) {
+                if (!describe(operand, inAttribute, key, values)) {
+                    return false;
+                }
+            }
+            return true;
+        } else if (specificationClass == NotSpecification.class) {
+            return describe(((NotSpecification<?>) specification).getSpecification(), inAttribute, key, values);
+        } else if (specificationClass == AttributeSpecification.class) {
+            if (inAttribute) {
+                return false;
+            }
+            key.add(((AttributeSpecification<?, ?>) specification).getPath());
+            return describe(((AttributeSpecification<?, ?>) specification).getValueSpecification(), true, key,
+                    values);
+        } else if (specificationClass == TrueSpecification.class
+                || specificationClass == FalseSpecification.class) {
+            return true;
+        } else if (specificationClass == IdentitySpecification.class) {
+            values.add(((IdentitySpecification<?, ?>) specification).getExpectedIdentifier());
+            return !inAttribute;
+        } else if (!inAttribute) {
+            // the remaining specifications apply to an attribute
+            return false;
+        } else if (specificationClass == EqualSpecification.class) {
+            Object expectedValue = ((EqualSpecification<?>) specification).getExpectedValue();
+            key.add(expectedValue == null);
+            if (expectedValue != null) {
+                values.add(expectedValue);
+            }
+            return true;
+        } else if (specificationClass == GreaterThanSpecification.class) {
+            values.add(((GreaterThanSpecification<?>) specification).getExpectedValue());
+            return true;
+        } else if (specificationClass == LessThanSpecification.class) {
+            values.add(((LessThanSpecification<?>) specification).getExpectedValue());
+            return true;
+        } else if (specificationClass == InSpecification.class) {
+            values.add(((InSpecification<?>) specification).getExpectedValues());
+            return true;
+        } else if (specificationClass == RangeSpecification.class) {
+            values.add(((RangeSpecification<?>) specification).getLowerBound());
+            values.add(((RangeSpecification<?>) specification).getUpperBound());
+            return true;
+        } else if (specificationClass == StringEqualSpecification.class
+                || specificationClass == StringMatchingSpecification.class) {
+            StringSpecification stringSpecification = (StringSpecification) specification;
+            StringSpecification.Options options = stringSpecification.getOptions();
+            key.add((options.isIgnoringCase() ? 1 : 0)
+                    | (options.isTrimmed() ? 2 : 0)
+                    | (options.isLeadTrimmed() ? 4 : 0)
+                    | (options.isTailTrimmed() ? 8 : 0));
+            key.add(stringSpecification.getExpectedString() == null);
+            if (stringSpecification.getExpectedString() != null) {
+                values.add(stringSpecification.getExpectedString());
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Builds the template of a shape, assigning the value slots in the order {@link #describe} collects the values.
+     */
+    private static final class Compiler {
+        private int nextSlot;
+
+        FilterTemplate compile(Specification<?> specification, String property) {
+            Class<?> specificationClass = specification.getClass();
+            if (specificationClass == AndSpecification.class) {
+                FilterTemplate[] operands = compileAll(((AndSpecification<?>) specification).getSpecifications(),
+                        property);
+                return (values, collation) -> Filters.and(bindAll(operands, values, collation));
+            } else if (specificationClass == OrSpecification.class) {
+                FilterTemplate[] operands = compileAll(((OrSpecification<?>) specification).getSpecifications(),
+                        property);
+                return (values, collation) -> Filters.or(bindAll(operands, values, collation));
+            } else if (specificationClass == NotSpecification.class) {
+                FilterTemplate operand = compile(((NotSpecification<?>) specification).getSpecification(), property);
+                return (values, collation) -> operand.bind(values, collation).not();
+            } else if (specificationClass == AttributeSpecification.class) {
+                AttributeSpecification<?, ?> attributeSpecification = (AttributeSpecification<?, ?>) specification;
+                return compile(attributeSpecification.getValueSpecification(), attributeSpecification.getPath());
+            } else if (specificationClass == TrueSpecification.class) {
+                return (values, collation) -> Filters.exists(BaseMorphiaRepository.ID_KEY);
+            } else if (specificationClass == FalseSpecification.class) {
+                return (values, collation) -> Filters.exists(BaseMorphiaRepository.ID_KEY).not();
+            } else if (specificationClass == IdentitySpecification.class) {
+                int slot = nextSlot++;
+                return (values, collation) -> Filters.eq(BaseMorphiaRepository.ID_KEY, values[slot]);
+            } else if (specificationClass == EqualSpecification.class) {
+                if (((EqualSpecification<?>) specification).getExpectedValue() == null) {
+                    return (values, collation) -> MorphiaEqualConverter.convert(property, null);
+                }
+                int slot = nextSlot++;
+                return (values, collation) -> MorphiaEqualConverter.convert(property, values[slot]);
+            } else if (specificationClass == GreaterThanSpecification.class) {
+                int slot = nextSlot++;
+                return (values, collation) -> Filters.gt(property, values[slot]);
+            } else if (specificationClass == LessThanSpecification.class) {
+                int slot = nextSlot++;
+                return (values, collation) -> Filters.lt(property, values[slot]);
+            } else if (specificationClass == InSpecification.class) {
+                int slot = nextSlot++;
+                return (values, collation) -> Filters.in(property, (List<?>) values[slot]);
+            } else if (specificationClass == RangeSpecification.class) {
+                int slot = nextSlot;
+                nextSlot += 2;
+                return (values, collation) -> FieldFilter.of(property, "$gt", values[slot], "$lt", values[slot + 1]);
+            } else {
+                return compileString((StringSpecification) specification, property);
+            }
+        }
+
+        private FilterTemplate compileString(StringSpecification specification, String property) {
+            MorphiaStringConverter<?> converter = specification instanceof StringEqualSpecification
+                    ? STRING_EQUAL_CONVERTER : STRING_MATCHING_CONVERTER;
+            StringSpecification.Options options = specification.getOptions();
+            if (specification.getExpectedString() == null) {
+                return (values, collation) -> converter.convert(property, options, null, collation);
+            }
+            int slot = nextSlot++;
+            return (values, collation) -> converter.convert(property, options, (String) values[slot], collation);
+        }
+
+        private FilterTemplate[] compileAll(Specification<?>[] specifications, String property) {
+            FilterTemplate[] templates = new FilterTemplate[specifications.length];
+            for (int i = 0; i < specifications.length; i++) {
+                templates[i] = compile(specifications[i], property);
+            }
+            return templates;
+        }
+
+        private static Filter[] bindAll(FilterTemplate[] templates, Object[] values,
+                Collation collation) {
+            Filter[] filters = new Filter[templates.length];
+            for (int i = 0; i < templates.length; i++) {
+                filters[i] = templates[i].bind(values, collation);
+            }
+            return filters;
+        }
+    }
+}
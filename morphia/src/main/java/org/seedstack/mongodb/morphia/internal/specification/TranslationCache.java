@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.spi.SpecificationTranslator;
+import org.seedstack.mongodb.morphia.MorphiaConfig;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import dev.morphia.Datastore;
+import dev.morphia.query.filters.Filter;
+
+/**
+ * Cache of the translations of specifications keyed by their {@link SpecificationShape}, so that a specification with
+ * the same shape as a previous one only has its values collected and bound to the cached {@link FilterTemplate}
+ * instead of being translated by the converters. The templates are keyed by shape and collation, and are only used
+ * once approved: the first specification of a shape is translated by the converters, and the template is kept if it
+ * produces the same query document, so that overridden or custom converters are honored. Otherwise the shape is
+ * remembered as rejected and its specifications are always translated by the converters. The number of cached shapes
+ * is given by the {@code mongoDb.morphia.translationCacheSize} config option, zero disabling the cache.
+ */
+public class TranslationCache {
+    private static final FilterTemplate REJECTED = (values, collation) -> {
+        throw new IllegalStateException("Rejected templates cannot be bound");
+    };
+    private final int maximumSize;
+    private final Cache<List<Object>, FilterTemplate> templates;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    @Inject
+    public TranslationCache(MorphiaConfig morphiaConfig) {
+        this.maximumSize = morphiaConfig.getTranslationCacheSize();
+        this.templates = CacheBuilder.newBuilder()
+                .maximumSize(Math.max(maximumSize, 0))
+                .build();
+    }
+
+    /**
+     * Translates an optimized specification into a filter.
+     *
+     * @param specification the specification.
+     * @param context       the translation context of the query.
+     * @param translator    the translator of the specifications without an approved template.
+     * @param datastore     the datastore of the query, used to compare a new template with the translator.
+     * @return the filter.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Filter translate(Specification<?> specification, MorphiaTranslationContext<?> context,
+            SpecificationTranslator<MorphiaTranslationContext, Filter> translator, Datastore datastore) {
+        SpecificationShape shape = maximumSize > 0 ? SpecificationShape.of(specification) : null;
+        if (shape == null) {
+            missCount.increment();
+            return translator.translate(specification, context);
+        }
+        List<Object> key = Arrays.asList(shape.getKey(), context.getCollation());
+        FilterTemplate template = templates.getIfPresent(key);
+        if (template == null) {
+            missCount.increment();
+            Filter filter = translator.translate(specification, context);
+            templates.put(key, approve(SpecificationShape.compile(specification), shape, filter, context, datastore));
+            return filter;
+        } else if (template == REJECTED) {
+            missCount.increment();
+            return translator.translate(specification, context);
+        } else {
+            hitCount.increment();
+            return template.bind(shape.getValues(), context.getCollation());
+        }
+    }
+
+    private FilterTemplate approve(FilterTemplate template, SpecificationShape shape, Filter filter,
+            MorphiaTranslationContext<?> context, Datastore datastore) {
+        Class<?> entityClass = context.getQuery().getEntityClass();
+        try {
+            Filter candidate = template.bind(shape.getValues(), context.getCollation());
+            if (datastore.find(entityClass).filter(candidate).toDocument()
+                    .equals(datastore.find(entityClass).filter(filter).toDocument())) {
+                return template;
+            }
+        } catch (RuntimeException e) {
+            // a template failing where the translator succeeds is not usable either
+        }
+        return REJECTED;
+    }
+
+    /**
+     * Returns the number of translations served by a cached template.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of translations that could not be served by a cached template, either because the shape was
+     * not cached yet, because its template was rejected or because the specification has no shape.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of cached shapes.
+     *
+     * @return the number of cached templates.
+     */
+    public long getSize() {
+        return templates.size();
+    }
+}
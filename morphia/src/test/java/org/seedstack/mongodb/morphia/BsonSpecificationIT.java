@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import org.junit.Test;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.dsl.SpecificationBuilder;
+import org.seedstack.business.spi.SpecificationTranslator;
+import org.seedstack.mongodb.morphia.fixtures.product.PictureURL;
+import org.seedstack.mongodb.morphia.fixtures.product.Product;
+import org.seedstack.mongodb.morphia.internal.DatastoreFactory;
+import org.seedstack.mongodb.morphia.internal.specification.MorphiaTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.TranslationCache;
+import org.seedstack.seed.testing.ConfigurationProperty;
+import dev.morphia.Datastore;
+import dev.morphia.query.Query;
+import dev.morphia.query.filters.Filter;
+
+/**
+ * Runs the specification tests with the direct BSON filter translation.
+ */
+@ConfigurationProperty(name = "mongoDb.morphia.filterTranslation", value = "BSON")
+public class BsonSpecificationIT extends SpecificationIT {
+    @Inject
+    @Morphia
+    private Repository<Product, Long> repository;
+    @Inject
+    private SpecificationBuilder specificationBuilder;
+    @Inject
+    private TranslationCache translationCache;
+    @Inject
+    private SpecificationTranslator<MorphiaTranslationContext, Filter> specificationTranslator;
+    @Inject
+    private DatastoreFactory datastoreFactory;
+
+    @Override
+    @Test
+    public void testTranslationCache() {
+        long hitCount = translationCache.getHitCount();
+        long missCount = translationCache.getMissCount();
+        for (String designation : Arrays.asList("product?", "prod*")) {
+            repository.get(specificationBuilder.of(Product.class)
+                    .property("designation").matching(designation)
+                    .and()
+                    .property("price").lessThan(6d)
+                    .build()
+            ).count();
+        }
+        // the BSON translation bypasses the cache
+        assertThat(translationCache.getHitCount()).isEqualTo(hitCount);
+        assertThat(translationCache.getMissCount()).isEqualTo(missCount);
+    }
+
+    @Test
+    public void testSameResultsAsMorphiaTranslation() {
+        List<Specification<Product>> specifications = Arrays.asList(
+                specificationBuilder.of(Product.class)
+                        .property("mainPicture").equalTo(new PictureURL("url2"))
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .property("pictures.url.url").equalTo("picture4").trimming()
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .property("designation").equalTo("PRODUCT3").ignoringCase()
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .property("designation").matching("product?")
+                        .and()
+                        .property("price").greaterThan(1d)
+                        .and()
+                        .property("price").lessThan(6d)
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .property("price").equalTo(1d)
+                        .or()
+                        .property("price").equalTo(5d)
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .identity().is(3L)
+                        .build(),
+                specificationBuilder.of(Product.class)
+                        .property("pictures.url.url").not().equalTo("picture2")
+                        .build()
+        );
+        Datastore datastore = datastoreFactory.createDatastore(Product.class);
+        for (Specification<Product> specification : specifications) {
+            Query<Product> query = datastore.find(Product.class);
+            query.filter(specificationTranslator.translate(specification, new MorphiaTranslationContext<>(query)));
+            assertThat(ids(repository.get(specification).collect(Collectors.toList())))
+                    .as(specification.toString())
+                    .isEqualTo(ids(query.iterator().toList()));
+        }
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -24,7 +24,9 @@ import org.seedstack.mongodb.morphia.fixtures.dummyobject.Dummy5;
 import org.seedstack.mongodb.morphia.fixtures.dummyobject.Dummy6;
 import org.seedstack.mongodb.morphia.fixtures.user.Address;
 import org.seedstack.mongodb.morphia.fixtures.user.User;
+import org.seedstack.mongodb.morphia.internal.DatastoreFactory;
 import org.seedstack.mongodb.morphia.internal.MorphiaErrorCode;
+import org.seedstack.mongodb.morphia.internal.ValidatingEntityInterceptor;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.testing.junit4.SeedITRunner;
 
@@ -43,6 +45,10 @@ public class MorphiaIT {
     private Datastore datastore;
     @Inject
     private Injector injector;
+    @Inject
+    private DatastoreFactory datastoreFactory;
+    @Inject
+    private ValidatingEntityInterceptor validatingEntityInterceptor;
 
     @Test
     public void datastoreAccess() {
@@ -54,6 +60,13 @@ public class MorphiaIT {
         Assertions.assertThat(keyUser).isNotNull();
     }
 
+    @Test
+    public void datastoreIsShared() {
+        assertThat(datastoreFactory.createDatastore(User.class)).isSameAs(datastore);
+        assertThat(datastoreFactory.createDatastore("client1", "db1")).isSameAs(datastore);
+        assertThat(datastoreFactory.getDatastoreCreationTimes()).hasSize(datastoreFactory.getDatastoreCount());
+    }
+
     @Test(expected = ConstraintViolationException.class)
     public void validationIsWorking() {
         User user = new User(1L, null, "menvuça", new Address("France", "78300", "Poissy", "avenue de l'europe", 1));
@@ -61,6 +74,15 @@ public class MorphiaIT {
         fail("should not have saved");
     }
 
+    @Test
+    public void validationTimeIsRecorded() {
+        datastore.save(new User(2L,
+                "Gerard",
+                "menvuça",
+                new Address("France", "78300", "Poissy", "avenue de l'europe", 1)));
+        assertThat(validatingEntityInterceptor.getStatistics().get(User.class).getCount()).isGreaterThan(0);
+    }
+
     @Test
     public void repositoryInjectionTestNoClientForAggregate() {
         try {
@@ -118,12 +140,12 @@ public class MorphiaIT {
     }
 
     @Test
-    public void repositoryInjectionAsyncClient() {
+    public void repositoryInjectionReactiveClient() {
         try {
             injector.getInstance(getMorphiaRepositoryOf(Dummy6.class));
         } catch (ProvisionException e) {
             assertThat(e.getCause().getMessage())
-                    .isEqualTo(SeedException.createNew(MorphiaErrorCode.ASYNC_CLIENT_NOT_SUPPORTED).getMessage());
+                    .isEqualTo(SeedException.createNew(MorphiaErrorCode.REACTIVE_CLIENT_NOT_SUPPORTED).getMessage());
         }
     }
 }
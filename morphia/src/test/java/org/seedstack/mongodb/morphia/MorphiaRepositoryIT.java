@@ -11,12 +11,31 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
 import com.google.inject.Inject;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.seedstack.business.domain.AggregateExistsException;
 import org.seedstack.business.domain.AggregateNotFoundException;
+import org.seedstack.business.domain.LimitOption;
 import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.SortOption;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.mongodb.morphia.fixtures.inventory.Stock;
+import org.seedstack.mongodb.morphia.fixtures.inventory.Warehouse;
 import org.seedstack.mongodb.morphia.fixtures.user.Address;
 import org.seedstack.mongodb.morphia.fixtures.user.User;
 import org.seedstack.seed.testing.junit4.SeedITRunner;
@@ -26,10 +45,20 @@ public class MorphiaRepositoryIT {
     @Inject
     @Morphia
     private Repository<User, Long> userRepository;
+    @Inject
+    @Morphia
+    private Repository<Stock, Long> stockRepository;
+    @Inject
+    @Morphia
+    private Repository<Warehouse, Long> warehouseRepository;
+    @Inject
+    private MorphiaStatistics morphiaStatistics;
 
     @Before
     public void setUp() throws Exception {
         userRepository.clear();
+        stockRepository.clear();
+        warehouseRepository.clear();
     }
 
     @Test
@@ -77,6 +106,65 @@ public class MorphiaRepositoryIT {
         fail("should not have updated");
     }
 
+    @Test
+    public void updateIncrementsVersion() {
+        stockRepository.add(new Stock(1L, 10));
+        Stock stock = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        stock.setQuantity(9);
+        stockRepository.update(stock);
+        assertThat(stock.getVersion()).isEqualTo(2L);
+        assertThat(stockRepository.get(1L).map(Stock::getQuantity)).hasValue(9);
+    }
+
+    @Test
+    public void updateStaleVersion() {
+        stockRepository.add(new Stock(1L, 10));
+        Stock stock1 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        Stock stock2 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        stock1.setQuantity(9);
+        stockRepository.update(stock1);
+        stock2.setQuantity(8);
+        try {
+            stockRepository.update(stock2);
+            fail("should have failed");
+        } catch (AggregateVersionConflictException e) {
+            assertThat(e.getExpectedVersion()).isEqualTo(1L);
+            assertThat(stock2.getVersion()).isEqualTo(1L);
+        }
+        assertThat(stockRepository.get(1L).map(Stock::getQuantity)).hasValue(9);
+    }
+
+    @Test
+    public void updateUnchangedIsSkipped() {
+        stockRepository.add(new Stock(1L, 10));
+        Stock stock = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        stockRepository.update(stock);
+        assertThat(stock.getVersion()).isEqualTo(1L);
+        stock.setQuantity(9);
+        stockRepository.update(stock);
+        stockRepository.update(stock);
+        assertThat(stock.getVersion()).isEqualTo(2L);
+        assertThat(stockRepository.get(1L).map(Stock::getVersion)).hasValue(2L);
+    }
+
+    @Test
+    public void addOrUpdateAfterRemoval() {
+        warehouseRepository.add(new Warehouse(1L, "A"));
+        Warehouse warehouse = warehouseRepository.get(1L).orElseThrow(IllegalStateException::new);
+        warehouse.addLocation("B");
+        warehouseRepository.remove(1L);
+        warehouseRepository.addOrUpdate(warehouse);
+        warehouse.addLocation("C");
+        warehouseRepository.update(warehouse);
+        assertThat(warehouseRepository.get(1L).map(Warehouse::getLocations))
+                .hasValue(Arrays.asList("A", "B", "C"));
+    }
+
+    @Test(expected = AggregateNotFoundException.class)
+    public void updateNonExistentVersioned() {
+        stockRepository.update(new Stock(1L, 10));
+    }
+
     @Test
     public void clear() {
         userRepository.add(createUser(400L, "Robert", "SMITH"));
@@ -102,6 +190,365 @@ public class MorphiaRepositoryIT {
         assertThat(userRepository.size()).isEqualTo(2);
     }
 
+    @Test
+    public void addAllAndRemoveAll() {
+        BulkWriteReport report = getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "someFirstName1", "someLastName1"),
+                createUser(2L, "someFirstName2", "someLastName2"),
+                createUser(3L, "someFirstName3", "someLastName3")));
+        assertThat(report.getSucceededCount()).isEqualTo(3);
+        assertThat(report.hasFailures()).isFalse();
+        assertThat(userRepository.size()).isEqualTo(3);
+        assertThat(getBaseRepository().removeAll(Arrays.asList(1L, 3L, 4L))).isEqualTo(2);
+        assertThat(userRepository.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void addAllReportsExistingAggregates() {
+        userRepository.add(createUser(2L, "someFirstName2", "someLastName2"));
+        BulkWriteReport report = getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "someFirstName1", "someLastName1"),
+                createUser(2L, "someFirstName2", "someLastName2"),
+                createUser(3L, "someFirstName3", "someLastName3")).stream(), false);
+        assertThat(report.isComplete()).isTrue();
+        assertThat(report.getSucceededCount()).isEqualTo(2);
+        assertThat(report.getFailures()).containsOnlyKeys(1);
+        assertThat(report.getFailures().get(1)).isInstanceOf(AggregateExistsException.class);
+        assertThat(report.isWritten(2)).isTrue();
+    }
+
+    @Test
+    public void addOrUpdateAll() {
+        userRepository.add(createUser(1L, "someFirstName1", "someLastName1"));
+        BulkWriteReport report = getBaseRepository().addOrUpdateAll(Arrays.asList(
+                createUser(1L, "otherFirstName1", "someLastName1"),
+                createUser(2L, "someFirstName2", "someLastName2")));
+        assertThat(report.getSucceededCount()).isEqualTo(2);
+        assertThat(userRepository.get(1L).map(User::getName)).hasValue("otherFirstName1");
+        assertThat(userRepository.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void addOrUpdateAllChecksVersions() {
+        stockRepository.add(new Stock(1L, 10));
+        stockRepository.add(new Stock(2L, 20));
+        Stock stock1 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        Stock previousStock1 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        Stock staleStock2 = stockRepository.get(2L).orElseThrow(IllegalStateException::new);
+        Stock stock2 = stockRepository.get(2L).orElseThrow(IllegalStateException::new);
+        stock2.setQuantity(19);
+        stockRepository.update(stock2);
+        stock1.setQuantity(9);
+        staleStock2.setQuantity(18);
+
+        BulkWriteReport report = getStockRepository().addOrUpdateAll(
+                Stream.of(stock1, staleStock2, new Stock(3L, 30)), false);
+        assertThat(report.getSucceededCount()).isEqualTo(2);
+        assertThat(report.getFailures()).containsOnlyKeys(1);
+        assertThat(report.getFailures().get(1)).isInstanceOf(AggregateVersionConflictException.class);
+        assertThat(stock1.getVersion()).isEqualTo(2L);
+        assertThat(staleStock2.getVersion()).isEqualTo(1L);
+        assertThat(stockRepository.get(2L).map(Stock::getQuantity)).hasValue(19);
+        assertThat(stockRepository.get(3L).map(Stock::getVersion)).hasValue(1L);
+
+        previousStock1.setQuantity(7);
+        try {
+            stockRepository.update(previousStock1);
+            fail("should have failed");
+        } catch (AggregateVersionConflictException e) {
+            assertThat(e.getExpectedVersion()).isEqualTo(1L);
+        }
+        stock1.setQuantity(8);
+        stockRepository.update(stock1);
+        assertThat(stock1.getVersion()).isEqualTo(3L);
+        assertThat(stockRepository.get(1L).map(Stock::getQuantity)).hasValue(8);
+    }
+
+    @Test
+    public void keysetPagination() {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Jane", "DOE"),
+                createUser(3L, "John", "DOE"),
+                createUser(4L, "Roberta", "SMITH"),
+                createUser(5L, "Mary", "BROWN")));
+        SortOption sortOption = new SortOption().add("lastname", SortOption.Direction.DESCENDING);
+        List<Long> ids = new ArrayList<>();
+        KeysetPage<User> page = getBaseRepository().get(Specification.any(), KeysetOption.sortedBy(sortOption), 2);
+        page.getItems().forEach(user -> ids.add(user.getId()));
+        while (page.hasNext()) {
+            page = getBaseRepository().get(Specification.any(),
+                    KeysetOption.after(sortOption, page.getNextToken()), 2);
+            page.getItems().forEach(user -> ids.add(user.getId()));
+        }
+        assertThat(ids).containsExactly(4L, 1L, 3L, 2L, 5L);
+    }
+
+    @Test
+    public void keysetPaginationRejectsNullSortAttributes() {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Jane", null),
+                createUser(3L, "John", "DOE")));
+        SortOption sortOption = new SortOption().add("lastname", SortOption.Direction.ASCENDING);
+        try {
+            getBaseRepository().get(Specification.any(), KeysetOption.sortedBy(sortOption), 1);
+            fail("should not have created a token holding a null value");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).contains("null sort attributes");
+        }
+    }
+
+    @Test
+    public void projection() {
+        userRepository.add(createUser(1L, "Robert", "SMITH"));
+        User user = getBaseRepository().get(1L, ProjectionOption.include("lastname"))
+                .orElseThrow(IllegalStateException::new);
+        assertThat(user.getLastname()).isEqualTo("SMITH");
+        assertThat(user.getName()).isNull();
+        assertThat(user.getAddress()).isNull();
+        try {
+            userRepository.update(user);
+            fail("should not have updated a partially loaded aggregate");
+        } catch (IllegalStateException e) {
+            assertThat(userRepository.get(1L).map(User::getName)).hasValue("Robert");
+        }
+        assertThat(userRepository.get(Specification.any(), ProjectionOption.exclude("address"))
+                .map(User::getAddress)).containsOnlyNulls();
+    }
+
+    @Test
+    public void projectionIsNotBulkWritten() {
+        userRepository.add(createUser(1L, "Robert", "SMITH"));
+        User user = getBaseRepository().get(1L, ProjectionOption.include("lastname"))
+                .orElseThrow(IllegalStateException::new);
+        try {
+            getBaseRepository().addOrUpdateAll(Arrays.asList(user, createUser(2L, "Jane", "DOE")));
+            fail("should not have written a partially loaded aggregate");
+        } catch (IllegalStateException e) {
+            assertThat(userRepository.get(1L).map(User::getName)).hasValue("Robert");
+            assertThat(userRepository.contains(2L)).isFalse();
+        }
+    }
+
+    @Test
+    public void queryOptions() {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "JONES")));
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        assertThat(userRepository.get(smiths, new BatchSizeOption(1), new MaxTimeOption(Duration.ofSeconds(10)),
+                new HintOption("_id_"), new CommentOption("queryOptions"), new AllowDiskUseOption(true)))
+                .extracting(User::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(getBaseRepository().count(smiths, new HintOption("_id_"), new CommentOption("queryOptions")))
+                .isEqualTo(2);
+        assertThat(getBaseRepository().contains(smiths, new MaxTimeOption(Duration.ofSeconds(10)))).isTrue();
+        assertThat(getBaseRepository().remove(smiths, new CommentOption("queryOptions"))).isEqualTo(2);
+        assertThat(userRepository.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void collationOption() {
+        userRepository.add(createUser(1L, "Robert", "SMITH"));
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("smith"));
+        Collation caseInsensitive = Collation.builder()
+                .locale("en")
+                .collationStrength(CollationStrength.SECONDARY)
+                .build();
+        assertThat(getBaseRepository().count(smiths)).isZero();
+        assertThat(getBaseRepository().count(smiths, new CollationOption(caseInsensitive))).isEqualTo(1);
+    }
+
+    @Test
+    public void countWithLimit() {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "SMITH")));
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        assertThat(getBaseRepository().count(smiths, new LimitOption(2))).isEqualTo(2);
+        assertThat(getBaseRepository().count(smiths, new LimitOption(5), new HintOption("_id_"))).isEqualTo(3);
+        assertThat(morphiaStatistics.getCounts(User.class).getCount()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void estimatedSize() {
+        stockRepository.add(new Stock(1L, 10));
+        stockRepository.add(new Stock(2L, 5));
+        assertThat(stockRepository.size()).isEqualTo(2);
+        BaseMorphiaRepository<Stock, Long> baseStockRepository = (BaseMorphiaRepository<Stock, Long>) stockRepository;
+        CountEstimate estimate = baseStockRepository.estimateSize(Duration.ZERO);
+        assertThat(estimate.getCount()).isEqualTo(2);
+        stockRepository.add(new Stock(3L, 1));
+        assertThat(baseStockRepository.estimateSize(Duration.ofMinutes(1))).isSameAs(estimate);
+        assertThat(baseStockRepository.estimateSize(Duration.ZERO).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void aggregateCache() {
+        stockRepository.add(new Stock(1L, 10));
+        Stock stock1 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        Stock stock2 = stockRepository.get(1L).orElseThrow(IllegalStateException::new);
+        assertThat(stock2).isNotSameAs(stock1);
+        AggregateCacheStatistics cache = morphiaStatistics.getCache(Stock.class)
+                .orElseThrow(IllegalStateException::new);
+        long loadCount = cache.getLoadCount();
+        assertThat(stockRepository.get(1L)).isPresent();
+        assertThat(cache.getLoadCount()).isEqualTo(loadCount);
+        stock1.setQuantity(9);
+        stockRepository.update(stock1);
+        assertThat(stockRepository.get(1L).map(Stock::getQuantity)).hasValue(9);
+        assertThat(cache.getLoadCount()).isEqualTo(loadCount + 1);
+        stockRepository.remove(1L);
+        assertThat(stockRepository.get(1L)).isNotPresent();
+        assertThat(morphiaStatistics.getCache(User.class)).isNotPresent();
+    }
+
+    @Test
+    public void coalescedGets() throws Exception {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "JONES")));
+        List<CompletableFuture<Optional<User>>> futures = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            long userId = id;
+            futures.add(CompletableFuture.supplyAsync(() -> userRepository.get(userId)));
+        }
+        assertThat(futures.get(0).get().map(User::getName)).hasValue("Robert");
+        assertThat(futures.get(1).get().map(User::getName)).hasValue("Roberta");
+        assertThat(futures.get(2).get().map(User::getName)).hasValue("Bob");
+        assertThat(futures.get(3).get()).isNotPresent();
+        IdBatchStatistics idBatches = morphiaStatistics.getIdBatches(User.class)
+                .orElseThrow(IllegalStateException::new);
+        assertThat(idBatches.getBatchSizes().getCount()).isBetween(1L, 4L);
+        assertThat(idBatches.getWaitTimes().getCount()).isGreaterThanOrEqualTo(4);
+        assertThat(getBaseRepository().count(new AttributeSpecification<>("lastname",
+                new EqualSpecification<>("SMITH")))).isEqualTo(2);
+        assertThat(morphiaStatistics.getSingleFlight(User.class).map(SingleFlightStatistics::getExecutedCount)
+                .orElse(0L))
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void getAll() {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "JONES"),
+                createUser(4L, "Jane", "DOE")));
+        List<Long> missingIds = new ArrayList<>();
+        try (Stream<User> users = getBaseRepository().getAll(Stream.of(4L, 9L, 2L, 3L, 1L), missingIds::add)) {
+            assertThat(users).extracting(User::getId).containsExactly(4L, 2L, 3L, 1L);
+        }
+        assertThat(missingIds).containsExactly(9L);
+        assertThat(getBaseRepository().getAll(Arrays.asList(3L, 1L))).extracting(User::getId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    public void partitionedScan() {
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            users.add(createUser(id, "Robert" + id, id % 2 == 0 ? "SMITH" : "JONES"));
+        }
+        getBaseRepository().addAll(users);
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        try (Stream<User> scanned = getBaseRepository().scan(smiths, 4, new BatchSizeOption(5))) {
+            assertThat(scanned.isParallel()).isTrue();
+            assertThat(scanned.map(User::getId)).hasSize(25).allMatch(id -> id % 2 == 0).doesNotHaveDuplicates();
+        }
+        try (Stream<User> scanned = getBaseRepository().scan(smiths, "name", 3)) {
+            assertThat(scanned.map(User::getId)).hasSize(25).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    public void prefetch() {
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            users.add(createUser(id, "Robert" + id, id % 2 == 0 ? "SMITH" : "JONES"));
+        }
+        getBaseRepository().addAll(users);
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        long prefetchedBefore = morphiaStatistics.getPrefetching(User.class)
+                .map(prefetching -> prefetching.getPrefetchDepths().getCount()).orElse(0L);
+        try (Stream<User> prefetched = userRepository.get(smiths, new PrefetchOption(1024),
+                new SortOption().add("id", SortOption.Direction.DESCENDING), new LimitOption(10))) {
+            assertThat(prefetched).extracting(User::getId)
+                    .containsExactly(50L, 48L, 46L, 44L, 42L, 40L, 38L, 36L, 34L, 32L);
+        }
+        try (Stream<User> prefetched = userRepository.get(smiths, new PrefetchOption())) {
+            assertThat(prefetched.map(User::getId)).hasSize(25).doesNotHaveDuplicates();
+        }
+        PrefetchingStatistics statistics = morphiaStatistics.getPrefetching(User.class)
+                .orElseThrow(IllegalStateException::new);
+        assertThat(statistics.getPrefetchDepths().getCount() - prefetchedBefore).isEqualTo(35);
+        assertThat(statistics.getMeanDocumentSize()).isGreaterThan(0);
+        assertThat(statistics.getStallRatio()).isBetween(0d, 1d);
+    }
+
+    @Test
+    public void export() throws Exception {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "JONES")));
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExportReport jsonReport = getBaseRepository().export(smiths, ExportFormat.RELAXED_JSON, outputStream,
+                new SortOption().add("id"));
+        String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"_id\": 1,").contains("\"Robert\"");
+        assertThat(lines[1]).startsWith("{\"_id\": 2,").contains("\"Roberta\"");
+        assertThat(jsonReport.getDocumentCount()).isEqualTo(2);
+        assertThat(jsonReport.getWrittenBytes()).isEqualTo(outputStream.size());
+        assertThat(jsonReport.getDocumentSizes().getCount()).isEqualTo(2);
+
+        outputStream.reset();
+        ExportReport bsonReport = getBaseRepository().export(smiths, ExportFormat.BSON, outputStream);
+        assertThat(bsonReport.getDocumentCount()).isEqualTo(2);
+        assertThat(bsonReport.getWrittenBytes()).isEqualTo(bsonReport.getDocumentBytes())
+                .isEqualTo(outputStream.size());
+    }
+
+    @Test
+    public void async() throws Exception {
+        getBaseRepository().addAll(Arrays.asList(
+                createUser(1L, "Robert", "SMITH"),
+                createUser(2L, "Roberta", "SMITH"),
+                createUser(3L, "Bob", "JONES")));
+        AsyncRepository<User, Long> asyncRepository = getBaseRepository().async();
+        Specification<User> smiths = new AttributeSpecification<>("lastname", new EqualSpecification<>("SMITH"));
+        CompletableFuture<Optional<User>> robert = asyncRepository.get(1L);
+        CompletableFuture<List<User>> smithUsers = asyncRepository.get(smiths, new SortOption().add("id"));
+        CompletableFuture<Long> smithCount = asyncRepository.count(smiths);
+        CompletableFuture<Boolean> containsJane = asyncRepository.contains(4L);
+        CompletableFuture.allOf(robert, smithUsers, smithCount, containsJane).get();
+        assertThat(robert.get().map(User::getName)).hasValue("Robert");
+        assertThat(smithUsers.get()).extracting(User::getId).containsExactly(1L, 2L);
+        assertThat(smithCount.get()).isEqualTo(2);
+        assertThat(containsJane.get()).isFalse();
+        try {
+            asyncRepository.remove(4L).join();
+            fail("should have failed");
+        } catch (CompletionException e) {
+            assertThat(e.getCause()).isInstanceOf(AggregateNotFoundException.class);
+        }
+        AsyncStatistics asyncStatistics = morphiaStatistics.getAsyncOperations().get("client1");
+        assertThat(asyncStatistics.getMaxConcurrency()).isEqualTo(4);
+        assertThat(asyncStatistics.getExecutionTimes().getCount()).isGreaterThanOrEqualTo(5);
+    }
+
+    private BaseMorphiaRepository<User, Long> getBaseRepository() {
+        return (BaseMorphiaRepository<User, Long>) userRepository;
+    }
+
+    private BaseMorphiaRepository<Stock, Long> getStockRepository() {
+        return (BaseMorphiaRepository<Stock, Long>) stockRepository;
+    }
+
     private User createUser(long id, String firstname, String lastName) {
         return new User(id, firstname, lastName, new Address("France", "75001", "Paris", "Champ Elysee avenue", 1));
     }
@@ -10,6 +10,7 @@ package org.seedstack.mongodb.morphia;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import javax.inject.Inject;
@@ -27,9 +28,17 @@ import org.seedstack.business.specification.LessThanSpecification;
 import org.seedstack.business.specification.Specification;
 import org.seedstack.business.specification.StringMatchingSpecification;
 import org.seedstack.business.specification.dsl.SpecificationBuilder;
+import org.seedstack.business.spi.SpecificationTranslator;
 import org.seedstack.mongodb.morphia.fixtures.product.Picture;
 import org.seedstack.mongodb.morphia.fixtures.product.Product;
+import org.seedstack.mongodb.morphia.internal.DatastoreFactory;
+import org.seedstack.mongodb.morphia.internal.specification.MorphiaTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.TranslationCache;
 import org.seedstack.seed.testing.junit4.SeedITRunner;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import dev.morphia.Datastore;
+import dev.morphia.query.filters.Filter;
 
 @RunWith(SeedITRunner.class)
 public class SpecificationIT {
@@ -47,6 +56,12 @@ public class SpecificationIT {
     private SpecificationBuilder specificationBuilder;
     @Inject
     private IdentityService identityService;
+    @Inject
+    private TranslationCache translationCache;
+    @Inject
+    private SpecificationTranslator<MorphiaTranslationContext, Filter> specificationTranslator;
+    @Inject
+    private DatastoreFactory datastoreFactory;
 
     @Before
     public void setUp() throws Exception {
@@ -186,6 +201,26 @@ public class SpecificationIT {
         ).containsExactlyInAnyOrder(product3);
     }
 
+    @Test
+    public void testStringEqualityIgnoringCaseWithIndex() throws Exception {
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").equalTo("PRODUCT3").ignoringCase()
+                .build())
+        ).containsExactlyInAnyOrder(product3);
+        assertThat(repository.count(specificationBuilder.of(Product.class)
+                .property("designation").equalTo("Product4").ignoringCase()
+                .and()
+                .property("price").equalTo(6d)
+                .build())
+        ).isEqualTo(1);
+        assertThat(repository.contains(specificationBuilder.of(Product.class)
+                .property("designation").equalTo("PRODUCT3").ignoringCase()
+                .and()
+                .property("pictures.url.url").equalTo("PICTURE3")
+                .build())
+        ).isFalse();
+    }
+
     @Test
     public void testStringMatching() throws Exception {
         assertThat(repository.get(specificationBuilder.of(Product.class)
@@ -214,6 +249,22 @@ public class SpecificationIT {
         ).containsExactlyInAnyOrder(product6, product7);
     }
 
+    @Test
+    public void testStringMatchingWithPrefix() throws Exception {
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").matching("product+")
+                .build())
+        ).isEmpty();
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").matching("produc[t]?")
+                .build())
+        ).containsExactlyInAnyOrder(product1, product2, product3, product4, product5, product6, product7);
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").equalTo("product1").trimmingTail()
+                .build())
+        ).containsExactlyInAnyOrder(product1);
+    }
+
     @Test
     public void testStringMatchingWithTrim() throws Exception {
         assertThat(repository.get(specificationBuilder.of(Product.class)
@@ -285,6 +336,66 @@ public class SpecificationIT {
         ).isEmpty();
     }
 
+    @Test
+    public void testRange() {
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("price").greaterThan(1d)
+                .and()
+                .property("price").lessThan(6d)
+                .build())
+        ).containsExactlyInAnyOrder(product1, product2, product3, product6);
+        assertThat(repository.count(specificationBuilder.of(Product.class)
+                .none()
+                .build())
+        ).isZero();
+    }
+
+    @Test
+    public void testTranslationCache() {
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").matching("product?")
+                .and()
+                .property("price").lessThan(2d)
+                .build())
+        ).containsExactlyInAnyOrder(product5);
+        long hitCount = translationCache.getHitCount();
+        assertThat(repository.get(specificationBuilder.of(Product.class)
+                .property("designation").matching("prod*")
+                .and()
+                .property("price").lessThan(6d)
+                .build())
+        ).containsExactlyInAnyOrder(product1, product2, product3, product5, product6);
+        assertThat(translationCache.getHitCount()).isEqualTo(hitCount + 1);
+    }
+
+    @Test
+    public void testCachedTranslationsMatchTheTranslator() {
+        Datastore datastore = datastoreFactory.createDatastore(Product.class);
+        Collation caseInsensitive = Collation.builder()
+                .locale("en")
+                .collationStrength(CollationStrength.SECONDARY)
+                .build();
+        for (Collation collation : Arrays.asList(null, caseInsensitive)) {
+            long hitCount = translationCache.getHitCount();
+            for (String designation : Arrays.asList("product1", "PRODUCT2", "Product3")) {
+                Specification<Product> specification = specificationBuilder.of(Product.class)
+                        .property("designation").equalTo(designation).ignoringCase()
+                        .and()
+                        .property("price").greaterThan(1d)
+                        .build();
+                Filter cached = translationCache.translate(specification,
+                        new MorphiaTranslationContext<>(datastore.find(Product.class), collation),
+                        specificationTranslator, datastore);
+                Filter translated = specificationTranslator.translate(specification,
+                        new MorphiaTranslationContext<>(datastore.find(Product.class), collation));
+                assertThat(datastore.find(Product.class).filter(cached).toDocument())
+                        .isEqualTo(datastore.find(Product.class).filter(translated).toDocument());
+            }
+            // the first specification of the collation approves the template serving at least the next ones
+            assertThat(translationCache.getHitCount()).isGreaterThanOrEqualTo(hitCount + 2);
+        }
+    }
+
     @Test
     public void testAndVariations() {
         assertThat(repository.get(
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.GreaterThanSpecification;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.StringMatchingSpecification;
+import org.seedstack.business.spi.SpecificationTranslator;
+import org.seedstack.mongodb.morphia.fixtures.product.Product;
+import org.seedstack.mongodb.morphia.internal.DatastoreFactory;
+import org.seedstack.mongodb.morphia.internal.specification.BsonTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.MappedPaths;
+import org.seedstack.mongodb.morphia.internal.specification.MorphiaTranslationContext;
+import org.seedstack.mongodb.morphia.internal.specification.SpecificationOptimizer;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.morphia.Datastore;
+import dev.morphia.query.Query;
+import dev.morphia.query.filters.Filter;
+
+/**
+ * Compares the cost of building the query document of a specification through Morphia filters and through the
+ * direct BSON translation. It is left out of the integration tests and only runs with the {@code benchmark} profile
+ * ({@code mvn verify -Pbenchmark}), {@link BsonSpecificationIT} covering the behavior of the translation.
+ */
+@RunWith(SeedITRunner.class)
+public class TranslationBenchmarkIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TranslationBenchmarkIT.class);
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 50000;
+    @Inject
+    private SpecificationTranslator<MorphiaTranslationContext, Filter> morphiaTranslator;
+    @Inject
+    private SpecificationTranslator<BsonTranslationContext, Bson> bsonTranslator;
+    @Inject
+    private DatastoreFactory datastoreFactory;
+
+    @Test
+    public void compareTranslations() {
+        Datastore datastore = datastoreFactory.createDatastore(Product.class);
+        MappedPaths mappedPaths = new MappedPaths(datastore.getMapper(), Product.class);
+        Specification<Product> specification = SpecificationOptimizer.optimize(new AndSpecification<>(
+                new AttributeSpecification<>("designation", new StringMatchingSpecification("product?")),
+                new AttributeSpecification<>("pictures.url.url", new EqualSpecification<>("picture1")),
+                new AttributeSpecification<>("price", new GreaterThanSpecification<>(1d)),
+                new AttributeSpecification<>("price", new LessThanSpecification<>(6d)),
+                new AttributeSpecification<>("id", new NotSpecification<>(new EqualSpecification<>(3L)))));
+
+        long morphiaNanos = measure(() -> {
+            Query<Product> query = datastore.find(Product.class);
+            return query.filter(morphiaTranslator.translate(specification, new MorphiaTranslationContext<>(query)))
+                    .toDocument();
+        });
+        long bsonNanos = measure(() -> datastore.find(Product.class, (Document) bsonTranslator.translate(specification,
+                new BsonTranslationContext(mappedPaths, datastore.getCodecRegistry(), null))).toDocument());
+
+        LOGGER.info("Query document built in {} ns with Morphia filters and {} ns with BSON translation",
+                morphiaNanos, bsonNanos);
+        assertThat(morphiaNanos).isPositive();
+        assertThat(bsonNanos).isPositive();
+    }
+
+    private long measure(Supplier<Document> queryDocumentBuilder) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertThat(queryDocumentBuilder.get()).isNotEmpty();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            queryDocumentBuilder.get();
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+}
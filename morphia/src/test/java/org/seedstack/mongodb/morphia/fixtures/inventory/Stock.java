@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.fixtures.inventory;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import dev.morphia.annotations.Version;
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+@Entity
+public class Stock extends BaseAggregateRoot<Long> {
+    @Id
+    private Long id;
+    @Version
+    private Long version;
+    private int quantity;
+
+    public Stock() {
+
+    }
+
+    public Stock(long id, int quantity) {
+        this.id = id;
+        this.quantity = quantity;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
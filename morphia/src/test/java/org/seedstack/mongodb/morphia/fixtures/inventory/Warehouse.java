@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.fixtures.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.morphia.annotations.Entity;
+import dev.morphia.annotations.Id;
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+@Entity
+public class Warehouse extends BaseAggregateRoot<Long> {
+    @Id
+    private Long id;
+    private List<String> locations = new ArrayList<>();
+
+    public Warehouse() {
+
+    }
+
+    public Warehouse(long id, String location) {
+        this.id = id;
+        this.locations.add(location);
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    public void addLocation(String location) {
+        locations.add(location);
+    }
+}
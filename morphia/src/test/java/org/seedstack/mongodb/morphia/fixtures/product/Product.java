@@ -8,8 +8,12 @@
 package org.seedstack.mongodb.morphia.fixtures.product;
 
 import java.util.List;
+import com.mongodb.client.model.CollationStrength;
+import dev.morphia.annotations.Collation;
 import dev.morphia.annotations.Entity;
 import dev.morphia.annotations.Id;
+import dev.morphia.annotations.IndexOptions;
+import dev.morphia.annotations.Indexed;
 import org.seedstack.business.domain.BaseAggregateRoot;
 
 @Entity
@@ -17,6 +21,7 @@ public class Product extends BaseAggregateRoot<Long> {
 
     @Id
     private Long id;
+    @Indexed(options = @IndexOptions(collation = @Collation(locale = "en", strength = CollationStrength.SECONDARY)))
     private String designation;
     private String summary;
     private String details;
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncExecutorTest {
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void concurrencyIsCapped() throws Exception {
+        AsyncExecutor asyncExecutor = new AsyncExecutor(executorService, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            futures.add(asyncExecutor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+        Thread.sleep(50);
+        assertThat(asyncExecutor.getRunningCount()).isEqualTo(2);
+        assertThat(asyncExecutor.getQueuedCount()).isEqualTo(8);
+        release.countDown();
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(asyncExecutor.getQueueTimes().getCount()).isEqualTo(10);
+        assertThat(asyncExecutor.getQueueTimes().getMax()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(asyncExecutor.getExecutionTimes().getCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void failuresCompleteFuturesExceptionally() throws Exception {
+        AsyncExecutor asyncExecutor = new AsyncExecutor(executorService, 1);
+        CompletableFuture<Object> failed = asyncExecutor.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+        CompletableFuture<String> next = asyncExecutor.submit(() -> "next");
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(failed).isCompletedExceptionally();
+    }
+
+    @Test
+    public void rejectedOperationsCompleteFuturesExceptionally() {
+        AsyncExecutor asyncExecutor = new AsyncExecutor(command -> {
+            throw new RejectedExecutionException("rejected");
+        }, 1);
+        CompletableFuture<String> rejected = asyncExecutor.submit(() -> "rejected");
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(asyncExecutor.getRunningCount()).isZero();
+        assertThat(asyncExecutor.getQueuedCount()).isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxConcurrencyMustBePositive() {
+        new AsyncExecutor(executorService, 0);
+    }
+}
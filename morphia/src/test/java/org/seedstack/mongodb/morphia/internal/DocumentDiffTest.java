@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.bson.Document;
+import org.junit.Test;
+
+public class DocumentDiffTest {
+    @Test
+    public void equalDocumentsGiveEmptyUpdate() {
+        assertThat(DocumentDiff.compute(createDocument(), createDocument())).isEmpty();
+    }
+
+    @Test
+    public void changedFieldsAreSet() {
+        Document after = createDocument().append("quantity", 9);
+        after.get("address", Document.class).put("city", "Lyon");
+        assertThat(DocumentDiff.compute(createDocument(), after)).isEqualTo(new Document("$set",
+                new Document("quantity", 9).append("address.city", "Lyon")));
+    }
+
+    @Test
+    public void removedFieldsAreUnset() {
+        Document after = createDocument();
+        after.remove("quantity");
+        assertThat(DocumentDiff.compute(createDocument(), after))
+                .isEqualTo(new Document("$unset", new Document("quantity", "")));
+    }
+
+    @Test
+    public void appendedElementsArePushed() {
+        Document after = createDocument().append("tags", Arrays.asList("a", "b", "c", "d"));
+        assertThat(DocumentDiff.compute(createDocument(), after)).isEqualTo(new Document("$push",
+                new Document("tags", new Document("$each", Arrays.asList("c", "d")))));
+    }
+
+    @Test
+    public void otherArrayChangesAreSet() {
+        Document after = createDocument().append("tags", Arrays.asList("b", "a"));
+        assertThat(DocumentDiff.compute(createDocument(), after))
+                .isEqualTo(new Document("$set", new Document("tags", Arrays.asList("b", "a"))));
+    }
+
+    private Document createDocument() {
+        return new Document("_id", 1L)
+                .append("quantity", 10)
+                .append("address", new Document("city", "Paris").append("zipCode", "75001"))
+                .append("tags", Arrays.asList("a", "b"));
+    }
+}
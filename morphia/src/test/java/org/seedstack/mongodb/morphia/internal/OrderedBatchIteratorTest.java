@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OrderedBatchIteratorTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<List<Integer>> loadedBatches = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void valuesFollowTheOrderOfTheKeys() {
+        List<Integer> missingKeys = new ArrayList<>();
+        assertThat(iterate(Arrays.asList(6, 2, 7, 1, 4), 2, 1, missingKeys)).containsExactly("6", "2", "4");
+        assertThat(missingKeys).containsExactly(7, 1);
+        assertThat(loadedBatches).containsExactly(Arrays.asList(6, 2), Arrays.asList(7, 1), Arrays.asList(4));
+    }
+
+    @Test
+    public void batchesAreLoadedInParallel() {
+        List<Integer> missingKeys = new ArrayList<>();
+        List<Integer> keys = Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1);
+        assertThat(iterate(keys, 2, 3, missingKeys)).containsExactly("8", "6", "4", "2");
+        assertThat(missingKeys).containsExactly(9, 7, 5, 3, 1);
+        assertThat(loadedBatches).hasSize(5);
+    }
+
+    @Test
+    public void noKeys() {
+        assertThat(iterate(new ArrayList<>(), 2, 2, new ArrayList<>())).isEmpty();
+        assertThat(loadedBatches).isEmpty();
+    }
+
+    private List<String> iterate(List<Integer> keys, int batchSize, int parallelism, List<Integer> missingKeys) {
+        List<String> values = new ArrayList<>();
+        try (OrderedBatchIterator<Integer, String> iterator = new OrderedBatchIterator<>(keys.iterator(), batchSize,
+                parallelism, executor, this::loadEvenKeys, missingKeys::add)) {
+            iterator.forEachRemaining(values::add);
+        }
+        return values;
+    }
+
+    private Map<Integer, String> loadEvenKeys(List<Integer> keys) {
+        synchronized (loadedBatches) {
+            loadedBatches.add(keys);
+        }
+        return keys.stream()
+                .filter(key -> key % 2 == 0)
+                .collect(Collectors.toMap(Function.identity(), String::valueOf));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.Test;
+
+public class PartitionSpliteratorTest {
+    @Test
+    public void rangesCoverAllValues() {
+        List<Document> filters = PartitionSpliterator.rangeFilters("_id",
+                Arrays.asList(new BsonInt32(10), new BsonInt32(20)));
+        assertThat(filters).containsExactly(
+                new Document("_id", new Document("$not", new Document("$gte", new BsonInt32(10)))),
+                new Document("_id", new Document("$gte", new BsonInt32(10)).append("$lt", new BsonInt32(20))),
+                new Document("_id", new Document("$gte", new BsonInt32(20))));
+        assertThat(PartitionSpliterator.rangeFilters("_id", Collections.emptyList()))
+                .containsExactly(new Document());
+    }
+
+    @Test
+    public void boundariesSplitSamplesEvenly() {
+        List<BsonValue> samples = IntStream.range(0, 100).mapToObj(BsonInt32::new).collect(Collectors.toList());
+        assertThat(PartitionSpliterator.selectBoundaries(samples, 4))
+                .containsExactly(new BsonInt32(25), new BsonInt32(50), new BsonInt32(75));
+    }
+
+    @Test
+    public void duplicateBoundariesAreMerged() {
+        List<BsonValue> samples = Arrays.asList(new BsonInt32(1), new BsonInt32(1), new BsonInt32(1),
+                new BsonInt64(2));
+        assertThat(PartitionSpliterator.selectBoundaries(samples, 4)).containsExactly(new BsonInt32(1),
+                new BsonInt64(2));
+    }
+
+    @Test
+    public void mixedTypesGiveNoBoundary() {
+        List<BsonValue> samples = Arrays.asList(new BsonInt32(1), new BsonString("a"));
+        assertThat(PartitionSpliterator.selectBoundaries(samples, 2)).isEmpty();
+    }
+
+    @Test
+    public void splitsUntilEachPartitionIsAlone() {
+        List<Document> partitions = Arrays.asList(new Document("p", 0), new Document("p", 1), new Document("p", 2));
+        PartitionSpliterator<Object> spliterator = new PartitionSpliterator<>(partitions, partition -> {
+            throw new IllegalStateException("No cursor should be opened when splitting");
+        });
+        List<Spliterator<Object>> leaves = new ArrayList<>();
+        split(spliterator, leaves);
+        assertThat(leaves).hasSize(3);
+    }
+
+    private void split(Spliterator<Object> spliterator, List<Spliterator<Object>> leaves) {
+        Spliterator<Object> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            leaves.add(spliterator);
+        } else {
+            split(prefix, leaves);
+            split(spliterator, leaves);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.json.JsonMode;
+import org.junit.Test;
+
+public class RawDocumentWriterTest {
+    private final RawBsonDocument document = new RawBsonDocument(new BsonDocument("_id", new BsonInt64(1))
+            .append("name", new BsonString("Robert")), new BsonDocumentCodec());
+
+    @Test
+    public void bsonIsWrittenAsIs() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RawDocumentWriter writer = new RawDocumentWriter(Channels.newChannel(outputStream));
+        assertThat(writer.write(document)).isEqualTo(document.getByteBuffer().remaining());
+        assertThat(writer.write(document)).isEqualTo(document.getByteBuffer().remaining());
+        byte[] bytes = outputStream.toByteArray();
+        byte[] expected = Arrays.copyOf(document.getByteBuffer().array(), document.getByteBuffer().remaining());
+        assertThat(Arrays.copyOfRange(bytes, 0, expected.length)).isEqualTo(expected);
+        assertThat(Arrays.copyOfRange(bytes, expected.length, bytes.length)).isEqualTo(expected);
+    }
+
+    @Test
+    public void jsonIsWrittenOnePerLine() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RawDocumentWriter writer = new RawDocumentWriter(Channels.newChannel(outputStream), JsonMode.RELAXED);
+        int written = writer.write(document);
+        written += writer.write(document);
+        String json = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(json).isEqualTo("{\"_id\": 1, \"name\": \"Robert\"}\n{\"_id\": 1, \"name\": \"Robert\"}\n");
+        assertThat(written).isEqualTo(outputStream.size());
+    }
+
+    @Test
+    public void extendedJsonPreservesTypes() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new RawDocumentWriter(Channels.newChannel(outputStream), JsonMode.EXTENDED).write(document);
+        assertThat(new String(outputStream.toByteArray(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"_id\": {\"$numberLong\": \"1\"}, \"name\": \"Robert\"}\n");
+    }
+}
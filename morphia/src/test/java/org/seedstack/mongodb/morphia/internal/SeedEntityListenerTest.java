@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.mongodb.morphia.EntityListener;
+import org.seedstack.mongodb.morphia.fixtures.product.Product;
+import org.seedstack.mongodb.morphia.fixtures.user.User;
+
+import dev.morphia.Datastore;
+
+public class SeedEntityListenerTest {
+    private static final int EVENT_COUNT = 100_000;
+    private final Document document = new Document();
+    private final Datastore datastore = null;
+    private SeedEntityListener seedEntityListener;
+    private CountingListener userListener;
+
+    @Before
+    public void setUp() {
+        Set<EntityListener> listeners = new LinkedHashSet<>();
+        userListener = new CountingListener();
+        listeners.add(userListener);
+        seedEntityListener = new SeedEntityListener(listeners);
+    }
+
+    @Test
+    public void eventsAreDispatchedToApplicableListenersOnly() {
+        seedEntityListener.postLoad(new User(), document, datastore);
+        seedEntityListener.prePersist(new User(), document, datastore);
+        seedEntityListener.postLoad(new Product(), document, datastore);
+        assertThat(userListener.count).isEqualTo(2);
+    }
+
+    @Test
+    public void loadPathDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+        User user = new User();
+        Product product = new Product();
+
+        // warm up so the measured loop runs compiled code
+        dispatchLoadEvents(user, product);
+        dispatchLoadEvents(user, product);
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        dispatchLoadEvents(user, product);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // a few bytes may be attributed to the measurement itself but nothing proportional to the event count
+        assertThat(allocated).isLessThan(EVENT_COUNT);
+    }
+
+    private void dispatchLoadEvents(User user, Product product) {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            seedEntityListener.preLoad(user, document, datastore);
+            seedEntityListener.postLoad(user, document, datastore);
+            seedEntityListener.preLoad(product, document, datastore);
+            seedEntityListener.postLoad(product, document, datastore);
+        }
+    }
+
+    private com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(sunThreadMXBean.isThreadAllocatedMemorySupported());
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadMXBean;
+    }
+
+    private static class CountingListener implements EntityListener<User> {
+        private int count;
+
+        @Override
+        public Class<User> getListenerClass() {
+            return User.class;
+        }
+
+        @Override
+        public void postLoad(User entity, Document document, Datastore datastore) {
+            count++;
+        }
+
+        @Override
+        public void prePersist(User entity, Document document, Datastore datastore) {
+            count++;
+        }
+    }
+}
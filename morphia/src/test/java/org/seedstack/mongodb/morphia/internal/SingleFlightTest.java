@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    public void identicalQueriesInFlightAreExecutedOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("count {}", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 42L;
+        }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("count {}", () -> {
+            executions.incrementAndGet();
+            return 0L;
+        }));
+        while (singleFlight.getSharedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(42L);
+        assertThat(executions).hasValue(1);
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void completedQueriesAreExecutedAgain() {
+        assertThat(singleFlight.execute("count {}", () -> 1L)).isEqualTo(1L);
+        assertThat(singleFlight.execute("count {}", () -> 2L)).isEqualTo(2L);
+        assertThat(singleFlight.getSharedCount()).isZero();
+    }
+
+    @Test
+    public void failuresAreNotKept() {
+        assertThatThrownBy(() -> singleFlight.execute("count {}", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute("count {}", () -> 1L)).isEqualTo(1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.FalseSpecification;
+import org.seedstack.business.specification.GreaterThanSpecification;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.specification.NotSpecification;
+import org.seedstack.business.specification.OrSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.TrueSpecification;
+import org.seedstack.mongodb.morphia.fixtures.product.Product;
+
+public class SpecificationOptimizerTest {
+    @Test
+    public void nestedConjunctionsAreFlattened() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new AndSpecification<>(
+                attribute("designation", new EqualSpecification<>("product1")),
+                new AndSpecification<>(
+                        attribute("summary", new EqualSpecification<>("summary1")),
+                        new TrueSpecification<>())));
+        assertThat(optimized).isInstanceOf(AndSpecification.class);
+        assertThat(((AndSpecification<Product>) optimized).getSpecifications()).hasSize(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void equalitiesOnSameAttributeAreFoldedIntoIn() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new OrSpecification<>(
+                attribute("designation", new EqualSpecification<>("product1")),
+                new OrSpecification<>(
+                        attribute("designation", new EqualSpecification<>("product2")),
+                        attribute("designation", new EqualSpecification<>("product3")))));
+        assertThat(optimized).isInstanceOf(AttributeSpecification.class);
+        Specification<?> valueSpecification = ((AttributeSpecification<?, ?>) optimized).getValueSpecification();
+        assertThat(valueSpecification).isInstanceOf(InSpecification.class);
+        assertThat(((InSpecification<Object>) valueSpecification).getExpectedValues())
+                .containsExactly("product1", "product2", "product3");
+    }
+
+    @Test
+    public void boundsOnSameAttributeAreMerged() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new AndSpecification<>(
+                attribute("price", new GreaterThanSpecification<>(1d)),
+                attribute("price", new LessThanSpecification<>(10d)),
+                attribute("price", new GreaterThanSpecification<>(2d))));
+        assertThat(optimized).isInstanceOf(AttributeSpecification.class);
+        Specification<?> valueSpecification = ((AttributeSpecification<?, ?>) optimized).getValueSpecification();
+        assertThat(valueSpecification).isInstanceOf(RangeSpecification.class);
+        assertThat(((RangeSpecification<?>) valueSpecification).getLowerBound()).isEqualTo(2d);
+        assertThat(((RangeSpecification<?>) valueSpecification).getUpperBound()).isEqualTo(10d);
+    }
+
+    @Test
+    public void boundsOfDifferentTypesAreNotMerged() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new AndSpecification<>(
+                attribute("price", new GreaterThanSpecification<>(1)),
+                attribute("price", new GreaterThanSpecification<>(2L)),
+                attribute("price", new GreaterThanSpecification<>(3L))));
+        assertThat(optimized).isInstanceOf(AndSpecification.class);
+        Specification<Product>[] operands = ((AndSpecification<Product>) optimized).getSpecifications();
+        assertThat(operands).hasSize(2);
+        assertThat(((GreaterThanSpecification<?>) ((AttributeSpecification<?, ?>) operands[0])
+                .getValueSpecification()).getExpectedValue()).isEqualTo(1);
+        assertThat(((GreaterThanSpecification<?>) ((AttributeSpecification<?, ?>) operands[1])
+                .getValueSpecification()).getExpectedValue()).isEqualTo(3L);
+    }
+
+    @Test
+    public void stringBoundsAreNotMerged() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new AndSpecification<>(
+                attribute("designation", new GreaterThanSpecification<>("a")),
+                attribute("designation", new GreaterThanSpecification<>("B"))));
+        assertThat(optimized).isInstanceOf(AndSpecification.class);
+        assertThat(((AndSpecification<Product>) optimized).getSpecifications()).hasSize(2);
+    }
+
+    @Test
+    public void alwaysFalseSpecificationIsDetected() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new AndSpecification<>(
+                attribute("designation", new EqualSpecification<>("product1")),
+                new OrSpecification<>(new FalseSpecification<>(), new NotSpecification<>(new TrueSpecification<>()))));
+        assertThat(SpecificationOptimizer.isNeverSatisfied(optimized)).isTrue();
+    }
+
+    @Test
+    public void negationsArePushedToLeaves() {
+        Specification<Product> optimized = SpecificationOptimizer.optimize(new NotSpecification<>(
+                new OrSpecification<>(
+                        attribute("designation", new EqualSpecification<>("product1")),
+                        new NotSpecification<>(attribute("summary", new EqualSpecification<>("summary1"))))));
+        assertThat(optimized).isInstanceOf(AndSpecification.class);
+        Specification<Product>[] operands = ((AndSpecification<Product>) optimized).getSpecifications();
+        assertThat(((AttributeSpecification<?, ?>) operands[0]).getValueSpecification())
+                .isInstanceOf(NotSpecification.class);
+        assertThat(((AttributeSpecification<?, ?>) operands[1]).getValueSpecification())
+                .isInstanceOf(EqualSpecification.class);
+    }
+
+    private <V> Specification<Product> attribute(String path, Specification<V> valueSpecification) {
+        return new AttributeSpecification<>(path, valueSpecification);
+    }
+}
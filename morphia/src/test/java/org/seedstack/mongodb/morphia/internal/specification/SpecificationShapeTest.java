@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2013-2024, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.mongodb.morphia.internal.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.seedstack.business.specification.AndSpecification;
+import org.seedstack.business.specification.AttributeSpecification;
+import org.seedstack.business.specification.EqualSpecification;
+import org.seedstack.business.specification.GreaterThanSpecification;
+import org.seedstack.business.specification.LessThanSpecification;
+import org.seedstack.business.specification.Specification;
+import org.seedstack.business.specification.StringMatchingSpecification;
+import org.seedstack.mongodb.morphia.fixtures.product.Product;
+
+public class SpecificationShapeTest {
+    @Test
+    public void valuesDoNotChangeTheShape() {
+        SpecificationShape shape1 = SpecificationShape.of(new AndSpecification<>(
+                attribute("designation", new StringMatchingSpecification("product?")),
+                attribute("price", new GreaterThanSpecification<>(1d))));
+        SpecificationShape shape2 = SpecificationShape.of(new AndSpecification<>(
+                attribute("designation", new StringMatchingSpecification("item*")),
+                attribute("price", new GreaterThanSpecification<>(5d))));
+        assertThat(shape1.getKey()).isEqualTo(shape2.getKey());
+        assertThat(shape1.getValues()).containsExactly("product?", 1d);
+        assertThat(shape2.getValues()).containsExactly("item*", 5d);
+    }
+
+    @Test
+    public void structureChangesTheShape() {
+        SpecificationShape greaterThan = SpecificationShape.of(attribute("price", new GreaterThanSpecification<>(1d)));
+        SpecificationShape lessThan = SpecificationShape.of(attribute("price", new LessThanSpecification<>(1d)));
+        SpecificationShape otherPath = SpecificationShape.of(attribute("id", new GreaterThanSpecification<>(1d)));
+        assertThat(greaterThan.getKey()).isNotEqualTo(lessThan.getKey());
+        assertThat(greaterThan.getKey()).isNotEqualTo(otherPath.getKey());
+    }
+
+    @Test
+    public void nullValuesChangeTheShape() {
+        SpecificationShape isNull = SpecificationShape.of(attribute("designation", new EqualSpecification<>(null)));
+        SpecificationShape isEqual = SpecificationShape.of(attribute("designation", new EqualSpecification<>("p")));
+        assertThat(isNull.getKey()).isNotEqualTo(isEqual.getKey());
+        assertThat(isNull.getValues()).isEmpty();
+    }
+
+    @Test
+    public void invalidSpecificationsHaveNoShape() {
+        assertThat(SpecificationShape.of(new EqualSpecification<>("p"))).isNull();
+        assertThat(SpecificationShape.of(attribute("pictures", attribute("url", new EqualSpecification<>("p")))))
+                .isNull();
+    }
+
+    private static <V> Specification<Product> attribute(String path, Specification<V> valueSpecification) {
+        return new AttributeSpecification<>(path, valueSpecification);
+    }
+}